@@ -56,10 +56,7 @@ public class PanelArbol extends JPanel {
 
     private void construirSubarbol(DefaultMutableTreeNode nodoParente, Directorio directorio) {
         // Agregar subdirectorios
-        for (Directorio subdir : directorio.getSubdirectorios()) {
-            if (!sistema.puedeVerDirectorio(subdir)) {
-                continue;
-            }
+        for (Directorio subdir : sistema.obtenerSubdirectoriosVisibles(directorio)) {
             DefaultMutableTreeNode nodoSubdir = new DefaultMutableTreeNode(
                 new NodoReferencia(subdir, subdir.getNombre(), subdir.getNombre()));
             nodoParente.add(nodoSubdir);
@@ -67,10 +64,7 @@ public class PanelArbol extends JPanel {
         }
 
         // Agregar archivos
-        for (Archivo archivo : directorio.getArchivos()) {
-            if (!sistema.puedeVerArchivo(archivo)) {
-                continue;
-            }
+        for (Archivo archivo : sistema.obtenerArchivosVisibles(directorio)) {
             String etiqueta = archivo.getNombre() + " (" +
                             archivo.getCantidadBloquesAsignados() + " bloques)";
             DefaultMutableTreeNode nodoArchivo = new DefaultMutableTreeNode(
@@ -18,6 +18,10 @@ public class PanelBuffer extends JPanel {
     private JLabel lblLibre;
     private JProgressBar barraOcupacion;
     private JLabel lblPolitica;
+    private JLabel lblAciertos;
+    private JLabel lblEscritura;
+    private JLabel lblMetricas;
+    private JLabel lblReutilizacion;
 
     public PanelBuffer(SistemaArchivos sistema) {
         this.sistema = sistema;
@@ -32,19 +36,23 @@ public class PanelBuffer extends JPanel {
 
         JSplitPane split = new JSplitPane(JSplitPane.VERTICAL_SPLIT,
             panelInfo, panelTabla);
-        split.setDividerLocation(120);
+        split.setDividerLocation(245);
 
         add(split, BorderLayout.CENTER);
     }
 
     private JPanel crearPanelInformacion() {
-        JPanel panel = new JPanel(new GridLayout(4, 1, 5, 5));
+        JPanel panel = new JPanel(new GridLayout(9, 1, 5, 5));
         panel.setBorder(BorderFactory.createTitledBorder("Información del Buffer"));
 
         lblCapacidad = new JLabel("Capacidad: - bloques");
         lblOcupado = new JLabel("Espacio ocupado: - bloques");
         lblLibre = new JLabel("Espacio libre: - bloques");
         lblPolitica = new JLabel("Política de reemplazo: -");
+        lblAciertos = new JLabel("Tasa de aciertos: -");
+        lblEscritura = new JLabel("Escritura: -");
+        lblMetricas = new JLabel("Aciertos: - | Fallos: - | Desalojos: -");
+        lblReutilizacion = new JLabel("Distancia de reutilización de fallos: -");
 
         barraOcupacion = new JProgressBar(0, 100);
         barraOcupacion.setStringPainted(true);
@@ -53,6 +61,11 @@ public class PanelBuffer extends JPanel {
         panel.add(lblCapacidad);
         panel.add(lblOcupado);
         panel.add(lblLibre);
+        panel.add(lblPolitica);
+        panel.add(lblMetricas);
+        panel.add(lblAciertos);
+        panel.add(lblReutilizacion);
+        panel.add(lblEscritura);
         panel.add(barraOcupacion);
 
         actualizarInfo();
@@ -93,6 +106,47 @@ public class PanelBuffer extends JPanel {
         lblLibre.setText("Espacio libre: " + buffer.getEspacioDisponible() + " bloques");
         lblPolitica.setText("Política de reemplazo: " + buffer.getPoliticaActual().name());
 
+        // Tasa de aciertos de cada política que estuvo activa
+        StringBuilder tasas = new StringBuilder("Tasa de aciertos:");
+        for (Buffer.PoliticaReemplazo politica : Buffer.PoliticaReemplazo.values()) {
+            if (buffer.getAciertos(politica) + buffer.getFallos(politica) > 0) {
+                tasas.append(String.format(" %s %.1f%%", politica.name(), buffer.getTasaAciertos(politica)));
+            }
+        }
+        lblAciertos.setText(tasas.toString());
+
+        EstadisticasBuffer estadisticas = sistema.getEstadisticasBuffer();
+        lblMetricas.setText("Aciertos: " + estadisticas.getAciertos()
+            + " | Fallos: " + estadisticas.getFallos()
+            + (buffer.isMedirDistancias() ? " (" + estadisticas.getPrimerosAccesos() + " primeros accesos)" : "")
+            + " | Desalojos: " + estadisticas.getDesalojos());
+
+        if (buffer.isMedirDistancias()) {
+            // Histograma de distancias en potencias de dos y efecto estimado de duplicar la capacidad
+            StringBuilder distancias = new StringBuilder("Distancia de reutilización de fallos:");
+            long[] histograma = estadisticas.getHistogramaFallos();
+            for (int i = 0; i < histograma.length; i++) {
+                if (histograma[i] > 0) {
+                    distancias.append(" <").append(1L << (i + 1)).append(": ").append(histograma[i]);
+                }
+            }
+            distancias.append(" | Con el doble de capacidad se evitarían ~")
+                .append(estadisticas.estimarFallosEvitables(buffer.getCapacidadMaxima() * 2)
+                        - estadisticas.estimarFallosEvitables(buffer.getCapacidadMaxima()))
+                .append(" fallos");
+            lblReutilizacion.setText(distancias.toString());
+        } else {
+            lblReutilizacion.setText("Distancia de reutilización: sin medir");
+        }
+
+        if (buffer.isEscrituraDiferida()) {
+            lblEscritura.setText("Escritura diferida: " + buffer.getCantidadSucios() + " bloques sucios, "
+                + sistema.getTotalEscriturasAbsorbidas() + " escrituras absorbidas, "
+                + sistema.getTotalEscriturasDispositivo() + " enviadas al disco");
+        } else {
+            lblEscritura.setText("Escritura directa al disco");
+        }
+
         int porcentaje = (int) buffer.getPercentajeOcupacion();
         barraOcupacion.setValue(porcentaje);
         barraOcupacion.setString(porcentaje + "%");
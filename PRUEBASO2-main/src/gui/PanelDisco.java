@@ -17,6 +17,8 @@ public class PanelDisco extends JPanel {
     private JLabel lblLibres;
     private JLabel lblPorcentaje;
     private JLabel lblPolítica;
+    private JLabel lblFragmentacion;
+    private JLabel lblCabezal;
 
     public PanelDisco(SistemaArchivos sistema) {
         this.sistema = sistema;
@@ -86,7 +88,7 @@ public class PanelDisco extends JPanel {
     }
 
     private JPanel crearPanelInformacion() {
-        JPanel panel = new JPanel(new GridLayout(5, 1, 5, 5));
+        JPanel panel = new JPanel(new GridLayout(7, 1, 5, 5));
         panel.setBorder(BorderFactory.createTitledBorder("Información del Disco"));
 
         lblTotal = new JLabel("Total de bloques: 0");
@@ -94,12 +96,16 @@ public class PanelDisco extends JPanel {
         lblLibres = new JLabel("Bloques libres: 0");
         lblPorcentaje = new JLabel("Ocupación: 0%");
         lblPolítica = new JLabel("Política: FIFO");
+        lblFragmentacion = new JLabel("Fragmentación: -");
+        lblCabezal = new JLabel("Cabezal: 0");
 
         panel.add(lblTotal);
         panel.add(lblOcupados);
         panel.add(lblLibres);
         panel.add(lblPorcentaje);
         panel.add(lblPolítica);
+        panel.add(lblFragmentacion);
+        panel.add(lblCabezal);
 
         return panel;
     }
@@ -111,6 +117,13 @@ public class PanelDisco extends JPanel {
         lblLibres.setText("Bloques libres: " + disco.getBloquesLibres());
         lblPorcentaje.setText(String.format("Ocupación: %.2f%%", disco.getPercentajeOcupacion()));
         lblPolítica.setText("Política: " + sistema.getPlanificador().getPoliticaActual());
+        lblFragmentacion.setText(String.format("Extensiones/archivo: %.2f | Mayor hueco: %d",
+            disco.getPromedioExtensionesPorArchivo(), disco.getMayorHuecoLibre()));
+        Planificador planificador = sistema.getPlanificador();
+        Planificador.PoliticaplanificacionDisco politica = planificador.getPoliticaActual();
+        lblCabezal.setText(String.format("Cabezal: %d | Recorrido: %d (%.1f/solicitud)",
+            planificador.getPosicionCabezal(), planificador.getMovimientoCabezal(politica),
+            planificador.getMovimientoPromedio(politica)));
     }
 
     public void actualizar() {
@@ -17,6 +17,7 @@ public class PanelProcesos extends JPanel {
     private JTable tablaColaIO;
     private DefaultTableModel modeloProcesos;
     private DefaultTableModel modeloColaIO;
+    private JLabel lblEsperas;
     private SimpleDateFormat formato;
 
     public PanelProcesos(SistemaArchivos sistema) {
@@ -64,7 +65,7 @@ public class PanelProcesos extends JPanel {
         JPanel panel = new JPanel(new BorderLayout());
         panel.setBorder(BorderFactory.createTitledBorder("Cola de E/S"));
 
-        String[] columnNames = {"ID Solicitud", "ID Proceso", "Tipo", "Archivo", 
+        String[] columnNames = {"ID Solicitud", "ID Proceso", "Usuario", "Tipo", "Archivo", 
                                "Completada", "Tiempo Espera (ms)"};
         modeloColaIO = new DefaultTableModel(columnNames, 0) {
             @Override
@@ -80,6 +81,9 @@ public class PanelProcesos extends JPanel {
         JScrollPane scrollPane = new JScrollPane(tablaColaIO);
         panel.add(scrollPane, BorderLayout.CENTER);
 
+        lblEsperas = new JLabel("Espera máxima: 0 ms | p99: 0 ms");
+        panel.add(lblEsperas, BorderLayout.SOUTH);
+
         return panel;
     }
 
@@ -111,10 +115,16 @@ public class PanelProcesos extends JPanel {
         ColaIO colaIO = sistema.getColaIO();
         LinkedList<SolicitudIO> solicitudes = colaIO.obtenerTodas();
 
+        lblEsperas.setText(String.format(
+            "Espera máxima: %d ms | p99: %d ms | Pendiente más antigua: %d ms | Saltos por vencimiento: %d | Fusiones: %.1f%%",
+            colaIO.getEsperaMaxima(), colaIO.getEsperaP99(), colaIO.getEsperaPendienteMaxima(),
+            sistema.getPlanificador().getSaltosPorVencimiento(), colaIO.getTasaFusion() * 100));
+
         for (SolicitudIO solicitud : solicitudes) {
             Object[] fila = {
                 solicitud.getIdSolicitud(),
                 solicitud.getIdProceso(),
+                solicitud.getUsuario(),
                 solicitud.getTipo().name(),
                 solicitud.getArchivoAfectado() != null ? 
                     solicitud.getArchivoAfectado().getNombre() : "-",
@@ -3,7 +3,7 @@ package gui;
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
-import java.util.LinkedList;
+import java.util.Collection;
 import modelo.*;
 
 /**
@@ -45,7 +45,7 @@ public class PanelTablaArchivos extends JPanel {
         modeloTabla.setRowCount(0);
 
         // Obtener archivos visibles según el modo actual
-        LinkedList<Archivo> todosLosArchivos = sistema.obtenerArchivosVisibles();
+        Collection<Archivo> todosLosArchivos = sistema.obtenerArchivosVisibles();
 
         for (Archivo archivo : todosLosArchivos) {
             Object[] fila = {
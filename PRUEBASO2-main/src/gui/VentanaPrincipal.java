@@ -21,6 +21,7 @@ public class VentanaPrincipal extends JFrame {
     private final PanelProcesos panelProcesos;
     private JLabel estadoLabel;
     private JLabel usuarioLabel;
+    private Timer refrescoDespachador;   // Refresca la pantalla mientras despacha el hilo de E/S
 
     public VentanaPrincipal(int numBloques) {
         // Inicializar sistema (256 bloques, SIN buffer - es opcional)
@@ -87,25 +88,52 @@ public class VentanaPrincipal extends JFrame {
         JMenuItem crearDirectorio = new JMenuItem("Crear Directorio");
         JMenuItem crearArchivo = new JMenuItem("Crear Archivo");
         JMenuItem eliminarArchivo = new JMenuItem("Eliminar Archivo");
+        JMenuItem desfragmentar = new JMenuItem("Desfragmentar Disco");
 
         crearDirectorio.addActionListener(e -> mostrarDialogoCrearDirectorio());
         crearArchivo.addActionListener(e -> mostrarDialogoCrearArchivo());
         eliminarArchivo.addActionListener(e -> eliminarArchivoSeleccionado());
+        desfragmentar.addActionListener(e -> desfragmentarDisco());
 
         menuEdicion.add(crearDirectorio);
         menuEdicion.add(crearArchivo);
         menuEdicion.add(eliminarArchivo);
+        menuEdicion.addSeparator();
+        menuEdicion.add(desfragmentar);
 
         // Menú Configuración
         JMenu menuConfiguracion = new JMenu("Configuración");
         JMenuItem cambiarModo = new JMenuItem("Cambiar Modo");
         JMenuItem planificacion = new JMenuItem("Política de Planificación");
+        JMenuItem asignacion = new JMenuItem("Política de Asignación");
+        JMenuItem reemplazo = new JMenuItem("Política de Reemplazo");
+        JCheckBoxMenuItem escrituraDiferida = new JCheckBoxMenuItem("Escritura Diferida del Buffer");
+        JCheckBoxMenuItem medirDistancias = new JCheckBoxMenuItem("Medir Distancias de Reutilización");
+        JCheckBoxMenuItem despachoAutomatico = new JCheckBoxMenuItem("Despacho Automático de E/S");
 
         cambiarModo.addActionListener(e -> mostrarDialogoCambiarModo());
         planificacion.addActionListener(e -> mostrarDialogoPlanificacion());
+        asignacion.addActionListener(e -> mostrarDialogoAsignacion());
+        reemplazo.addActionListener(e -> mostrarDialogoReemplazo());
+        escrituraDiferida.setEnabled(sistema.getBuffer() != null);
+        escrituraDiferida.addActionListener(e -> {
+            sistema.setEscrituraDiferida(escrituraDiferida.isSelected());
+            actualizarPantalla();
+        });
+        medirDistancias.setEnabled(sistema.getBuffer() != null);
+        medirDistancias.addActionListener(e -> {
+            sistema.setMedirDistanciasBuffer(medirDistancias.isSelected());
+            actualizarPantalla();
+        });
+        despachoAutomatico.addActionListener(e -> cambiarDespachoAutomatico(despachoAutomatico.isSelected()));
 
         menuConfiguracion.add(cambiarModo);
         menuConfiguracion.add(planificacion);
+        menuConfiguracion.add(asignacion);
+        menuConfiguracion.add(reemplazo);
+        menuConfiguracion.add(escrituraDiferida);
+        menuConfiguracion.add(medirDistancias);
+        menuConfiguracion.add(despachoAutomatico);
 
         // Agregar menu's
         menuBar.add(menuArchivo);
@@ -257,6 +285,13 @@ public class VentanaPrincipal extends JFrame {
         }
     }
 
+    private void desfragmentarDisco() {
+        ReporteDesfragmentacion reporte = sistema.desfragmentar();
+        actualizarPantalla();
+        JOptionPane.showMessageDialog(this, reporte.toString(),
+            "Desfragmentación", JOptionPane.INFORMATION_MESSAGE);
+    }
+
     private void mostrarDialogoCambiarModo() {
         String[] opciones = {"ADMINISTRADOR", "USUARIO"};
         int opcion = JOptionPane.showOptionDialog(this, 
@@ -281,16 +316,33 @@ public class VentanaPrincipal extends JFrame {
     }
 
     private void mostrarDialogoPlanificacion() {
-        String[] politicas = {"FIFO", "SSTF", "SCAN", "CSCAN"};
+        Planificador planificador = sistema.getPlanificador();
+        Planificador.PoliticaplanificacionDisco[] valores = Planificador.PoliticaplanificacionDisco.values();
+        String[] politicas = new String[valores.length];
+        for (int i = 0; i < valores.length; i++) {
+            politicas[i] = valores[i].name();
+        }
+
+        StringBuilder mensaje = new StringBuilder("Seleccione la política de planificación:");
+        Planificador.PoliticaplanificacionDisco mejor = planificador.getPoliticaMenorRecorrido();
+        if (mejor != null) {
+            mensaje.append("\nRecorrido medio del cabezal por solicitud:");
+            for (Planificador.PoliticaplanificacionDisco valor : valores) {
+                if (planificador.getSolicitudesAtendidas(valor) > 0) {
+                    mensaje.append(String.format("\n  %s: %.1f cilindros (%d atendidas)", valor.name(),
+                        planificador.getMovimientoPromedio(valor), planificador.getSolicitudesAtendidas(valor)));
+                }
+            }
+        }
+
         int opcion = JOptionPane.showOptionDialog(this,
-            "Seleccione la política de planificación:",
+            mensaje.toString(),
             "Planificación de Disco",
-            JOptionPane.YES_NO_CANCEL_OPTION, JOptionPane.QUESTION_MESSAGE,
-            null, politicas, politicas[0]);
+            JOptionPane.DEFAULT_OPTION, JOptionPane.QUESTION_MESSAGE,
+            null, politicas, politicas[planificador.getPoliticaActual().ordinal()]);
 
         if (opcion >= 0) {
-            Planificador.PoliticaplanificacionDisco politica = 
-                Planificador.PoliticaplanificacionDisco.values()[opcion];
+            Planificador.PoliticaplanificacionDisco politica = valores[opcion];
             sistema.setPoliticaPlanificacion(politica);
             JOptionPane.showMessageDialog(this, 
                 "Política cambiada a: " + politica.name());
@@ -298,15 +350,97 @@ public class VentanaPrincipal extends JFrame {
         }
     }
 
+    private void mostrarDialogoAsignacion() {
+        // La primera opción es la asignación encadenada; el resto usa extensiones
+        String[] opciones = {"ENCADENADA", "PRIMER_AJUSTE", "SIGUIENTE_AJUSTE",
+                             "MEJOR_AJUSTE", "BUDDY"};
+        int opcion = JOptionPane.showOptionDialog(this,
+            "Seleccione la política de asignación de bloques:",
+            "Asignación de Disco",
+            JOptionPane.DEFAULT_OPTION, JOptionPane.QUESTION_MESSAGE,
+            null, opciones, opciones[0]);
+
+        if (opcion == 0) {
+            sistema.setModoAsignacion(Disco.ModoAsignacion.ENCADENADA);
+        } else if (opcion > 0) {
+            sistema.setModoAsignacion(Disco.ModoAsignacion.EXTENSIONES);
+            sistema.setPoliticaAsignacion(Disco.PoliticaAsignacion.valueOf(opciones[opcion]));
+        } else {
+            return;
+        }
+        JOptionPane.showMessageDialog(this, "Asignación cambiada a: " + opciones[opcion]);
+        actualizarPantalla();
+    }
+
+    private void mostrarDialogoReemplazo() {
+        if (sistema.getBuffer() == null) {
+            JOptionPane.showMessageDialog(this, "El sistema no tiene buffer");
+            return;
+        }
+
+        Buffer.PoliticaReemplazo[] politicas = Buffer.PoliticaReemplazo.values();
+        String[] opciones = new String[politicas.length];
+        for (int i = 0; i < politicas.length; i++) {
+            opciones[i] = politicas[i] == Buffer.PoliticaReemplazo.DOS_Q ? "2Q" : politicas[i].name();
+        }
+        int opcion = JOptionPane.showOptionDialog(this,
+            "Seleccione la política de reemplazo del buffer:",
+            "Reemplazo del Buffer",
+            JOptionPane.DEFAULT_OPTION, JOptionPane.QUESTION_MESSAGE,
+            null, opciones, opciones[sistema.getBuffer().getPoliticaActual().ordinal()]);
+
+        if (opcion >= 0) {
+            sistema.setPoliticaReemplazo(politicas[opcion]);
+            JOptionPane.showMessageDialog(this, "Política cambiada a: " + opciones[opcion]);
+            actualizarPantalla();
+        }
+    }
+
+    /**
+     * Con el despacho automático la cola se atiende en un hilo propio y el
+     * progreso de E/S se refresca periódicamente
+     */
+    private void cambiarDespachoAutomatico(boolean activo) {
+        if (activo) {
+            sistema.iniciarDespachador(true);
+            if (refrescoDespachador == null) {
+                refrescoDespachador = new Timer(250, e -> actualizarProgresoES());
+            }
+            refrescoDespachador.start();
+        } else {
+            if (refrescoDespachador != null) {
+                refrescoDespachador.stop();
+            }
+            sistema.detenerDespachador();
+        }
+        actualizarPantalla();
+    }
+
+    /**
+     * Refresca solo lo que cambia al despachar (disco, procesos y estado), sin
+     * reconstruir el árbol ni perder la selección
+     */
+    private void actualizarProgresoES() {
+        synchronized (sistema) {
+            panelDisco.actualizar();
+            panelProcesos.actualizar();
+            estadoLabel.setText("Estado: " + sistema.toString());
+        }
+    }
+
     private void actualizarPantalla() {
-        panelArbol.actualizar();
-        panelDisco.actualizar();
-        panelTabla.actualizar();
-        panelProcesos.actualizar();
-
-        usuarioLabel.setText("Usuario: " + sistema.getUsuarioActual() +
-            " | Modo: " + (sistema.isModoAdministrador() ? "ADMIN" : "USER"));
-        estadoLabel.setText("Estado: " + sistema.toString());
+        // Los paneles leen el modelo: se hace con el cerrojo del sistema para
+        // no cruzarse con el despachador
+        synchronized (sistema) {
+            panelArbol.actualizar();
+            panelDisco.actualizar();
+            panelTabla.actualizar();
+            panelProcesos.actualizar();
+
+            usuarioLabel.setText("Usuario: " + sistema.getUsuarioActual() +
+                " | Modo: " + (sistema.isModoAdministrador() ? "ADMIN" : "USER"));
+            estadoLabel.setText("Estado: " + sistema.toString());
+        }
     }
 
     private void guardarSistema() {
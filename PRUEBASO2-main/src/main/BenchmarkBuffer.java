@@ -0,0 +1,118 @@
+package main;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+import modelo.Buffer;
+import modelo.SistemaArchivos;
+
+/**
+ * Compara el buffer con sus bloques en el heap frente al pool de marcos fuera
+ * del heap (SistemaArchivos.usarBufferFueraDelHeap) con la misma cantidad de
+ * marcos. La carga lee archivos al azar y los reemplaza de vez en cuando, con
+ * escritura diferida, despachando la cola de E/S después de cada operación.
+ * Informa operaciones por segundo, tasa de aciertos y el trabajo del
+ * recolector de basura durante la medición
+ */
+public class BenchmarkBuffer {
+    private static final int TOTAL_BLOQUES = 1 << 14;
+    private static final int ARCHIVOS = 1500;
+    private static final int MAX_BLOQUES_POR_ARCHIVO = 8;
+    private static final int OPERACIONES = 300_000;
+    private static final int TAMAÑO_MARCO = 4096;
+    private static final int REPETICIONES = 3;
+
+    /**
+     * @param args opcionalmente, la cantidad de operaciones por corrida
+     */
+    public static void main(String[] args) {
+        int operaciones = args.length > 0 ? Integer.parseInt(args[0]) : OPERACIONES;
+
+        // Calentamiento para que el JIT compile ambos caminos
+        medir(false, operaciones / 4);
+        medir(true, operaciones / 4);
+
+        System.out.printf("%-14s %14s %10s %8s %10s%n", "Buffer", "Operaciones/s", "Aciertos", "GCs", "GC (ms)");
+        for (boolean fueraDelHeap : new boolean[]{false, true}) {
+            Resultado mejor = null;
+            for (int i = 0; i < REPETICIONES; i++) {
+                Resultado resultado = medir(fueraDelHeap, operaciones);
+                if (mejor == null || resultado.operacionesPorSegundo > mejor.operacionesPorSegundo) {
+                    mejor = resultado;
+                }
+            }
+            System.out.printf("%-14s %,14.0f %9.1f%% %8d %10d%n", fueraDelHeap ? "fuera del heap" : "heap",
+                mejor.operacionesPorSegundo, mejor.tasaAciertos, mejor.recolecciones, mejor.milisegundosGC);
+        }
+    }
+
+    private static final class Resultado {
+        double operacionesPorSegundo;
+        double tasaAciertos;
+        long recolecciones;
+        long milisegundosGC;
+    }
+
+    private static Resultado medir(boolean fueraDelHeap, int operaciones) {
+        SistemaArchivos sistema = new SistemaArchivos(TOTAL_BLOQUES, true);
+        Buffer buffer = sistema.getBuffer();
+        if (fueraDelHeap) {
+            sistema.usarBufferFueraDelHeap((long) buffer.getCapacidadMaxima() * TAMAÑO_MARCO, TAMAÑO_MARCO);
+        }
+        sistema.setPoliticaReemplazo(Buffer.PoliticaReemplazo.CLOCK);
+        sistema.setEscrituraDiferida(true);
+
+        Random aleatorio = new Random(7);
+        for (int i = 0; i < ARCHIVOS; i++) {
+            sistema.crearArchivo("f" + i, 1 + aleatorio.nextInt(MAX_BLOQUES_POR_ARCHIVO), false);
+        }
+        despachar(sistema);
+        sistema.getEstadisticasBuffer().reiniciar();
+
+        long recoleccionesAntes = recolecciones();
+        long milisegundosAntes = milisegundosGC();
+        long inicio = System.nanoTime();
+        for (int i = 0; i < operaciones; i++) {
+            // Lecturas sesgadas hacia los primeros archivos para que haya reutilización
+            int archivo = Math.min(aleatorio.nextInt(ARCHIVOS), aleatorio.nextInt(ARCHIVOS));
+            String nombre = "f" + archivo;
+            if (aleatorio.nextInt(10) == 0) {
+                sistema.eliminarArchivo(nombre);
+                sistema.crearArchivo(nombre, 1 + aleatorio.nextInt(MAX_BLOQUES_POR_ARCHIVO), false);
+            } else {
+                sistema.leerArchivo(nombre);
+            }
+            despachar(sistema);
+        }
+        long nanos = System.nanoTime() - inicio;
+
+        Resultado resultado = new Resultado();
+        resultado.operacionesPorSegundo = operaciones / (nanos / 1e9);
+        resultado.tasaAciertos = sistema.getEstadisticasBuffer().getTasaAciertos();
+        resultado.recolecciones = recolecciones() - recoleccionesAntes;
+        resultado.milisegundosGC = milisegundosGC() - milisegundosAntes;
+        return resultado;
+    }
+
+    private static void despachar(SistemaArchivos sistema) {
+        while (sistema.procesarSiguienteSolicitud()) {
+            // Atender todo lo pendiente
+        }
+    }
+
+    private static long recolecciones() {
+        long total = 0;
+        for (GarbageCollectorMXBean recolector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, recolector.getCollectionCount());
+        }
+        return total;
+    }
+
+    private static long milisegundosGC() {
+        long total = 0;
+        for (GarbageCollectorMXBean recolector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, recolector.getCollectionTime());
+        }
+        return total;
+    }
+}
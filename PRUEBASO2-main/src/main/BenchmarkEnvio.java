@@ -0,0 +1,112 @@
+package main;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import modelo.ColaIO;
+import modelo.ColasEnvio;
+import modelo.Planificador;
+import modelo.SolicitudIO;
+
+/**
+ * Compara el rendimiento de envío de solicitudes de E/S con 1, 4 y 16 hilos
+ * productores: una sola ColaIO protegida por un cerrojo frente a las colas de
+ * envío por hilo que un único consumidor drena por lotes
+ */
+public class BenchmarkEnvio {
+    private static final int TOTAL_SOLICITUDES = 2_000_000;
+    private static final int TOTAL_CILINDROS = 1 << 16;
+    private static final int[] PRODUCTORES = {1, 4, 16};
+    private static final int REPETICIONES = 3;
+
+    /**
+     * @param args opcionalmente, el total de solicitudes por corrida
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int total = args.length > 0 ? Integer.parseInt(args[0]) : TOTAL_SOLICITUDES;
+
+        // Calentamiento para que el JIT compile ambos caminos
+        medir(4, total / 4, true);
+        medir(4, total / 4, false);
+
+        System.out.printf("%-11s %-12s %14s%n", "Productores", "Envío", "Solicitudes/s");
+        for (int productores : PRODUCTORES) {
+            for (boolean multicola : new boolean[]{false, true}) {
+                double mejor = 0;
+                for (int i = 0; i < REPETICIONES; i++) {
+                    mejor = Math.max(mejor, medir(productores, total, multicola));
+                }
+                System.out.printf("%-11d %-12s %,14.0f%n", productores,
+                    multicola ? "multicola" : "un cerrojo", mejor);
+            }
+        }
+    }
+
+    /**
+     * Envía total solicitudes repartidas entre los productores mientras un
+     * consumidor las planifica y atiende. Devuelve solicitudes por segundo
+     */
+    private static double medir(int productores, int total, boolean multicola) throws InterruptedException {
+        ColaIO cola = new ColaIO();
+        cola.setFusionActiva(false);
+        ColasEnvio envio = new ColasEnvio();
+        Planificador planificador = new Planificador(Planificador.PoliticaplanificacionDisco.CLOOK, TOTAL_CILINDROS);
+        Object cerrojo = new Object();
+        CountDownLatch inicio = new CountDownLatch(1);
+        int porProductor = total / productores;
+        int esperadas = porProductor * productores;
+
+        Thread[] hilos = new Thread[productores];
+        for (int p = 0; p < productores; p++) {
+            final int base = p * porProductor;
+            hilos[p] = new Thread(() -> {
+                Random aleatorio = new Random(base);
+                esperar(inicio);
+                for (int i = 0; i < porProductor; i++) {
+                    SolicitudIO solicitud = new SolicitudIO(base + i, base + i, SolicitudIO.TipoOperacion.LEER,
+                                                            null, aleatorio.nextInt(TOTAL_CILINDROS));
+                    if (multicola) {
+                        envio.enviar(solicitud);
+                    } else {
+                        synchronized (cerrojo) {
+                            cola.agregarSolicitud(solicitud);
+                        }
+                    }
+                }
+            });
+            hilos[p].start();
+        }
+
+        long t0 = System.nanoTime();
+        inicio.countDown();
+        int atendidas = 0;
+        while (atendidas < esperadas) {
+            if (multicola) {
+                envio.drenarLote(cola);
+                while (planificador.extraerSiguiente(cola) != null) {
+                    atendidas++;
+                }
+            } else {
+                synchronized (cerrojo) {
+                    while (planificador.extraerSiguiente(cola) != null) {
+                        atendidas++;
+                    }
+                }
+            }
+            Thread.onSpinWait();
+        }
+        long nanos = System.nanoTime() - t0;
+
+        for (Thread hilo : hilos) {
+            hilo.join();
+        }
+        return esperadas / (nanos / 1e9);
+    }
+
+    private static void esperar(CountDownLatch inicio) {
+        try {
+            inicio.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,319 @@
+package main;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import modelo.Archivo;
+import modelo.Desfragmentador;
+import modelo.Directorio;
+import modelo.Disco;
+import modelo.Extension;
+import modelo.SistemaArchivos;
+
+/**
+ * Prueba de estrés de las operaciones concurrentes del sistema de archivos.
+ * Varios hilos crean, leen y eliminan archivos en sus propios directorios y
+ * en uno compartido, mientras otro hilo usa las operaciones con el cerrojo
+ * del sistema (incluido eliminar directorios en uso y desfragmentar). Al
+ * terminar verifica que ningún bloque quedó asignado a dos archivos, que los
+ * bloques ocupados del disco son exactamente los de los archivos y que el
+ * índice coincide con el árbol.
+ * Después mide cuántas creaciones por segundo se logran con uno y con
+ * varios hilos. Termina con código 1 si alguna verificación falla
+ */
+public class EstresConcurrencia {
+    private static final int TOTAL_BLOQUES = 1 << 18;
+    private static final int OPERACIONES_POR_HILO = 20_000;
+    private static final int MAX_BLOQUES_POR_ARCHIVO = 16;
+    private static final int NOMBRES_POR_DIRECTORIO = 400;
+    private static final int CREACIONES_MEDIDAS = 200_000;
+    private static final long LIMITE_SEGUNDOS = 300;
+    private static final int BLOQUES_POR_PASO = 64;
+    private static final int MAX_PASOS_DRENADO = 4 * TOTAL_BLOQUES / BLOQUES_POR_PASO;
+
+    /**
+     * @param args opcionalmente, la cantidad de hilos y de operaciones por hilo
+     */
+    public static void main(String[] args) throws Exception {
+        int hilos = args.length > 0
+            ? Integer.parseInt(args[0])
+            : Math.max(4, Runtime.getRuntime().availableProcessors());
+        int operaciones = args.length > 1 ? Integer.parseInt(args[1]) : OPERACIONES_POR_HILO;
+
+        boolean correcto = true;
+        for (Disco.ModoAsignacion modo : Disco.ModoAsignacion.values()) {
+            correcto &= estresar(modo, hilos, operaciones);
+        }
+
+        System.out.printf("%nNúcleos disponibles: %d%n", Runtime.getRuntime().availableProcessors());
+        System.out.printf("%-6s %16s%n", "Hilos", "Creaciones/s");
+        for (int cantidad : new int[]{1, hilos}) {
+            System.out.printf("%-6d %,16.0f%n", cantidad, medirCreaciones(cantidad, CREACIONES_MEDIDAS));
+        }
+
+        if (!correcto) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Corre la carga mixta con el modo de asignación indicado y verifica el
+     * estado final. Devuelve false si encontró alguna inconsistencia
+     */
+    private static boolean estresar(Disco.ModoAsignacion modo, int hilos, int operaciones) throws Exception {
+        SistemaArchivos sistema = new SistemaArchivos(TOTAL_BLOQUES, true);
+        sistema.setModoAsignacion(modo);
+        sistema.crearDirectorioConcurrente("admin", "/home", "compartido");
+        for (int h = 0; h < hilos; h++) {
+            sistema.crearDirectorioConcurrente("usuario" + h, "/home", "usuario" + h);
+        }
+        sistema.iniciarDespachador(false);
+
+        List<List<CompletableFuture<Boolean>>> resultados = new ArrayList<>();
+        ExecutorService trabajadores = Executors.newFixedThreadPool(hilos);
+        long inicio = System.nanoTime();
+        for (int h = 0; h < hilos; h++) {
+            List<CompletableFuture<Boolean>> propios = new ArrayList<>();
+            resultados.add(propios);
+            int numero = h;
+            trabajadores.execute(() -> trabajar(sistema, numero, operaciones, propios));
+        }
+        trabajadores.shutdown();
+
+        // Mientras tanto, operaciones con el cerrojo del sistema sobre los mismos directorios
+        AtomicBoolean continuar = new AtomicBoolean(true);
+        Thread secuencial = new Thread(() -> operarSecuencial(sistema, hilos, continuar), "secuencial");
+        secuencial.start();
+
+        boolean terminaron = trabajadores.awaitTermination(LIMITE_SEGUNDOS, TimeUnit.SECONDS);
+        continuar.set(false);
+        secuencial.join(TimeUnit.SECONDS.toMillis(LIMITE_SEGUNDOS));
+        if (!terminaron || secuencial.isAlive()) {
+            System.out.println("FALLO: los hilos no terminaron a tiempo (¿interbloqueo?)");
+            return false;
+        }
+        for (List<CompletableFuture<Boolean>> propios : resultados) {
+            CompletableFuture.allOf(propios.toArray(new CompletableFuture<?>[0]))
+                .get(LIMITE_SEGUNDOS, TimeUnit.SECONDS);
+        }
+        long nanos = System.nanoTime() - inicio;
+        sistema.detenerDespachador();
+
+        while (sistema.procesarSiguienteSolicitud()) {
+            // nada
+        }
+        if (!terminarReubicacion(sistema)) {
+            System.out.println("FALLO: la desfragmentación en curso no terminó en " + MAX_PASOS_DRENADO + " pasos");
+            return false;
+        }
+
+        List<String> errores = verificar(sistema);
+        System.out.printf("%s, %d hilos: %,d operaciones en %.2f s (%,d exitosas, %,d rechazadas), "
+                + "%,d archivos, %,d bloques ocupados%n",
+            modo, hilos, (long) hilos * operaciones, nanos / 1e9,
+            sistema.getTotalOperacionesExitosas(), sistema.getTotalOperacionesFallidas(),
+            sistema.getIndiceArchivos().getTamaño(), sistema.getDisco().getBloquesOcupados());
+        for (String error : errores.subList(0, Math.min(10, errores.size()))) {
+            System.out.println("FALLO: " + error);
+        }
+        if (errores.isEmpty()) {
+            System.out.println("OK: ningún bloque asignado dos veces; disco, árbol e índice coinciden");
+        }
+        return errores.isEmpty();
+    }
+
+    /**
+     * Avanza la desfragmentación solo mientras tenga una reubicación o una
+     * compactación a medias, para no contar reservas sin confirmar, y como
+     * mucho MAX_PASOS_DRENADO pasos. Devuelve false si no terminó
+     */
+    private static boolean terminarReubicacion(SistemaArchivos sistema) {
+        Desfragmentador desfragmentador = sistema.getDesfragmentador();
+        for (int pasos = 0; desfragmentador != null && desfragmentador.isEnCurso(); pasos++) {
+            if (pasos == MAX_PASOS_DRENADO) {
+                return false;
+            }
+            sistema.desfragmentarPaso(BLOQUES_POR_PASO);
+        }
+        return true;
+    }
+
+    private static void trabajar(SistemaArchivos sistema, int numero, int operaciones,
+                                 List<CompletableFuture<Boolean>> resultados) {
+        Random aleatorio = new Random(numero);
+        String usuario = "usuario" + numero;
+        String propio = "/home/" + usuario;
+        Directorio directorioPropio = sistema.getRaiz().buscarSubdirectorio("home").buscarSubdirectorio(usuario);
+        // Solo este hilo toca su directorio: sabiendo qué nombres existen, casi
+        // todas las operaciones ahí asignan o liberan bloques en vez de rechazarse
+        BitSet existentes = new BitSet(NOMBRES_POR_DIRECTORIO);
+        for (int i = 0; i < operaciones; i++) {
+            int tamaño = 1 + aleatorio.nextInt(MAX_BLOQUES_POR_ARCHIVO);
+            int indice = aleatorio.nextInt(NOMBRES_POR_DIRECTORIO);
+            String nombre = "f" + indice;
+            int operacion = aleatorio.nextInt(100);
+            if (operacion < 75) {
+                if (!existentes.get(indice)) {
+                    CompletableFuture<Boolean> creacion =
+                        sistema.crearArchivoConcurrente(usuario, propio, nombre, tamaño, false);
+                    resultados.add(creacion);
+                    // Un rechazo (disco lleno) se conoce enseguida
+                    existentes.set(indice, !Boolean.FALSE.equals(creacion.getNow(null)));
+                } else if (operacion < 25) {
+                    resultados.add(sistema.leerArchivoConcurrente(usuario, propio + "/" + nombre));
+                } else {
+                    resultados.add(sistema.eliminarArchivoConcurrente(usuario, propio + "/" + nombre));
+                    existentes.clear(indice);
+                }
+            } else if (operacion < 83) {
+                // En el compartido compiten todos los hilos: creaciones y eliminaciones parejas
+                resultados.add(sistema.crearArchivoConcurrente(usuario, "/home/compartido", nombre, tamaño, true));
+            } else if (operacion < 91) {
+                resultados.add(sistema.eliminarArchivoConcurrente(usuario, "/home/compartido/" + nombre));
+            } else {
+                // Subdirectorios que el hilo secuencial elimina de vez en cuando
+                String subdirectorio = "d" + aleatorio.nextInt(4);
+                if (directorioPropio.buscarSubdirectorio(subdirectorio) == null) {
+                    sistema.crearDirectorioConcurrente(usuario, propio, subdirectorio);
+                }
+                resultados.add(sistema.crearArchivoConcurrente(usuario, propio + "/" + subdirectorio,
+                                                               nombre, tamaño, false));
+            }
+        }
+    }
+
+    /**
+     * Usa la interfaz de siempre (directorio y usuario actuales, cerrojo del
+     * sistema) en los mismos directorios que los hilos concurrentes
+     */
+    private static void operarSecuencial(SistemaArchivos sistema, int hilos, AtomicBoolean continuar) {
+        Random aleatorio = new Random(-1);
+        Directorio home = sistema.getRaiz().buscarSubdirectorio("home");
+        while (continuar.get()) {
+            int operacion = aleatorio.nextInt(100);
+            synchronized (sistema) {
+                if (operacion < 40) {
+                    // Los nombres "s" solo los usa este hilo: eliminar si existe, si no crear
+                    Directorio compartido = home.buscarSubdirectorio("compartido");
+                    sistema.setDirectorioActual(compartido);
+                    String nombre = "s" + aleatorio.nextInt(NOMBRES_POR_DIRECTORIO);
+                    if (compartido.buscarArchivo(nombre) != null) {
+                        sistema.eliminarArchivo(nombre);
+                    } else {
+                        sistema.crearArchivo(nombre, 1 + aleatorio.nextInt(MAX_BLOQUES_POR_ARCHIVO), true);
+                    }
+                } else if (operacion < 60) {
+                    // Quita un subdirectorio en el que otros hilos pueden estar creando
+                    Directorio usuario = home.buscarSubdirectorio("usuario" + aleatorio.nextInt(hilos));
+                    String nombre = "d" + aleatorio.nextInt(4);
+                    if (usuario.buscarSubdirectorio(nombre) != null) {
+                        sistema.setDirectorioActual(usuario);
+                        sistema.eliminarDirectorio(nombre);
+                    }
+                } else if (operacion < 80) {
+                    // Lo mismo que recorre la GUI al refrescarse
+                    sistema.obtenerArchivosVisibles().forEach(Archivo::getCantidadBloquesAsignados);
+                    recorrerArbol(sistema, sistema.getRaiz());
+                } else {
+                    sistema.desfragmentarPaso(16);
+                }
+            }
+        }
+    }
+
+    private static int recorrerArbol(SistemaArchivos sistema, Directorio directorio) {
+        int nodos = sistema.obtenerArchivosVisibles(directorio).size();
+        for (Directorio sub : sistema.obtenerSubdirectoriosVisibles(directorio)) {
+            nodos += 1 + recorrerArbol(sistema, sub);
+        }
+        return nodos;
+    }
+
+    /**
+     * Cada bloque ocupado del disco pertenece a un único archivo del árbol y
+     * viceversa, y el índice global tiene exactamente los archivos del árbol
+     */
+    private static List<String> verificar(SistemaArchivos sistema) {
+        List<String> errores = new ArrayList<>();
+        Disco disco = sistema.getDisco();
+        Archivo[] dueños = new Archivo[disco.getTotalBloques()];
+        int asignados = 0;
+        List<Archivo> archivos = sistema.getRaiz().obtenerTodosLosArchivos();
+
+        for (Archivo archivo : archivos) {
+            if (archivo.getCantidadBloquesAsignados() != archivo.getTamañoBloques()) {
+                errores.add(archivo.getRuta() + " tiene " + archivo.getCantidadBloquesAsignados()
+                    + " bloques de " + archivo.getTamañoBloques());
+            }
+            for (Extension extension : archivo.getExtensiones()) {
+                for (int b = extension.getInicio(); b < extension.getFin(); b++) {
+                    if (dueños[b] != null) {
+                        errores.add("bloque " + b + " asignado a " + dueños[b].getRuta()
+                            + " y a " + archivo.getRuta());
+                    }
+                    if (!disco.estaBloqueOcupado(b)) {
+                        errores.add("bloque " + b + " de " + archivo.getRuta() + " figura libre");
+                    }
+                    dueños[b] = archivo;
+                    asignados++;
+                }
+            }
+            if (sistema.getIndiceArchivos().buscar(archivo.getRuta()) != archivo) {
+                errores.add(archivo.getRuta() + " no está en el índice");
+            }
+        }
+
+        if (asignados != disco.getBloquesOcupados()) {
+            errores.add(disco.getBloquesOcupados() + " bloques ocupados en el disco, pero los archivos tienen "
+                + asignados);
+        }
+        for (int b = 0; b < disco.getTotalBloques(); b++) {
+            if (disco.getBloque(b).isOcupado() != (dueños[b] != null)) {
+                errores.add("bloque " + b + " marcado " + (disco.getBloque(b).isOcupado() ? "ocupado" : "libre")
+                    + " sin coincidir con los archivos");
+            }
+        }
+        if (sistema.getIndiceArchivos().getTamaño() != archivos.size()) {
+            errores.add("el índice tiene " + sistema.getIndiceArchivos().getTamaño()
+                + " archivos y el árbol " + archivos.size());
+        }
+        return errores;
+    }
+
+    /**
+     * Crea el total de archivos de un bloque repartido entre los hilos, cada
+     * uno en su propio directorio. Devuelve creaciones por segundo
+     */
+    private static double medirCreaciones(int hilos, int total) throws InterruptedException {
+        SistemaArchivos sistema = new SistemaArchivos(total + 1024, false);
+        for (int h = 0; h < hilos; h++) {
+            sistema.crearDirectorioConcurrente("usuario" + h, "/home", "usuario" + h);
+        }
+        sistema.iniciarDespachador(false);
+        int porHilo = total / hilos;
+
+        Thread[] trabajadores = new Thread[hilos];
+        long inicio = System.nanoTime();
+        for (int h = 0; h < hilos; h++) {
+            String usuario = "usuario" + h;
+            trabajadores[h] = new Thread(() -> {
+                for (int i = 0; i < porHilo; i++) {
+                    sistema.crearArchivoConcurrente(usuario, "/home/" + usuario, "f" + i, 1, false);
+                }
+            });
+            trabajadores[h].start();
+        }
+        for (Thread trabajador : trabajadores) {
+            trabajador.join();
+        }
+        long nanos = System.nanoTime() - inicio;
+        sistema.detenerDespachador();
+        return porHilo * hilos / (nanos / 1e9);
+    }
+}
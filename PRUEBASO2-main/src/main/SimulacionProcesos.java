@@ -0,0 +1,100 @@
+package main;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import modelo.ColaIO;
+import modelo.EjecutorProcesos;
+import modelo.Planificador;
+import modelo.SistemaArchivos;
+
+/**
+ * Simula muchos procesos concurrentes, cada uno en su hilo virtual, que leen
+ * y actualizan archivos de varios usuarios mientras el despachador atiende la
+ * cola de E/S con la política elegida. Reporta el rendimiento, las esperas en
+ * cola y el recorrido del cabezal
+ */
+public class SimulacionProcesos {
+    private static final int TOTAL_PROCESOS = 100_000;
+    private static final int TOTAL_BLOQUES = 1 << 16;
+    private static final int USUARIOS = 8;
+    private static final int ARCHIVOS_POR_USUARIO = 64;
+    private static final int BLOQUES_POR_ARCHIVO = 16;
+    private static final int PORCENTAJE_LECTURAS = 90;
+
+    /**
+     * @param args opcionalmente, la cantidad de procesos y la política (FIFO, CLOOK...)
+     */
+    public static void main(String[] args) {
+        int totalProcesos = args.length > 0 ? Integer.parseInt(args[0]) : TOTAL_PROCESOS;
+        Planificador.PoliticaplanificacionDisco politica = args.length > 1
+            ? Planificador.PoliticaplanificacionDisco.valueOf(args[1])
+            : Planificador.PoliticaplanificacionDisco.CLOOK;
+
+        SistemaArchivos sistema = new SistemaArchivos(TOTAL_BLOQUES, false);
+        sistema.setPoliticaPlanificacion(politica);
+        crearArchivos(sistema);
+        sistema.setModoActual(SistemaArchivos.Modo.USUARIO);
+        sistema.iniciarDespachador(true);
+
+        Random aleatorio = new Random(42);
+        List<CompletableFuture<Boolean>> resultados = new ArrayList<>(totalProcesos);
+        long inicio = System.nanoTime();
+        try (EjecutorProcesos ejecutor = new EjecutorProcesos(sistema)) {
+            for (int i = 0; i < totalProcesos; i++) {
+                String usuario = "usuario" + aleatorio.nextInt(USUARIOS);
+                String archivo = usuario + "_" + aleatorio.nextInt(ARCHIVOS_POR_USUARIO) + ".dat";
+                if (aleatorio.nextInt(100) < PORCENTAJE_LECTURAS) {
+                    resultados.add(ejecutor.lanzarLectura(usuario, "/" + archivo));
+                } else {
+                    // Renombrar al mismo nombre reescribe el primer bloque del archivo
+                    resultados.add(ejecutor.lanzarActualizacion(usuario, "/" + archivo, archivo));
+                }
+            }
+            CompletableFuture.allOf(resultados.toArray(new CompletableFuture<?>[0])).join();
+            long nanos = System.nanoTime() - inicio;
+            sistema.detenerDespachador();
+            reportar(sistema, ejecutor, politica, nanos);
+        }
+    }
+
+    private static void crearArchivos(SistemaArchivos sistema) {
+        for (int u = 0; u < USUARIOS; u++) {
+            sistema.setUsuarioActual("usuario" + u);
+            for (int a = 0; a < ARCHIVOS_POR_USUARIO; a++) {
+                sistema.crearArchivo("usuario" + u + "_" + a + ".dat", BLOQUES_POR_ARCHIVO, false);
+            }
+        }
+        // La creación también pasa por la cola; se atiende antes de medir
+        while (sistema.procesarSiguienteSolicitud()) {
+            // nada
+        }
+        sistema.getPlanificador().reiniciarMovimiento();
+    }
+
+    private static void reportar(SistemaArchivos sistema, EjecutorProcesos ejecutor,
+                                 Planificador.PoliticaplanificacionDisco politica, long nanos) {
+        ColaIO cola = sistema.getColaIO();
+        Planificador planificador = sistema.getPlanificador();
+        double segundos = nanos / 1e9;
+        System.out.printf("Política:              %s%n", politica);
+        System.out.printf("Procesos terminados:   %,d de %,d (%,d rechazados, %,d fallidos)%n",
+            ejecutor.getTotalTerminados(), ejecutor.getTotalLanzados(),
+            ejecutor.getTotalRechazados(), ejecutor.getTotalFallidos());
+        System.out.printf("Tiempo total:          %.2f s (%,.0f procesos/s)%n",
+            segundos, ejecutor.getTotalLanzados() / segundos);
+        System.out.printf("Retorno promedio:      %.2f ms (máximo %.2f ms)%n",
+            ejecutor.getRetornoPromedioMs(), ejecutor.getRetornoMaximoMs());
+        System.out.printf("Espera en cola p99:    %d ms (máxima %d ms)%n",
+            cola.getEsperaP99(), cola.getEsperaMaxima());
+        System.out.printf("Tasa de fusión:        %.1f %%%n", cola.getTasaFusion() * 100);
+        System.out.printf("Despachos:             %,d%n", planificador.getSolicitudesAtendidas(politica));
+        System.out.printf("Movimiento cabezal:    %,d cilindros (%.1f por despacho)%n",
+            planificador.getMovimientoCabezal(politica), planificador.getMovimientoPromedio(politica));
+        System.out.printf("Bloques por usuario:   %s%n", planificador.getBloquesPorUsuario());
+        System.out.printf("Tabla de procesos:     %,d vivos, %,d en historial, %,d retirados%n",
+            sistema.getTablaProcesos().getCantidadActivos(), sistema.getTablaProcesos().getHistorial().size(),
+            sistema.getTablaProcesos().getTotalRetirados());
+    }
+}
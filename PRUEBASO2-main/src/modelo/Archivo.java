@@ -1,5 +1,6 @@
 package modelo;
 
+import java.util.Arrays;
 import java.util.LinkedList;
 
 /**
@@ -9,12 +10,21 @@ public class Archivo {
     private String nombre;
     private int tamañoBloques;
     private int primerBloque;           // Inicio de la lista enlazada
-    private String propietario;
-    private boolean esPublico;
+    private volatile String propietario;     // Cambian con el cerrojo de su directorio
+    private volatile boolean esPublico;
     private String colorAsignado;
-    private LinkedList<Integer> bloques;  // Lista de bloques asignados
+    // Bloques asignados compactados en extensiones, en orden lógico
+    private int[] iniciosExtension;
+    private int[] longitudesExtension;
+    private int[] bloquesPrevios;        // Bloques lógicos anteriores a cada extensión
+    private int cantidadExtensiones;
+    private int cantidadBloques;
+    private int[] ordenFisico;           // Extensiones ordenadas por bloque inicial
+    private boolean ordenFisicoValido;
+    private int posicionLectura;         // Próximo bloque lógico de una lectura secuencial
     private long fechaCreacion;
     private long ultimaModificacion;
+    private volatile Directorio directorio;  // Directorio que lo contiene, o null
 
     public Archivo(String nombre, int tamañoBloques, String propietario, boolean esPublico) {
         this.nombre = nombre;
@@ -22,7 +32,13 @@ public class Archivo {
         this.propietario = propietario;
         this.esPublico = esPublico;
         this.primerBloque = -1;
-        this.bloques = new LinkedList<>();
+        this.iniciosExtension = new int[2];
+        this.longitudesExtension = new int[2];
+        this.bloquesPrevios = new int[2];
+        this.cantidadExtensiones = 0;
+        this.cantidadBloques = 0;
+        this.ordenFisicoValido = false;
+        this.posicionLectura = 0;
         this.fechaCreacion = System.currentTimeMillis();
         this.ultimaModificacion = System.currentTimeMillis();
         this.colorAsignado = generarColorAleatorio();
@@ -60,10 +76,38 @@ public class Archivo {
         return colorAsignado;
     }
 
+    /**
+     * Devuelve una copia de los bloques asignados en orden lógico
+     */
     public LinkedList<Integer> getBloques() {
+        LinkedList<Integer> bloques = new LinkedList<>();
+        for (int e = 0; e < cantidadExtensiones; e++) {
+            for (int i = 0; i < longitudesExtension[e]; i++) {
+                bloques.add(iniciosExtension[e] + i);
+            }
+        }
         return bloques;
     }
 
+    /**
+     * Devuelve las extensiones del archivo en orden lógico
+     */
+    public LinkedList<Extension> getExtensiones() {
+        LinkedList<Extension> extensiones = new LinkedList<>();
+        for (int e = 0; e < cantidadExtensiones; e++) {
+            extensiones.add(new Extension(iniciosExtension[e], longitudesExtension[e]));
+        }
+        return extensiones;
+    }
+
+    public int getCantidadExtensiones() {
+        return cantidadExtensiones;
+    }
+
+    public int getPosicionLectura() {
+        return posicionLectura;
+    }
+
     public long getFechaCreacion() {
         return fechaCreacion;
     }
@@ -72,49 +116,336 @@ public class Archivo {
         return ultimaModificacion;
     }
 
+    public Directorio getDirectorio() {
+        return directorio;
+    }
+
+    /**
+     * Ruta absoluta, o solo el nombre si el archivo no está en un directorio
+     */
+    public String getRuta() {
+        return directorio != null ? directorio.rutaDe(nombre) : nombre;
+    }
+
     // Setters
+    /**
+     * Renombra el archivo; falla si su directorio ya tiene otro con ese nombre
+     */
     public void setNombre(String nombre) {
+        if (directorio != null && !nombre.equals(this.nombre)) {
+            directorio.reindexarArchivo(this, nombre);
+        }
         this.nombre = nombre;
         this.ultimaModificacion = System.currentTimeMillis();
     }
 
+    void setDirectorio(Directorio directorio) {
+        this.directorio = directorio;
+    }
+
     public void setPrimerBloque(int primerBloque) {
         this.primerBloque = primerBloque;
     }
 
+    /**
+     * Dentro de un directorio el cambio se hace con su cerrojo de escritura,
+     * junto con las listas de visibilidad; si el archivo cambió de directorio
+     * mientras tanto se reintenta en el nuevo
+     */
     public void setEsPublico(boolean esPublico) {
+        while (true) {
+            Directorio actual = directorio;
+            if (actual == null) {
+                this.esPublico = esPublico;
+                return;
+            }
+            if (actual.cambiarVisibilidadArchivo(this, esPublico)) {
+                return;
+            }
+        }
+    }
+
+    public void setPropietario(String propietario) {
+        while (true) {
+            Directorio actual = directorio;
+            if (actual == null) {
+                this.propietario = propietario;
+                return;
+            }
+            if (actual.cambiarPropietarioArchivo(this, propietario)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Asignaciones directas para el directorio, con su cerrojo tomado
+     */
+    void asignarEsPublico(boolean esPublico) {
         this.esPublico = esPublico;
     }
 
+    void asignarPropietario(String propietario) {
+        this.propietario = propietario;
+    }
+
     public void setColorAsignado(String colorAsignado) {
         this.colorAsignado = colorAsignado;
     }
 
+    public void setPosicionLectura(int posicionLectura) {
+        this.posicionLectura = Math.max(0, posicionLectura);
+    }
+
     // Métodos de gestión de bloques
     public void agregarBloque(int numeroBloque) {
-        bloques.add(numeroBloque);
+        agregarExtension(numeroBloque, 1);
+    }
+
+    /**
+     * Agrega un tramo contiguo de bloques al final del archivo, fusionándolo
+     * con la última extensión si continúa a partir de ella
+     */
+    public void agregarExtension(int inicio, int longitud) {
+        if (longitud <= 0) {
+            return;
+        }
+        int ultima = cantidadExtensiones - 1;
+        if (ultima >= 0 && iniciosExtension[ultima] + longitudesExtension[ultima] == inicio) {
+            longitudesExtension[ultima] += longitud;
+        } else {
+            asegurarCapacidad(cantidadExtensiones + 1);
+            iniciosExtension[cantidadExtensiones] = inicio;
+            longitudesExtension[cantidadExtensiones] = longitud;
+            bloquesPrevios[cantidadExtensiones] = cantidadBloques;
+            cantidadExtensiones++;
+            ordenFisicoValido = false;
+        }
+        cantidadBloques += longitud;
         if (primerBloque == -1) {
-            primerBloque = numeroBloque;
+            primerBloque = inicio;
         }
         this.ultimaModificacion = System.currentTimeMillis();
     }
 
     public void removerBloque(int numeroBloque) {
-        bloques.remove(Integer.valueOf(numeroBloque));
-        if (bloques.isEmpty()) {
-            primerBloque = -1;
-        } else if (primerBloque == numeroBloque) {
-            primerBloque = bloques.getFirst();
+        int e = buscarExtension(numeroBloque);
+        if (e < 0) {
+            return;
+        }
+
+        int inicio = iniciosExtension[e];
+        int longitud = longitudesExtension[e];
+        if (longitud == 1) {
+            eliminarExtension(e);
+        } else if (numeroBloque == inicio) {
+            iniciosExtension[e]++;
+            longitudesExtension[e]--;
+        } else if (numeroBloque == inicio + longitud - 1) {
+            longitudesExtension[e]--;
+        } else {
+            // Partir la extensión en dos alrededor del bloque removido
+            asegurarCapacidad(cantidadExtensiones + 1);
+            desplazarExtensiones(e + 1, 1);
+            longitudesExtension[e] = numeroBloque - inicio;
+            iniciosExtension[e + 1] = numeroBloque + 1;
+            longitudesExtension[e + 1] = inicio + longitud - numeroBloque - 1;
+        }
+        cantidadBloques--;
+        ordenFisicoValido = false;
+        recalcularBloquesPrevios(Math.max(0, e));
+
+        primerBloque = cantidadExtensiones > 0 ? iniciosExtension[0] : -1;
+        this.ultimaModificacion = System.currentTimeMillis();
+    }
+
+    /**
+     * Sustituye un bloque físico por otro conservando su posición lógica
+     */
+    public boolean reemplazarBloque(int bloqueActual, int bloqueNuevo) {
+        int e = buscarExtension(bloqueActual);
+        if (e < 0) {
+            return false;
+        }
+
+        // Partir la extensión en [inicio, actual) + [nuevo] + (actual, fin)
+        int inicio = iniciosExtension[e];
+        int longitud = longitudesExtension[e];
+        int antes = bloqueActual - inicio;
+        int despues = longitud - antes - 1;
+        int piezas = 1 + (antes > 0 ? 1 : 0) + (despues > 0 ? 1 : 0);
+
+        asegurarCapacidad(cantidadExtensiones + piezas - 1);
+        desplazarExtensiones(e + 1, piezas - 1);
+        int i = e;
+        if (antes > 0) {
+            longitudesExtension[i++] = antes;
+        }
+        iniciosExtension[i] = bloqueNuevo;
+        longitudesExtension[i++] = 1;
+        if (despues > 0) {
+            iniciosExtension[i] = bloqueActual + 1;
+            longitudesExtension[i] = despues;
         }
+
+        fusionarContiguas(Math.max(0, e - 1), Math.min(cantidadExtensiones - 1, e + piezas));
+        ordenFisicoValido = false;
+        primerBloque = iniciosExtension[0];
         this.ultimaModificacion = System.currentTimeMillis();
+        return true;
+    }
+
+    /**
+     * Fusiona las extensiones contiguas dentro del rango de posiciones indicado
+     */
+    private void fusionarContiguas(int desde, int hasta) {
+        int i = desde;
+        while (i < hasta && i < cantidadExtensiones - 1) {
+            if (iniciosExtension[i] + longitudesExtension[i] == iniciosExtension[i + 1]) {
+                longitudesExtension[i] += longitudesExtension[i + 1];
+                desplazarExtensiones(i + 2, -1);
+                hasta--;
+            } else {
+                i++;
+            }
+        }
+        recalcularBloquesPrevios(desde);
+    }
+
+    /**
+     * Quita todos los bloques asignados al archivo
+     */
+    public void limpiarBloques() {
+        cantidadExtensiones = 0;
+        cantidadBloques = 0;
+        ordenFisicoValido = false;
+        primerBloque = -1;
+        posicionLectura = 0;
     }
 
     public int getCantidadBloquesAsignados() {
-        return bloques.size();
+        return cantidadBloques;
     }
 
     public boolean contieneBloqueAsignado(int numeroBloque) {
-        return bloques.contains(numeroBloque);
+        return buscarExtension(numeroBloque) >= 0;
+    }
+
+    /**
+     * Devuelve el bloque físico que ocupa la posición lógica indicada, o -1
+     */
+    public int obtenerBloque(int indiceLogico) {
+        if (indiceLogico < 0 || indiceLogico >= cantidadBloques) {
+            return -1;
+        }
+        int bajo = 0;
+        int alto = cantidadExtensiones - 1;
+        while (bajo < alto) {
+            int medio = (bajo + alto + 1) >>> 1;
+            if (bloquesPrevios[medio] <= indiceLogico) {
+                bajo = medio;
+            } else {
+                alto = medio - 1;
+            }
+        }
+        return iniciosExtension[bajo] + (indiceLogico - bloquesPrevios[bajo]);
+    }
+
+    /**
+     * Devuelve la posición lógica de un bloque físico dentro del archivo, o -1
+     */
+    public int obtenerIndiceLogico(int numeroBloque) {
+        int e = buscarExtension(numeroBloque);
+        if (e < 0) {
+            return -1;
+        }
+        return bloquesPrevios[e] + (numeroBloque - iniciosExtension[e]);
+    }
+
+    /**
+     * Cantidad de bloques contiguos del archivo desde el bloque físico indicado
+     * hasta el final de su extensión
+     */
+    public int obtenerLongitudContigua(int numeroBloque) {
+        int e = buscarExtension(numeroBloque);
+        if (e < 0) {
+            return 0;
+        }
+        return iniciosExtension[e] + longitudesExtension[e] - numeroBloque;
+    }
+
+    /**
+     * Búsqueda binaria de la extensión que contiene un bloque físico
+     */
+    private int buscarExtension(int numeroBloque) {
+        if (cantidadExtensiones == 0) {
+            return -1;
+        }
+        if (!ordenFisicoValido) {
+            reconstruirOrdenFisico();
+        }
+
+        int bajo = 0;
+        int alto = cantidadExtensiones - 1;
+        while (bajo <= alto) {
+            int medio = (bajo + alto) >>> 1;
+            int e = ordenFisico[medio];
+            if (numeroBloque < iniciosExtension[e]) {
+                alto = medio - 1;
+            } else if (numeroBloque >= iniciosExtension[e] + longitudesExtension[e]) {
+                bajo = medio + 1;
+            } else {
+                return e;
+            }
+        }
+        return -1;
+    }
+
+    private void reconstruirOrdenFisico() {
+        if (ordenFisico == null || ordenFisico.length < cantidadExtensiones) {
+            ordenFisico = new int[iniciosExtension.length];
+        }
+        // Ordenar por inicio empaquetando (inicio, índice) en un long
+        long[] claves = new long[cantidadExtensiones];
+        for (int e = 0; e < cantidadExtensiones; e++) {
+            claves[e] = ((long) iniciosExtension[e] << 32) | e;
+        }
+        Arrays.sort(claves);
+        for (int i = 0; i < cantidadExtensiones; i++) {
+            ordenFisico[i] = (int) claves[i];
+        }
+        ordenFisicoValido = true;
+    }
+
+    private void eliminarExtension(int e) {
+        desplazarExtensiones(e + 1, -1);
+    }
+
+    /**
+     * Desplaza las extensiones desde la posición indicada para abrir o cerrar huecos
+     */
+    private void desplazarExtensiones(int desde, int delta) {
+        int cantidad = cantidadExtensiones - desde;
+        System.arraycopy(iniciosExtension, desde, iniciosExtension, desde + delta, cantidad);
+        System.arraycopy(longitudesExtension, desde, longitudesExtension, desde + delta, cantidad);
+        cantidadExtensiones += delta;
+    }
+
+    private void recalcularBloquesPrevios(int desde) {
+        int previos = desde > 0 ? bloquesPrevios[desde - 1] + longitudesExtension[desde - 1] : 0;
+        for (int e = desde; e < cantidadExtensiones; e++) {
+            bloquesPrevios[e] = previos;
+            previos += longitudesExtension[e];
+        }
+    }
+
+    private void asegurarCapacidad(int requerida) {
+        if (requerida > iniciosExtension.length) {
+            int nueva = Math.max(requerida, iniciosExtension.length * 2);
+            iniciosExtension = Arrays.copyOf(iniciosExtension, nueva);
+            longitudesExtension = Arrays.copyOf(longitudesExtension, nueva);
+            bloquesPrevios = Arrays.copyOf(bloquesPrevios, nueva);
+        }
     }
 
     @Override
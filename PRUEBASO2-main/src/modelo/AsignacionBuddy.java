@@ -0,0 +1,166 @@
+package modelo;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Sistema buddy: el espacio libre se mantiene en bloques alineados de tamaño
+ * potencia de dos. Cada pedido se redondea a la potencia de dos siguiente y
+ * ocupa un solo bloque de ese orden, partiendo a la mitad uno mayor si hace
+ * falta; al liberar se fusiona con su compañero. Como el archivo ocupa solo
+ * los bloques pedidos, el resto del bloque redondeado vuelve a las listas
+ * libres en lugar de quedar como fragmentación interna.
+ *
+ * Variante de este simulador: si no queda ningún bloque del orden pedido pero
+ * sí espacio libre suficiente, el pedido se descompone en sus potencias de
+ * dos (7 = 4 + 2 + 1) en lugar de rechazarse, y el archivo queda en varias
+ * extensiones
+ */
+class AsignacionBuddy implements EstrategiaAsignacion {
+    private static final int ORDENES = 31;
+
+    private final List<TreeSet<Integer>> libresPorOrden;   // Inicios libres de tamaño 2^orden
+    private boolean desactualizado;                        // Requiere reconstruirse desde el índice
+
+    AsignacionBuddy() {
+        this.libresPorOrden = new ArrayList<>(ORDENES);
+        for (int k = 0; k < ORDENES; k++) {
+            libresPorOrden.add(new TreeSet<>());
+        }
+        this.desactualizado = true;
+    }
+
+    @Override
+    public LinkedList<Extension> seleccionar(IndiceHuecos huecos, int cantidadBloques) {
+        if (desactualizado) {
+            reconstruir(huecos);
+        }
+        if (huecos.getBloquesLibres() < cantidadBloques) {
+            return null;
+        }
+
+        LinkedList<Extension> tramos = new LinkedList<>();
+        if (cantidadBloques <= 0) {
+            return tramos;
+        }
+        int orden = 32 - Integer.numberOfLeadingZeros(cantidadBloques - 1);   // 2^orden >= cantidad
+        int inicio = orden < ORDENES ? tomarBloque(orden) : -1;
+        if (inicio >= 0) {
+            tramoLiberado(inicio + cantidadBloques, (1 << orden) - cantidadBloques);
+            tramos.add(new Extension(inicio, cantidadBloques));
+            return tramos;
+        }
+
+        // Sin bloque del orden pedido: repartir en potencias de dos
+        for (int k = ORDENES - 1; k >= 0; k--) {
+            if ((cantidadBloques & (1 << k)) != 0 && !tomarOrden(k, tramos)) {
+                // Devolver lo tomado si no se pudo completar el pedido
+                for (Extension tramo : tramos) {
+                    tramoLiberado(tramo.getInicio(), tramo.getLongitud());
+                }
+                return null;
+            }
+        }
+        return tramos;
+    }
+
+    /**
+     * Toma un bloque de tamaño 2^orden; si no hay ninguno, lo cubre con dos
+     * bloques del orden inferior
+     */
+    private boolean tomarOrden(int orden, LinkedList<Extension> tramos) {
+        int inicio = tomarBloque(orden);
+        if (inicio >= 0) {
+            tramos.add(new Extension(inicio, 1 << orden));
+            return true;
+        }
+        return orden > 0 && tomarOrden(orden - 1, tramos) && tomarOrden(orden - 1, tramos);
+    }
+
+    /**
+     * Inicio de un bloque libre de tamaño 2^orden, partiendo uno mayor si hace
+     * falta, o -1 si no hay ninguno
+     */
+    private int tomarBloque(int orden) {
+        int disponible = orden;
+        while (disponible < ORDENES && libresPorOrden.get(disponible).isEmpty()) {
+            disponible++;
+        }
+        if (disponible == ORDENES) {
+            return -1;
+        }
+
+        int inicio = libresPorOrden.get(disponible).pollFirst();
+        // Partir a la mitad dejando libre la mitad superior en cada nivel
+        while (disponible > orden) {
+            disponible--;
+            libresPorOrden.get(disponible).add(inicio + (1 << disponible));
+        }
+        return inicio;
+    }
+
+    @Override
+    public void tramoLiberado(int inicio, int longitud) {
+        if (desactualizado) {
+            return;
+        }
+        int fin = inicio + longitud;
+        while (inicio < fin) {
+            int orden = mayorOrdenAlineado(inicio, fin - inicio);
+            agregarFusionando(inicio, orden);
+            inicio += 1 << orden;
+        }
+    }
+
+    @Override
+    public void tramoOcupadoExternamente(int inicio, int longitud) {
+        desactualizado = true;
+    }
+
+    /**
+     * Inserta un bloque libre y lo fusiona con su compañero mientras esté libre
+     */
+    private void agregarFusionando(int inicio, int orden) {
+        while (orden < ORDENES - 1) {
+            int compañero = inicio ^ (1 << orden);
+            if (!libresPorOrden.get(orden).remove(compañero)) {
+                break;
+            }
+            inicio = Math.min(inicio, compañero);
+            orden++;
+        }
+        libresPorOrden.get(orden).add(inicio);
+    }
+
+    /**
+     * Reparte cada hueco del índice en bloques alineados de tamaño potencia de dos
+     */
+    private void reconstruir(IndiceHuecos huecos) {
+        for (TreeSet<Integer> libres : libresPorOrden) {
+            libres.clear();
+        }
+        desactualizado = false;
+        for (Map.Entry<Integer, Integer> hueco : huecos.getHuecos().entrySet()) {
+            tramoLiberado(hueco.getKey(), hueco.getValue());
+        }
+    }
+
+    /**
+     * Mayor orden k tal que inicio está alineado a 2^k y 2^k cabe en la longitud
+     */
+    private static int mayorOrdenAlineado(int inicio, int longitud) {
+        int orden = inicio == 0 ? ORDENES - 1 : Integer.numberOfTrailingZeros(inicio);
+        while ((1L << orden) > longitud) {
+            orden--;
+        }
+        return orden;
+    }
+
+    @Override
+    public String getNombre() {
+        return "Buddy";
+    }
+}
@@ -0,0 +1,42 @@
+package modelo;
+
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Mejor ajuste: el hueco más pequeño donde el archivo cabe completo; si
+ * ninguno alcanza, usa los huecos más grandes primero para partirlo lo menos posible
+ */
+class AsignacionMejorAjuste implements EstrategiaAsignacion {
+
+    @Override
+    public LinkedList<Extension> seleccionar(IndiceHuecos huecos, int cantidadBloques) {
+        LinkedList<Extension> tramos = new LinkedList<>();
+        int inicio = huecos.mejorHueco(cantidadBloques);
+        if (inicio >= 0) {
+            tramos.add(new Extension(inicio, cantidadBloques));
+            return tramos;
+        }
+
+        // Recorrer los huecos de mayor a menor longitud
+        int restantes = cantidadBloques;
+        for (Map.Entry<Integer, TreeSet<Integer>> grupo
+                : huecos.getHuecosPorLongitud().descendingMap().entrySet()) {
+            for (int inicioHueco : grupo.getValue()) {
+                int longitud = Math.min(restantes, grupo.getKey());
+                tramos.add(new Extension(inicioHueco, longitud));
+                restantes -= longitud;
+                if (restantes == 0) {
+                    return tramos;
+                }
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String getNombre() {
+        return "Mejor ajuste";
+    }
+}
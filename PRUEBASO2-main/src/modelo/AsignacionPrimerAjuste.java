@@ -0,0 +1,63 @@
+package modelo;
+
+import java.util.LinkedList;
+import java.util.Map;
+
+/**
+ * Primer ajuste: el primer hueco (por posición) donde el archivo cabe completo;
+ * si ninguno alcanza, reparte el archivo en los huecos desde el inicio
+ */
+class AsignacionPrimerAjuste implements EstrategiaAsignacion {
+
+    @Override
+    public LinkedList<Extension> seleccionar(IndiceHuecos huecos, int cantidadBloques) {
+        LinkedList<Extension> tramos = new LinkedList<>();
+        Map.Entry<Integer, Integer> hueco = huecos.primerHuecoDesde(0, cantidadBloques);
+        if (hueco != null) {
+            tramos.add(new Extension(hueco.getKey(), cantidadBloques));
+            return tramos;
+        }
+        return repartirDesde(huecos, 0, cantidadBloques);
+    }
+
+    /**
+     * Toma huecos en orden de posición desde la indicada, dando la vuelta al
+     * final del disco, hasta cubrir la cantidad pedida
+     */
+    static LinkedList<Extension> repartirDesde(IndiceHuecos huecos, int desde, int cantidadBloques) {
+        LinkedList<Extension> tramos = new LinkedList<>();
+        int restantes = cantidadBloques;
+        for (Map.Entry<Integer, Integer> hueco : huecos.getHuecos().entrySet()) {
+            if (hueco.getKey() + hueco.getValue() <= desde) {
+                continue;
+            }
+            restantes = tomar(tramos, Math.max(desde, hueco.getKey()),
+                              hueco.getKey() + hueco.getValue(), restantes);
+            if (restantes == 0) {
+                return tramos;
+            }
+        }
+        for (Map.Entry<Integer, Integer> hueco : huecos.getHuecos().entrySet()) {
+            if (hueco.getKey() >= desde) {
+                break;
+            }
+            int fin = Math.min(desde, hueco.getKey() + hueco.getValue());
+            restantes = tomar(tramos, hueco.getKey(), fin, restantes);
+            if (restantes == 0) {
+                return tramos;
+            }
+        }
+        return null;
+    }
+
+    private static int tomar(LinkedList<Extension> tramos, int inicio, int fin, int restantes) {
+        int longitud = Math.min(restantes, fin - inicio);
+        tramos.add(new Extension(inicio, longitud));
+        return restantes - longitud;
+    }
+
+    @Override
+    public String getNombre() {
+        return "Primer ajuste";
+    }
+}
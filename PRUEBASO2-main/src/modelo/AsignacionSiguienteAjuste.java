@@ -0,0 +1,42 @@
+package modelo;
+
+import java.util.LinkedList;
+import java.util.Map;
+
+/**
+ * Siguiente ajuste: como el primer ajuste, pero la búsqueda continúa desde
+ * donde terminó la última asignación (puntero rotativo)
+ */
+class AsignacionSiguienteAjuste implements EstrategiaAsignacion {
+    private int puntero;
+
+    AsignacionSiguienteAjuste() {
+        this.puntero = 0;
+    }
+
+    @Override
+    public LinkedList<Extension> seleccionar(IndiceHuecos huecos, int cantidadBloques) {
+        LinkedList<Extension> tramos = new LinkedList<>();
+        Map.Entry<Integer, Integer> hueco = huecos.primerHuecoDesde(puntero, cantidadBloques);
+        if (hueco != null) {
+            tramos.add(new Extension(Math.max(puntero, hueco.getKey()), cantidadBloques));
+        } else {
+            hueco = huecos.primerHuecoDesde(0, cantidadBloques);
+            if (hueco != null) {
+                tramos.add(new Extension(hueco.getKey(), cantidadBloques));
+            } else {
+                tramos = AsignacionPrimerAjuste.repartirDesde(huecos, puntero, cantidadBloques);
+            }
+        }
+
+        if (tramos != null && !tramos.isEmpty()) {
+            puntero = tramos.getLast().getFin();
+        }
+        return tramos;
+    }
+
+    @Override
+    public String getNombre() {
+        return "Siguiente ajuste";
+    }
+}
@@ -1,37 +1,128 @@
 package modelo;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.function.IntConsumer;
 
 /**
- * Clase que implementa un buffer (memoria caché) para operaciones de E/S
+ * Clase que implementa un buffer (memoria caché) para operaciones de E/S.
+ * Los bloques se localizan con un índice hash por número de bloque y la
+ * política de reemplazo mantiene su propio orden de desalojo, así que tanto
+ * los aciertos como los reemplazos cuestan O(1)
  */
 public class Buffer {
     public enum PoliticaReemplazo {
-        FIFO, LRU, LFU
+        FIFO, LRU, LFU,
+        ARC,        // Adaptive Replacement Cache
+        DOS_Q,      // 2Q
+        CLOCK,      // Segunda oportunidad
+        CLOCK_PRO
     }
 
-    private LinkedList<BloqueBlog> bufferMemoria;
+    private final TablaHashEnteros<BloqueBlog> indice;
+    private EstrategiaReemplazo estrategia;
     private int capacidadMaxima;
     private PoliticaReemplazo politicaActual;
 
+    // Escritura diferida (write-back)
+    private boolean escrituraDiferida;
+    private int cantidadSucios;
+    private IntConsumer alDesalojarSucio;
+
+    // Métricas; la distancia de pila LRU de cada búsqueda solo si se pide
+    private final EstadisticasBuffer estadisticas;
+    private DistanciaPila distanciaPila;
+
+    // Marcos fuera del heap (null si cada bloque guarda su propio arreglo)
+    private final PoolMarcos pool;
+
     public Buffer(int capacidadMaxima) {
-        this.bufferMemoria = new LinkedList<>();
+        this(capacidadMaxima, null);
+    }
+
+    /**
+     * Buffer respaldado por una región de memoria fuera del heap de
+     * capacidadBytes, dividida en marcos de tamañoBloque bytes. La capacidad en
+     * bloques es la cantidad de marcos que caben
+     */
+    public Buffer(long capacidadBytes, int tamañoBloque) {
+        this(new PoolMarcos(capacidadBytes, tamañoBloque));
+    }
+
+    private Buffer(PoolMarcos pool) {
+        this(pool.getCantidadMarcos(), pool);
+    }
+
+    private Buffer(int capacidadMaxima, PoolMarcos pool) {
+        this.pool = pool;
+        this.indice = new TablaHashEnteros<>(capacidadMaxima);
         this.capacidadMaxima = capacidadMaxima;
         this.politicaActual = PoliticaReemplazo.LRU;
+        this.estrategia = crearEstrategia(politicaActual);
+        this.escrituraDiferida = false;
+        this.cantidadSucios = 0;
+        this.estadisticas = new EstadisticasBuffer();
+        this.distanciaPila = null;
+    }
+
+    private EstrategiaReemplazo crearEstrategia(PoliticaReemplazo politica) {
+        switch (politica) {
+            case FIFO:
+                return new ReemplazoFIFO();
+            case LFU:
+                return new ReemplazoLFU();
+            case ARC:
+                return new ReemplazoARC(capacidadMaxima);
+            case DOS_Q:
+                return new Reemplazo2Q(capacidadMaxima);
+            case CLOCK:
+                return new ReemplazoClock(capacidadMaxima);
+            case CLOCK_PRO:
+                return new ReemplazoClockPro(capacidadMaxima);
+            case LRU:
+            default:
+                return new ReemplazoLRU();
+        }
     }
 
     /**
      * Busca un bloque en el buffer
      */
     public BloqueBlog buscarBloque(int numeroBloque) {
-        for (BloqueBlog bloque : bufferMemoria) {
-            if (bloque.getNumeroBloque() == numeroBloque) {
-                bloque.incrementarAccesos();  // Para LFU
-                bloque.actualizarTiempoAcceso();  // Para LRU
-                return bloque;
+        BloqueBlog bloque = indice.obtener(numeroBloque);
+        if (distanciaPila != null) {
+            estadisticas.registrarDistancia(bloque != null, distanciaPila.registrar(numeroBloque));
+        }
+        if (bloque != null) {
+            estadisticas.registrarAcierto(politicaActual);
+            if (bloque.anticipado) {
+                bloque.anticipado = false;
+                estadisticas.registrarAnticipadoUsado();
             }
+            registrarAcceso(bloque);
+        } else {
+            estadisticas.registrarFallo(politicaActual);
+        }
+        return bloque;
+    }
+
+    /**
+     * Con las políticas de reloj un acierto solo enciende el bit de referencia:
+     * no se cuentan accesos ni se lee el reloj del sistema
+     */
+    private void registrarAcceso(BloqueBlog bloque) {
+        if (!esDeReloj(politicaActual)) {
+            bloque.incrementarAccesos();  // Para LFU
+            bloque.actualizarTiempoAcceso();  // Para LRU
         }
-        return null;
+        estrategia.alAcceder(bloque);
+    }
+
+    private static boolean esDeReloj(PoliticaReemplazo politica) {
+        return politica == PoliticaReemplazo.CLOCK || politica == PoliticaReemplazo.CLOCK_PRO;
     }
 
     /**
@@ -39,122 +130,351 @@ public class Buffer {
      */
     public void agregarBloque(int numeroBloque, byte[] datos) {
         // Verificar si el bloque ya existe
-        BloqueBlog existente = buscarBloque(numeroBloque);
+        BloqueBlog existente = indice.obtener(numeroBloque);
         if (existente != null) {
+            registrarAcceso(existente);
             return;
         }
+        insertar(numeroBloque, datos);
+    }
+
+    /**
+     * Carga un bloque leído por anticipado. No cuenta como acceso; si el
+     * bloque ya estaba no hace nada y devuelve false
+     */
+    public boolean agregarBloqueAnticipado(int numeroBloque, byte[] datos) {
+        if (indice.obtener(numeroBloque) != null) {
+            return false;
+        }
+        insertar(numeroBloque, datos).anticipado = true;
+        estadisticas.registrarAnticipadoCargado();
+        return true;
+    }
+
+    /**
+     * Escribe un bloque en el buffer. Con escritura diferida el bloque queda
+     * sucio y se escribe en el disco recién al desalojarlo o al descargar el
+     * buffer; devuelve false si la escritura debe ir directo al disco
+     */
+    public boolean escribirBloque(int numeroBloque, byte[] datos) {
+        if (!escrituraDiferida) {
+            // Escritura directa: la copia en caché queda desactualizada
+            removerBloque(numeroBloque);
+            return false;
+        }
 
+        BloqueBlog bloque = indice.obtener(numeroBloque);
+        if (bloque != null) {
+            registrarAcceso(bloque);
+            guardarDatos(bloque, datos);
+        } else {
+            bloque = insertar(numeroBloque, datos);
+        }
+        if (!bloque.sucio) {
+            bloque.sucio = true;
+            cantidadSucios++;
+        }
+        return true;
+    }
+
+    private BloqueBlog insertar(int numeroBloque, byte[] datos) {
         // Si el buffer está lleno, aplicar política de reemplazo
-        if (bufferMemoria.size() >= capacidadMaxima) {
-            reemplazarBloque();
+        estrategia.alFallar(numeroBloque);
+        if (indice.getTamaño() >= capacidadMaxima) {
+            reemplazarBloque(numeroBloque);
         }
 
-        BloqueBlog nuevoBloque = new BloqueBlog(numeroBloque, datos);
-        bufferMemoria.add(nuevoBloque);
+        // Las políticas de reloj devuelven el marco desalojado para reutilizarlo;
+        // con el pool fuera del heap los bloques ya vienen creados
+        BloqueBlog nuevoBloque = estrategia.reciclarMarco();
+        if (pool != null) {
+            nuevoBloque = pool.tomar();
+            nuevoBloque.reasignar(numeroBloque, null);
+            guardarDatos(nuevoBloque, datos);
+        } else if (nuevoBloque != null) {
+            nuevoBloque.reasignar(numeroBloque, datos);
+        } else {
+            nuevoBloque = new BloqueBlog(numeroBloque, datos);
+        }
+        indice.poner(numeroBloque, nuevoBloque);
+        estrategia.alInsertar(nuevoBloque);
+        return nuevoBloque;
+    }
+
+    private void guardarDatos(BloqueBlog bloque, byte[] datos) {
+        if (pool != null) {
+            bloque.longitudDatos = pool.escribir(bloque.marcoPool, datos);
+        } else {
+            bloque.datos = datos;
+        }
     }
 
     /**
      * Reemplaza un bloque según la política establecida
      */
-    private void reemplazarBloque() {
-        if (bufferMemoria.isEmpty()) {
+    private void reemplazarBloque(int numeroEntrante) {
+        BloqueBlog victima = estrategia.elegirVictima(numeroEntrante);
+        if (victima == null) {
             return;
         }
-
-        switch (politicaActual) {
-            case FIFO:
-                bufferMemoria.removeFirst();
-                break;
-            case LRU:
-                reemplazarLRU();
-                break;
-            case LFU:
-                reemplazarLFU();
-                break;
+        int numero = victima.getNumeroBloque();
+        boolean sucio = victima.sucio;
+        estadisticas.registrarDesalojo();
+        if (victima.anticipado) {
+            victima.anticipado = false;
+            estadisticas.registrarAnticipadoDesperdiciado();
+        }
+        estrategia.alDesalojar(victima);
+        indice.remover(numero);
+        if (pool != null) {
+            pool.devolver(victima);
+        }
+        if (sucio) {
+            victima.sucio = false;
+            cantidadSucios--;
+            if (alDesalojarSucio != null) {
+                alDesalojarSucio.accept(numero);
+            }
         }
     }
 
     /**
-     * Reemplaza el bloque menos recientemente usado (LRU)
+     * Elimina un bloque específico del buffer. Si estaba sucio, la escritura
+     * pendiente se descarta (p. ej. porque el bloque se liberó)
      */
-    private void reemplazarLRU() {
-        BloqueBlog bloqueAntiguo = bufferMemoria.getFirst();
-        for (BloqueBlog bloque : bufferMemoria) {
-            if (bloque.getTiempoUltimoAcceso() < bloqueAntiguo.getTiempoUltimoAcceso()) {
-                bloqueAntiguo = bloque;
-            }
+    public boolean removerBloque(int numeroBloque) {
+        BloqueBlog bloque = indice.remover(numeroBloque);
+        if (bloque == null) {
+            return false;
+        }
+        estrategia.alRemover(bloque);
+        bloque.anticipado = false;
+        if (bloque.sucio) {
+            bloque.sucio = false;
+            cantidadSucios--;
+        }
+        if (pool != null) {
+            pool.devolver(bloque);
         }
-        bufferMemoria.remove(bloqueAntiguo);
+        return true;
     }
 
     /**
-     * Reemplaza el bloque menos frecuentemente usado (LFU)
+     * Asocia el contenido en caché de un bloque a su nueva posición cuando el
+     * bloque se mueve en el disco, conservando su estado sucio
      */
-    private void reemplazarLFU() {
-        BloqueBlog bloqueMenosUsado = bufferMemoria.getFirst();
-        for (BloqueBlog bloque : bufferMemoria) {
-            if (bloque.getContadorAccesos() < bloqueMenosUsado.getContadorAccesos()) {
-                bloqueMenosUsado = bloque;
-            }
+    public void reubicarBloque(int origen, int destino) {
+        if (origen == destino) {
+            return;
+        }
+        removerBloque(destino);
+        BloqueBlog bloque = indice.remover(origen);
+        if (bloque == null) {
+            return;
         }
-        bufferMemoria.remove(bloqueMenosUsado);
+        estrategia.alRemover(bloque);
+        bloque.numeroBloque = destino;
+        indice.poner(destino, bloque);
+        estrategia.alInsertar(bloque);
     }
 
     /**
-     * Elimina un bloque específico del buffer
+     * Marca como limpios todos los bloques sucios y devuelve sus números
+     * ordenados, para que se escriban en el disco
      */
-    public boolean removerBloque(int numeroBloque) {
-        for (BloqueBlog bloque : bufferMemoria) {
-            if (bloque.getNumeroBloque() == numeroBloque) {
-                bufferMemoria.remove(bloque);
-                return true;
+    public int[] extraerSucios() {
+        int[] sucios = new int[cantidadSucios];
+        int[] cantidad = {0};
+        indice.recorrer(bloque -> {
+            if (bloque.sucio) {
+                bloque.sucio = false;
+                sucios[cantidad[0]++] = bloque.getNumeroBloque();
             }
-        }
-        return false;
+        });
+        cantidadSucios = 0;
+        Arrays.sort(sucios);
+        return sucios;
     }
 
     /**
-     * Limpia todo el buffer
+     * Limpia todo el buffer descartando las escrituras pendientes
      */
     public void limpiar() {
-        bufferMemoria.clear();
+        if (pool != null) {
+            indice.recorrer(pool::devolver);
+        }
+        indice.limpiar();
+        estrategia = crearEstrategia(politicaActual);
+        cantidadSucios = 0;
     }
 
     // Getters
+    /**
+     * Copia de los bloques en el orden de desalojo de la política actual
+     * (el primero es el próximo candidato a salir)
+     */
     public LinkedList<BloqueBlog> obtenerBloques() {
-        return bufferMemoria;
+        LinkedList<BloqueBlog> bloques = new LinkedList<>();
+        estrategia.recorrer(bloques::add);
+        return bloques;
     }
 
     public int getCapacidadMaxima() {
         return capacidadMaxima;
     }
 
+    public boolean isFueraDelHeap() {
+        return pool != null;
+    }
+
+    /**
+     * Memoria reservada para datos fuera del heap (0 si los bloques usan el heap)
+     */
+    public long getCapacidadBytes() {
+        return pool != null ? pool.getCapacidadBytes() : 0;
+    }
+
     public int getEspacioDisponible() {
-        return capacidadMaxima - bufferMemoria.size();
+        return capacidadMaxima - indice.getTamaño();
     }
 
     public int getEspacioOcupado() {
-        return bufferMemoria.size();
+        return indice.getTamaño();
+    }
+
+    public boolean isEscrituraDiferida() {
+        return escrituraDiferida;
+    }
+
+    public void setEscrituraDiferida(boolean escrituraDiferida) {
+        this.escrituraDiferida = escrituraDiferida;
+    }
+
+    public boolean isMedirDistancias() {
+        return distanciaPila != null;
+    }
+
+    /**
+     * Activa el histograma de distancias de reutilización. Viene apagado: cada
+     * búsqueda medida actualiza un árbol de Fenwick con un monitor, en O(log n).
+     * Al reactivarlo se empieza sin historial
+     */
+    public void setMedirDistancias(boolean medir) {
+        if (!medir) {
+            distanciaPila = null;
+        } else if (distanciaPila == null) {
+            distanciaPila = new DistanciaPila(capacidadMaxima * 4);
+        }
+    }
+
+    public EstadisticasBuffer getEstadisticas() {
+        return estadisticas;
+    }
+
+    public long getAnticipadosCargados() {
+        return estadisticas.getAnticipadosCargados();
+    }
+
+    public long getAnticipadosUsados() {
+        return estadisticas.getAnticipadosUsados();
+    }
+
+    public long getAnticipadosDesperdiciados() {
+        return estadisticas.getAnticipadosDesperdiciados();
+    }
+
+    public int getCantidadSucios() {
+        return cantidadSucios;
+    }
+
+    /**
+     * Acción que recibe el número de cada bloque sucio desalojado, para que se
+     * escriba en el disco
+     */
+    public void setAlDesalojarSucio(IntConsumer alDesalojarSucio) {
+        this.alDesalojarSucio = alDesalojarSucio;
     }
 
     public PoliticaReemplazo getPoliticaActual() {
         return politicaActual;
     }
 
+    /**
+     * Cambia la política conservando los bloques cargados. Se reinsertan en el
+     * orden que la nueva política habría construido: por llegada para FIFO,
+     * por último acceso para LRU y por cantidad de accesos para LFU. ARC, 2Q y
+     * CLOCK-Pro arrancan sin historial fantasma, con los bloques como nuevos.
+     * Las políticas de reloj no llevan tiempos ni cuentas de acceso; al salir
+     * de ellas se conserva el orden en que las visitaría la manecilla
+     */
     public void setPoliticaActual(PoliticaReemplazo politica) {
+        if (politica == politicaActual) {
+            return;
+        }
+
+        List<BloqueBlog> bloques = new ArrayList<>(indice.getTamaño());
+        estrategia.recorrer(bloques::add);
+        if (!esDeReloj(politicaActual)) {
+            switch (politica) {
+                case FIFO:
+                    bloques.sort(Comparator.comparingLong(BloqueBlog::getTiempoCreacion));
+                    break;
+                case LRU:
+                case ARC:
+                case DOS_Q:
+                case CLOCK:
+                case CLOCK_PRO:
+                    bloques.sort(Comparator.comparingLong(BloqueBlog::getTiempoUltimoAcceso));
+                    break;
+                case LFU:
+                    bloques.sort(Comparator.comparingInt(BloqueBlog::getContadorAccesos));
+                    break;
+            }
+        }
+
+        EstrategiaReemplazo nueva = crearEstrategia(politica);
+        for (BloqueBlog bloque : bloques) {
+            estrategia.alRemover(bloque);
+            nueva.alInsertar(bloque);
+        }
+        this.estrategia = nueva;
         this.politicaActual = politica;
     }
 
+    public long getAciertos(PoliticaReemplazo politica) {
+        return estadisticas.getAciertos(politica);
+    }
+
+    public long getFallos(PoliticaReemplazo politica) {
+        return estadisticas.getFallos(politica);
+    }
+
+    /**
+     * Porcentaje de búsquedas acertadas mientras la política estuvo activa
+     */
+    public double getTasaAciertos(PoliticaReemplazo politica) {
+        return estadisticas.getTasaAciertos(politica);
+    }
+
+    public double getTasaAciertos() {
+        return getTasaAciertos(politicaActual);
+    }
+
+    public void reiniciarEstadisticas() {
+        estadisticas.reiniciar();
+    }
+
     public double getPercentajeOcupacion() {
-        return (double) bufferMemoria.size() / capacidadMaxima * 100;
+        return (double) indice.getTamaño() / capacidadMaxima * 100;
     }
 
     @Override
     public String toString() {
         return "Buffer{" +
-                "ocupado=" + bufferMemoria.size() +
+                "ocupado=" + indice.getTamaño() +
                 ", capacidad=" + capacidadMaxima +
                 ", politica=" + politicaActual +
+                (pool != null ? ", fueraDelHeap=" + pool.getCapacidadBytes() + "B" : "") +
                 '}';
     }
 
@@ -168,6 +488,20 @@ public class Buffer {
         private long tiempoUltimoAcceso;
         private int contadorAccesos;
 
+        // Enlaces intrusivos que usan las políticas de reemplazo
+        BloqueBlog anterior;
+        BloqueBlog siguiente;
+        ReemplazoLFU.CuboFrecuencia cubo;
+        ListaBloques lista;
+        int marco = -1;             // Posición en el arreglo de las políticas de reloj
+        boolean sucio;              // Modificado en caché y todavía no escrito en el disco
+        boolean anticipado;         // Cargado por lectura anticipada y aún no pedido
+
+        // Marco del pool fuera del heap que guarda los datos
+        PoolMarcos pool;
+        int marcoPool = -1;
+        int longitudDatos;
+
         public BloqueBlog(int numeroBloque, byte[] datos) {
             this.numeroBloque = numeroBloque;
             this.datos = datos;
@@ -176,12 +510,55 @@ public class Buffer {
             this.contadorAccesos = 1;
         }
 
+        /**
+         * Reutiliza el objeto para otro bloque al reciclar un marco
+         */
+        void reasignar(int numeroBloque, byte[] datos) {
+            this.numeroBloque = numeroBloque;
+            this.datos = datos;
+            this.tiempoCreacion = System.currentTimeMillis();
+            this.tiempoUltimoAcceso = tiempoCreacion;
+            this.contadorAccesos = 1;
+            this.sucio = false;
+            this.anticipado = false;
+        }
+
         public int getNumeroBloque() {
             return numeroBloque;
         }
 
+        /**
+         * Datos del bloque. Con el pool fuera del heap devuelve una copia nueva;
+         * copiarDatos evita esa reserva
+         */
         public byte[] getDatos() {
-            return datos;
+            if (pool == null) {
+                return datos;
+            }
+            byte[] copia = new byte[longitudDatos];
+            pool.leer(marcoPool, copia, longitudDatos);
+            return copia;
+        }
+
+        /**
+         * Copia los datos del bloque al destino y devuelve cuántos bytes copió
+         */
+        public int copiarDatos(byte[] destino) {
+            if (pool == null) {
+                if (datos == null) {
+                    return 0;
+                }
+                int longitud = Math.min(datos.length, destino.length);
+                System.arraycopy(datos, 0, destino, 0, longitud);
+                return longitud;
+            }
+            int longitud = Math.min(longitudDatos, destino.length);
+            pool.leer(marcoPool, destino, longitud);
+            return longitud;
+        }
+
+        public long getTiempoCreacion() {
+            return tiempoCreacion;
         }
 
         public long getTiempoUltimoAcceso() {
@@ -192,6 +569,10 @@ public class Buffer {
             return contadorAccesos;
         }
 
+        public boolean isSucio() {
+            return sucio;
+        }
+
         public void actualizarTiempoAcceso() {
             this.tiempoUltimoAcceso = System.currentTimeMillis();
         }
@@ -0,0 +1,134 @@
+package modelo;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Caché acotada (LRU) de rutas de directorio ya resueltas, al estilo de la
+ * caché de dentries: una ruta repetida se resuelve con una sola búsqueda en
+ * vez de recorrer el árbol componente por componente. También recuerda las
+ * rutas que no existen (entradas negativas).
+ *
+ * Las entradas no se borran una por una; se validan al leerlas. Quitar o
+ * renombrar cualquier directorio invalida todas (cambia la versión de la
+ * estructura). Crear un directorio solo invalida las negativas que se
+ * cortaban en su padre (cambia la versión de hijos de ese padre)
+ */
+public class CacheRutas {
+    public static final int CAPACIDAD = 1024;
+
+    private final Directorio raiz;
+    private final LinkedHashMap<String, Entrada> entradas;
+    private long aciertos;
+    private long aciertosNegativos;
+    private long fallos;
+
+    /**
+     * Para una ruta negativa, directorio es el último componente que sí existe
+     */
+    private static final class Entrada {
+        final Directorio directorio;
+        final boolean negativa;
+        final long versionEstructura;
+        final int versionHijos;
+
+        Entrada(Directorio directorio, boolean negativa, long versionEstructura) {
+            this.directorio = directorio;
+            this.negativa = negativa;
+            this.versionEstructura = versionEstructura;
+            this.versionHijos = directorio.getVersionHijos();
+        }
+    }
+
+    public CacheRutas(Directorio raiz) {
+        this(raiz, CAPACIDAD);
+    }
+
+    public CacheRutas(Directorio raiz, int capacidad) {
+        this.raiz = raiz;
+        this.entradas = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entrada> masAntigua) {
+                return size() > capacidad;
+            }
+        };
+    }
+
+    /**
+     * Directorio de la ruta absoluta indicada, o null si no existe
+     */
+    public Directorio resolver(String ruta) {
+        if (ruta == null || ruta.isEmpty() || "/".equals(ruta)) {
+            return raiz;
+        }
+        Entrada entrada = entradas.get(ruta);
+        if (entrada != null && vigente(entrada)) {
+            if (entrada.negativa) {
+                aciertosNegativos++;
+                return null;
+            }
+            aciertos++;
+            return entrada.directorio;
+        }
+        fallos++;
+
+        long version = raiz.getVersionEstructura();
+        Directorio actual = raiz;
+        for (String nombre : ruta.split("/")) {
+            if (nombre.isEmpty()) {
+                continue;
+            }
+            Directorio siguiente = actual.buscarSubdirectorio(nombre);
+            if (siguiente == null) {
+                entradas.put(ruta, new Entrada(actual, true, version));
+                return null;
+            }
+            actual = siguiente;
+        }
+        entradas.put(ruta, new Entrada(actual, false, version));
+        return actual;
+    }
+
+    private boolean vigente(Entrada entrada) {
+        if (entrada.versionEstructura != raiz.getVersionEstructura()) {
+            return false;
+        }
+        return !entrada.negativa || entrada.versionHijos == entrada.directorio.getVersionHijos();
+    }
+
+    public void limpiar() {
+        entradas.clear();
+    }
+
+    // Getters
+    public int getTamaño() {
+        return entradas.size();
+    }
+
+    public long getAciertos() {
+        return aciertos;
+    }
+
+    public long getAciertosNegativos() {
+        return aciertosNegativos;
+    }
+
+    public long getFallos() {
+        return fallos;
+    }
+
+    public double getTasaAciertos() {
+        long total = aciertos + aciertosNegativos + fallos;
+        return total > 0 ? (double) (aciertos + aciertosNegativos) / total : 0;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheRutas{" +
+                "entradas=" + entradas.size() +
+                ", aciertos=" + aciertos +
+                ", negativos=" + aciertosNegativos +
+                ", fallos=" + fallos +
+                '}';
+    }
+}
@@ -0,0 +1,121 @@
+package modelo;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Archivos asignados ordenados como los elige el desfragmentador: los
+ * fragmentados por cantidad de extensiones y tamaño, y los contiguos por
+ * tamaño y primer bloque. El disco lo actualiza al asignar, liberar y mover
+ * bloques, así elegir el siguiente archivo no recorre todos los archivos ni
+ * busca un hueco para cada uno: basta una consulta por grupo. Los métodos
+ * son sincronizados porque los hilos que asignan en grupos de bloques
+ * distintos lo actualizan a la vez
+ */
+class CandidatosDesfragmentacion {
+    private final TreeMap<Integer, TreeMap<Integer, LinkedHashSet<Archivo>>> fragmentados;  // extensiones -> tamaño -> archivos
+    private final TreeMap<Integer, TreeMap<Integer, Archivo>> contiguos;                     // tamaño -> primer bloque -> archivo
+    private final HashMap<Archivo, Clave> registrados;
+
+    /**
+     * Posición con que se indexó cada archivo, para quitarlo aunque sus
+     * bloques ya hayan cambiado
+     */
+    private static final class Clave {
+        final int extensiones;
+        final int tamaño;
+        final int primerBloque;
+
+        Clave(int extensiones, int tamaño, int primerBloque) {
+            this.extensiones = extensiones;
+            this.tamaño = tamaño;
+            this.primerBloque = primerBloque;
+        }
+    }
+
+    CandidatosDesfragmentacion() {
+        this.fragmentados = new TreeMap<>();
+        this.contiguos = new TreeMap<>();
+        this.registrados = new HashMap<>();
+    }
+
+    /**
+     * Indexa el archivo según sus bloques actuales (reemplaza la entrada anterior)
+     */
+    synchronized void agregar(Archivo archivo) {
+        quitar(archivo);
+        int tamaño = archivo.getCantidadBloquesAsignados();
+        if (tamaño == 0) {
+            return;
+        }
+        Clave clave = new Clave(archivo.getCantidadExtensiones(), tamaño, archivo.getPrimerBloque());
+        registrados.put(archivo, clave);
+        if (clave.extensiones > 1) {
+            fragmentados.computeIfAbsent(clave.extensiones, k -> new TreeMap<>())
+                    .computeIfAbsent(tamaño, k -> new LinkedHashSet<>()).add(archivo);
+        } else {
+            contiguos.computeIfAbsent(tamaño, k -> new TreeMap<>()).put(clave.primerBloque, archivo);
+        }
+    }
+
+    synchronized void quitar(Archivo archivo) {
+        Clave clave = registrados.remove(archivo);
+        if (clave == null) {
+            return;
+        }
+        if (clave.extensiones > 1) {
+            TreeMap<Integer, LinkedHashSet<Archivo>> porTamaño = fragmentados.get(clave.extensiones);
+            LinkedHashSet<Archivo> archivos = porTamaño.get(clave.tamaño);
+            archivos.remove(archivo);
+            if (archivos.isEmpty()) {
+                porTamaño.remove(clave.tamaño);
+                if (porTamaño.isEmpty()) {
+                    fragmentados.remove(clave.extensiones);
+                }
+            }
+        } else {
+            TreeMap<Integer, Archivo> porPrimerBloque = contiguos.get(clave.tamaño);
+            porPrimerBloque.remove(clave.primerBloque, archivo);
+            if (porPrimerBloque.isEmpty()) {
+                contiguos.remove(clave.tamaño);
+            }
+        }
+    }
+
+    /**
+     * Archivo fragmentado con más extensiones que cabe entero en un hueco de
+     * la longitud indicada (el más pequeño de ellos), o null
+     */
+    synchronized Archivo fragmentadoQueCabe(int mayorHueco) {
+        for (TreeMap<Integer, LinkedHashSet<Archivo>> porTamaño : fragmentados.descendingMap().values()) {
+            Map.Entry<Integer, LinkedHashSet<Archivo>> menor = porTamaño.firstEntry();
+            if (menor.getKey() <= mayorHueco) {
+                return menor.getValue().iterator().next();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Archivo contiguo de menor primer bloque que tiene antes un hueco donde
+     * cabe. primerHueco da, para cada tamaño, el inicio del primer hueco que
+     * alcanza (o -1); se consulta una vez por tamaño distinto
+     */
+    synchronized Archivo contiguoAdelantable(IntUnaryOperator primerHueco) {
+        Archivo elegido = null;
+        for (Map.Entry<Integer, TreeMap<Integer, Archivo>> grupo : contiguos.entrySet()) {
+            int hueco = primerHueco.applyAsInt(grupo.getKey());
+            if (hueco < 0) {
+                continue;
+            }
+            Map.Entry<Integer, Archivo> siguiente = grupo.getValue().higherEntry(hueco);
+            if (siguiente != null && (elegido == null || siguiente.getKey() < elegido.getPrimerBloque())) {
+                elegido = siguiente.getValue();
+            }
+        }
+        return elegido;
+    }
+}
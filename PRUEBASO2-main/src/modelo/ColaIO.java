@@ -1,58 +1,214 @@
 package modelo;
 
+import java.util.Arrays;
 import java.util.LinkedList;
 
 /**
- * Clase que implementa la cola de solicitudes de E/S del disco
+ * Clase que implementa la cola de solicitudes de E/S del disco. Las
+ * solicitudes se indexan por cilindro para que el planificador elija la
+ * siguiente sin reordenar la cola; las lecturas anticipadas van en un índice
+ * aparte y solo se atienden cuando no queda otra cosa. Al llegar, una
+ * solicitud contigua a otra pendiente compatible se fusiona con ella
  */
 public class ColaIO {
-    private LinkedList<SolicitudIO> cola;
-    private int contadorSolicitudes;
+    /** Esperas recientes sobre las que se calculan los percentiles */
+    public static final int VENTANA_ESPERAS = 4096;
+
+    private final IndiceCilindros prioritarias;
+    private final IndiceCilindros anticipadas;
+    private long contadorSolicitudes;
     private long tiempoPromedio;
     private int totalSolicitudesCompletadas;
+    private final long[] esperasRecientes;   // Anillo con las últimas esperas en cola
+    private int siguienteEspera;
+    private int cantidadEsperas;
+    private long esperaMaxima;
+    private long totalAtendidas;
+    private boolean fusionActiva;
+    private int maxBloquesFusion;
+    private long totalRecibidas;
+    private long fusionesTraseras;    // La nueva se agregó al final de una pendiente
+    private long fusionesDelanteras;  // La nueva se agregó al principio de una pendiente
 
     public ColaIO() {
-        this.cola = new LinkedList<>();
+        this.prioritarias = new IndiceCilindros();
+        this.anticipadas = new IndiceCilindros();
         this.contadorSolicitudes = 0;
         this.tiempoPromedio = 0;
         this.totalSolicitudesCompletadas = 0;
+        this.esperasRecientes = new long[VENTANA_ESPERAS];
+        this.siguienteEspera = 0;
+        this.cantidadEsperas = 0;
+        this.esperaMaxima = 0;
+        this.totalAtendidas = 0;
+        this.fusionActiva = true;
+        this.maxBloquesFusion = 64;
+        this.totalRecibidas = 0;
+        this.fusionesTraseras = 0;
+        this.fusionesDelanteras = 0;
     }
 
     /**
-     * Agrega una solicitud a la cola
+     * Agrega una solicitud a la cola. Si otra pendiente compatible termina
+     * justo donde empieza (o empieza justo donde termina), se fusionan en una
+     * sola solicitud que conserva la llegada de la más antigua
      */
     public void agregarSolicitud(SolicitudIO solicitud) {
-        cola.add(solicitud);
+        solicitud.setOrdenLlegada(contadorSolicitudes++);
+        totalRecibidas++;
+        IndiceCilindros indice = indiceDe(solicitud);
+
+        if (fusionActiva && esFusionable(solicitud)) {
+            SolicitudIO actual = solicitud;
+            SolicitudIO anterior = buscarCompatible(indice.queTerminanEn(actual.getCilindroAcceso()), actual);
+            if (anterior != null) {
+                actual = fusionar(indice, anterior, actual);
+                fusionesTraseras++;
+            }
+            SolicitudIO posterior = buscarCompatible(indice.queEmpiezanEn(actual.getCilindroFin()), actual);
+            if (posterior != null) {
+                actual = fusionar(indice, actual, posterior);
+                fusionesDelanteras++;
+            }
+            if (actual != solicitud) {
+                return;
+            }
+        }
+        indice.agregar(solicitud);
     }
 
     /**
-     * Obtiene la primera solicitud de la cola sin removerla
+     * Solo se fusionan operaciones sobre tramos de bloques; ELIMINAR no
+     * recorre bloques
      */
-    public SolicitudIO obtenerPrimera() {
-        if (!cola.isEmpty()) {
-            return cola.getFirst();
+    private boolean esFusionable(SolicitudIO solicitud) {
+        return solicitud.getCilindroAcceso() >= 0
+                && solicitud.getTipo() != SolicitudIO.TipoOperacion.ELIMINAR
+                && solicitud.getCantidadBloques() < maxBloquesFusion;
+    }
+
+    private SolicitudIO buscarCompatible(Iterable<SolicitudIO> candidatas, SolicitudIO solicitud) {
+        for (SolicitudIO candidata : candidatas) {
+            if (candidata != solicitud
+                    && candidata.getTipo() == solicitud.getTipo()
+                    && candidata.getArchivoAfectado() == solicitud.getArchivoAfectado()
+                    && candidata.getUsuario().equals(solicitud.getUsuario())
+                    && candidata.getCantidadBloques() + solicitud.getCantidadBloques() <= maxBloquesFusion) {
+                return candidata;
+            }
         }
         return null;
     }
 
     /**
-     * Extrae la primera solicitud de la cola
+     * Une dos solicitudes contiguas (primera termina donde empieza segunda).
+     * Queda en la cola la más antigua con el tramo completo; la otra pasa a
+     * su lista de fusionadas
+     */
+    private SolicitudIO fusionar(IndiceCilindros indice, SolicitudIO primera, SolicitudIO segunda) {
+        indice.remover(primera);
+        indice.remover(segunda);
+        boolean quedaPrimera = primera.getOrdenLlegada() < segunda.getOrdenLlegada();
+        SolicitudIO sobreviviente = quedaPrimera ? primera : segunda;
+        SolicitudIO absorbida = quedaPrimera ? segunda : primera;
+        sobreviviente.absorber(absorbida, primera.getCilindroAcceso(),
+                primera.getCantidadBloques() + segunda.getCantidadBloques());
+        indice.agregar(sobreviviente);
+        return sobreviviente;
+    }
+
+    /**
+     * Obtiene la primera solicitud de la cola (por orden de llegada) sin removerla
+     */
+    public SolicitudIO obtenerPrimera() {
+        SolicitudIO prioritaria = prioritarias.primeraEnLlegar();
+        SolicitudIO anticipada = anticipadas.primeraEnLlegar();
+        if (prioritaria == null || anticipada == null) {
+            return prioritaria != null ? prioritaria : anticipada;
+        }
+        return prioritaria.getOrdenLlegada() < anticipada.getOrdenLlegada() ? prioritaria : anticipada;
+    }
+
+    /**
+     * Extrae la primera solicitud de la cola (por orden de llegada)
      */
     public SolicitudIO extraerPrimera() {
-        if (!cola.isEmpty()) {
-            return cola.removeFirst();
+        SolicitudIO primera = obtenerPrimera();
+        if (primera != null) {
+            indiceDe(primera).remover(primera);
+        }
+        return primera;
+    }
+
+    /**
+     * Extrae la primera solicitud que no sea una lectura anticipada; las
+     * anticipadas solo se atienden cuando no queda otra cosa en la cola
+     */
+    public SolicitudIO extraerPrimeraPrioritaria() {
+        IndiceCilindros indice = getIndiceAtendible();
+        SolicitudIO solicitud = indice.primeraEnLlegar();
+        if (solicitud != null) {
+            indice.remover(solicitud);
+        }
+        return solicitud;
+    }
+
+    /**
+     * Índice del que se debe atender la siguiente solicitud: el de las
+     * prioritarias mientras tenga alguna, si no el de las anticipadas
+     */
+    IndiceCilindros getIndiceAtendible() {
+        return prioritarias.estaVacio() ? anticipadas : prioritarias;
+    }
+
+    /**
+     * Cambia el cilindro de una solicitud manteniendo el índice consistente
+     */
+    void reubicarSolicitud(SolicitudIO solicitud, int nuevoCilindro) {
+        IndiceCilindros indice = indiceDe(solicitud);
+        boolean enCola = indice.remover(solicitud);
+        solicitud.setCilindroAcceso(nuevoCilindro);
+        if (enCola) {
+            indice.agregar(solicitud);
         }
-        return null;
+    }
+
+    /**
+     * Marca el inicio de atención de una solicitud ya extraída de la cola y
+     * registra cuánto esperó
+     */
+    public void registrarInicio(SolicitudIO solicitud) {
+        registrarEspera(solicitud);
+        for (SolicitudIO fusionada : solicitud.getFusionadas()) {
+            registrarEspera(fusionada);
+        }
+    }
+
+    private void registrarEspera(SolicitudIO solicitud) {
+        solicitud.setTiempoInicio(System.currentTimeMillis());
+        long espera = solicitud.getTiempoEspera();
+        esperasRecientes[siguienteEspera] = espera;
+        siguienteEspera = (siguienteEspera + 1) % esperasRecientes.length;
+        if (cantidadEsperas < esperasRecientes.length) {
+            cantidadEsperas++;
+        }
+        esperaMaxima = Math.max(esperaMaxima, espera);
+        totalAtendidas++;
     }
 
     /**
      * Obtiene una solicitud por su ID
      */
     public SolicitudIO obtenerPorId(int idSolicitud) {
-        for (SolicitudIO solicitud : cola) {
+        for (SolicitudIO solicitud : obtenerTodas()) {
             if (solicitud.getIdSolicitud() == idSolicitud) {
                 return solicitud;
             }
+            for (SolicitudIO fusionada : solicitud.getFusionadas()) {
+                if (fusionada.getIdSolicitud() == idSolicitud) {
+                    return fusionada;
+                }
+            }
         }
         return null;
     }
@@ -61,39 +217,55 @@ public class ColaIO {
      * Remueve una solicitud específica
      */
     public boolean removerSolicitud(SolicitudIO solicitud) {
-        boolean resultado = cola.remove(solicitud);
+        boolean resultado = indiceDe(solicitud).remover(solicitud);
         if (resultado) {
             actualizarEstadisticas(solicitud);
         }
         return resultado;
     }
 
+    /**
+     * Retira una solicitud que no llegará a atenderse (una lectura anticipada
+     * cancelada), sin contarla en las estadísticas
+     */
+    public boolean descartarSolicitud(SolicitudIO solicitud) {
+        return indiceDe(solicitud).remover(solicitud);
+    }
+
     /**
      * Obtiene el tamaño actual de la cola
      */
     public int getTamaño() {
-        return cola.size();
+        return prioritarias.getTamaño() + anticipadas.getTamaño();
     }
 
     /**
      * Verifica si la cola está vacía
      */
     public boolean estaVacia() {
-        return cola.isEmpty();
+        return prioritarias.estaVacio() && anticipadas.estaVacio();
     }
 
     /**
-     * Obtiene todas las solicitudes de la cola
+     * Obtiene una copia de las solicitudes de la cola en orden de llegada,
+     * con las lecturas anticipadas al final
      */
     public LinkedList<SolicitudIO> obtenerTodas() {
-        return cola;
+        LinkedList<SolicitudIO> todas = new LinkedList<>(prioritarias.enOrdenDeLlegada());
+        todas.addAll(anticipadas.enOrdenDeLlegada());
+        return todas;
     }
 
     /**
      * Limpia la cola
      */
     public void limpiar() {
-        cola.clear();
+        prioritarias.limpiar();
+        anticipadas.limpiar();
+    }
+
+    private IndiceCilindros indiceDe(SolicitudIO solicitud) {
+        return solicitud.isAnticipada() ? anticipadas : prioritarias;
     }
 
     /**
@@ -116,10 +288,85 @@ public class ColaIO {
         return totalSolicitudesCompletadas;
     }
 
+    /**
+     * Mayor espera en cola (ms) de todas las solicitudes atendidas
+     */
+    public long getEsperaMaxima() {
+        return esperaMaxima;
+    }
+
+    /**
+     * Percentil (0-100) de la espera en cola (ms) sobre las últimas
+     * VENTANA_ESPERAS solicitudes atendidas
+     */
+    public long getPercentilEspera(double percentil) {
+        if (cantidadEsperas == 0) {
+            return 0;
+        }
+        long[] esperas = Arrays.copyOf(esperasRecientes, cantidadEsperas);
+        Arrays.sort(esperas);
+        int posicion = (int) Math.ceil(percentil / 100.0 * esperas.length) - 1;
+        return esperas[Math.max(0, Math.min(esperas.length - 1, posicion))];
+    }
+
+    public long getEsperaP99() {
+        return getPercentilEspera(99);
+    }
+
+    /**
+     * Espera actual (ms) de la solicitud pendiente más antigua
+     */
+    public long getEsperaPendienteMaxima() {
+        SolicitudIO primera = obtenerPrimera();
+        return primera != null ? primera.getTiempoEspera() : 0;
+    }
+
+    public long getTotalAtendidas() {
+        return totalAtendidas;
+    }
+
+    public boolean isFusionActiva() {
+        return fusionActiva;
+    }
+
+    public void setFusionActiva(boolean fusionActiva) {
+        this.fusionActiva = fusionActiva;
+    }
+
+    public int getMaxBloquesFusion() {
+        return maxBloquesFusion;
+    }
+
+    /**
+     * Tamaño máximo, en bloques, de una solicitud fusionada
+     */
+    public void setMaxBloquesFusion(int maxBloquesFusion) {
+        this.maxBloquesFusion = Math.max(1, maxBloquesFusion);
+    }
+
+    public long getTotalRecibidas() {
+        return totalRecibidas;
+    }
+
+    public long getFusionesTraseras() {
+        return fusionesTraseras;
+    }
+
+    public long getFusionesDelanteras() {
+        return fusionesDelanteras;
+    }
+
+    /**
+     * Fusiones por solicitud recibida; cada fusión ahorra un despacho
+     */
+    public double getTasaFusion() {
+        return totalRecibidas > 0 ? (double) (fusionesTraseras + fusionesDelanteras) / totalRecibidas : 0;
+    }
+
     @Override
     public String toString() {
         return "ColaIO{" +
-                "tamaño=" + cola.size() +
+                "tamaño=" + getTamaño() +
                 ", solicitudesCompletadas=" + totalSolicitudesCompletadas +
                 ", tiempoPromedio=" + tiempoPromedio + "ms" +
                 '}';
@@ -0,0 +1,141 @@
+package modelo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Capa de envío de solicitudes de E/S con varias colas (estilo blk-mq). Cada
+ * hilo productor deposita sus solicitudes en una cola sin bloqueos elegida por
+ * su identificador, así muchos hilos pueden enviar a la vez sin competir por
+ * un único cerrojo. Un solo hilo consumidor las vacía por lotes en la ColaIO
+ * del planificador, que no es segura entre hilos
+ */
+public class ColasEnvio {
+    /** Solicitudes que se toman de cada cola por vuelta al vaciar */
+    public static final int LOTE_POR_COLA = 32;
+
+    private final List<ConcurrentLinkedQueue<SolicitudIO>> colas;
+    private final int mascara;
+    private final LongAdder enviadas;
+    private final LongAdder drenadas;
+    private final LongAdder lotes;
+
+    public ColasEnvio() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * La cantidad de colas se redondea a la siguiente potencia de dos
+     */
+    public ColasEnvio(int cantidadColas) {
+        int tamaño = cantidadColas <= 1 ? 1 : Integer.highestOneBit(cantidadColas - 1) << 1;
+        this.colas = new ArrayList<>(tamaño);
+        for (int i = 0; i < tamaño; i++) {
+            colas.add(new ConcurrentLinkedQueue<>());
+        }
+        this.mascara = tamaño - 1;
+        this.enviadas = new LongAdder();
+        this.drenadas = new LongAdder();
+        this.lotes = new LongAdder();
+    }
+
+    /**
+     * Deposita la solicitud en la cola del hilo actual. Se puede llamar desde
+     * cualquier hilo
+     */
+    public void enviar(SolicitudIO solicitud) {
+        colas.get(indiceDelHilo()).offer(solicitud);
+        enviadas.increment();
+    }
+
+    /**
+     * Pasa a la cola del planificador hasta LOTE_POR_COLA solicitudes de cada
+     * cola de envío. Solo debe llamarla el hilo que usa la ColaIO. Devuelve
+     * cuántas pasó
+     */
+    public int drenarLote(ColaIO destino) {
+        int pasadas = 0;
+        for (ConcurrentLinkedQueue<SolicitudIO> cola : colas) {
+            for (int i = 0; i < LOTE_POR_COLA; i++) {
+                SolicitudIO solicitud = cola.poll();
+                if (solicitud == null) {
+                    break;
+                }
+                destino.agregarSolicitud(solicitud);
+                pasadas++;
+            }
+        }
+        if (pasadas > 0) {
+            drenadas.add(pasadas);
+            lotes.increment();
+        }
+        return pasadas;
+    }
+
+    /**
+     * Vacía por lotes todas las colas de envío en la cola del planificador
+     */
+    public int drenarTodo(ColaIO destino) {
+        int total = 0;
+        int pasadas;
+        while ((pasadas = drenarLote(destino)) > 0) {
+            total += pasadas;
+        }
+        return total;
+    }
+
+    public boolean estaVacia() {
+        for (ConcurrentLinkedQueue<SolicitudIO> cola : colas) {
+            if (!cola.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Descarta las solicitudes aún no drenadas
+     */
+    public void limpiar() {
+        for (ConcurrentLinkedQueue<SolicitudIO> cola : colas) {
+            cola.clear();
+        }
+    }
+
+    // Getters
+    public int getCantidadColas() {
+        return colas.size();
+    }
+
+    public long getTotalEnviadas() {
+        return enviadas.sum();
+    }
+
+    public long getTotalDrenadas() {
+        return drenadas.sum();
+    }
+
+    /**
+     * Solicitudes promedio que pasó cada vaciado no vacío
+     */
+    public double getPromedioPorLote() {
+        long cantidadLotes = lotes.sum();
+        return cantidadLotes > 0 ? (double) drenadas.sum() / cantidadLotes : 0;
+    }
+
+    private int indiceDelHilo() {
+        long id = Thread.currentThread().threadId();
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> 32) & mascara;
+    }
+
+    @Override
+    public String toString() {
+        return "ColasEnvio{" +
+                "colas=" + colas.size() +
+                ", enviadas=" + getTotalEnviadas() +
+                ", drenadas=" + getTotalDrenadas() +
+                '}';
+    }
+}
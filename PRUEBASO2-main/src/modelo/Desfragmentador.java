@@ -0,0 +1,365 @@
+package modelo;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Motor de desfragmentación incremental. Cada paso mueve como máximo una
+ * cantidad acotada de bloques, de modo que las solicitudes de E/S siguen
+ * atendiéndose entre pasos.
+ *
+ * Primero reubica archivos completos en huecos donde caben contiguos: el
+ * archivo se copia al tramo reservado y se sigue leyendo desde sus bloques
+ * originales hasta que el cambio se confirma de una sola vez. Si el espacio
+ * libre está tan disperso que ningún hueco alcanza, compacta el disco bloque
+ * a bloque dejando los archivos contiguos desde el inicio.
+ */
+public class Desfragmentador {
+    private final SistemaArchivos sistema;
+    private ReporteDesfragmentacion reporte;
+    private Disco discoEnCurso;
+
+    // Reubicación de un archivo completo en curso
+    private Archivo archivoEnCurso;
+    private int destinoEnCurso;
+    private int tamañoEnCurso;
+    private int bloquesCopiados;
+
+    // Compactación bloque a bloque en curso
+    private boolean compactando;
+    private boolean compactacionRealizada;
+    private List<Archivo> ordenCompactacion;
+    private Archivo[] dueños;           // Archivo que ocupa cada bloque durante la compactación
+    private int cursor;                 // Próxima posición a llenar
+    private int archivoActual;
+    private int bloqueLogicoActual;
+
+    // Solicitudes pendientes a redirigir al final del paso
+    private final List<SolicitudIO> pendientes;
+    private final List<Integer> indicesPendientes;
+    private final Map<Integer, Integer> origenPorUbicacion;    // Ubicación actual -> ubicación al iniciar el paso
+
+    public Desfragmentador(SistemaArchivos sistema) {
+        this.sistema = sistema;
+        this.reporte = null;
+        this.pendientes = new ArrayList<>();
+        this.indicesPendientes = new ArrayList<>();
+        this.origenPorUbicacion = new HashMap<>();
+    }
+
+    /**
+     * Ejecuta un paso moviendo como máximo maxBloques bloques. Devuelve true
+     * si queda trabajo pendiente
+     */
+    public boolean paso(int maxBloques) {
+        Disco disco = sistema.getDisco();
+        if (discoEnCurso != disco) {
+            // Disco nuevo (p. ej. tras cargar un estado): descartar el trabajo anterior
+            archivoEnCurso = null;
+            compactando = false;
+            discoEnCurso = disco;
+        }
+        if (reporte == null || reporte.isFinalizada()) {
+            reporte = new ReporteDesfragmentacion();
+            reporte.registrarInicio(disco, calcularRecorridoTotal());
+            compactacionRealizada = false;
+        }
+
+        capturarPendientes();
+        int presupuesto = Math.max(1, maxBloques);
+        boolean quedaTrabajo = true;
+        while (presupuesto > 0 && quedaTrabajo) {
+            if (archivoEnCurso != null) {
+                presupuesto -= copiarArchivo(disco, presupuesto);
+            } else if (compactando) {
+                presupuesto -= compactar(disco, presupuesto);
+            } else if (!seleccionarSiguiente(disco) && !iniciarCompactacion(disco)) {
+                quedaTrabajo = false;
+            }
+        }
+        redirigirPendientes();
+
+        if (!quedaTrabajo) {
+            reporte.registrarFin(disco, calcularRecorridoTotal(), true);
+        }
+        return quedaTrabajo;
+    }
+
+    /**
+     * Ejecuta pasos hasta terminar la pasada y devuelve el reporte
+     */
+    public ReporteDesfragmentacion desfragmentarCompleto(int bloquesPorPaso) {
+        while (paso(bloquesPorPaso)) {
+            // Continuar hasta que no quede nada por mover
+        }
+        return reporte;
+    }
+
+    // ====== REUBICACIÓN DE ARCHIVOS COMPLETOS ======
+
+    /**
+     * Elige el próximo archivo a reubicar y reserva su destino. Primero los
+     * archivos fragmentados (en el hueco que mejor se ajuste); después los
+     * contiguos que pueden acercarse al inicio del disco. Los candidatos salen
+     * del índice que mantiene el disco, sin recorrer todos los archivos
+     */
+    private boolean seleccionarSiguiente(Disco disco) {
+        Archivo elegido = disco.buscarFragmentadoReubicable();
+        int destino = elegido != null ? disco.buscarMejorHueco(elegido.getCantidadBloquesAsignados()) : -1;
+        if (elegido == null) {
+            elegido = disco.buscarContiguoAdelantable();
+            destino = elegido != null ? disco.buscarPrimerHueco(elegido.getCantidadBloquesAsignados()) : -1;
+        }
+
+        if (elegido == null || !disco.reservarTramo(destino, elegido.getCantidadBloquesAsignados())) {
+            return false;
+        }
+
+        archivoEnCurso = elegido;
+        destinoEnCurso = destino;
+        tamañoEnCurso = elegido.getCantidadBloquesAsignados();
+        bloquesCopiados = 0;
+        return true;
+    }
+
+    /**
+     * Copia bloques del archivo en curso a su tramo reservado y confirma el
+     * cambio cuando termina. Devuelve los bloques consumidos del presupuesto
+     */
+    private int copiarArchivo(Disco disco, int presupuesto) {
+        if (archivoEnCurso.getCantidadBloquesAsignados() != tamañoEnCurso) {
+            // El archivo fue eliminado o modificado durante la copia
+            disco.liberarReserva(destinoEnCurso, tamañoEnCurso);
+            archivoEnCurso = null;
+            return 0;
+        }
+
+        int copiar = Math.min(presupuesto, tamañoEnCurso - bloquesCopiados);
+        for (int i = 0; i < copiar; i++) {
+            int origen = archivoEnCurso.obtenerBloque(bloquesCopiados);
+            disco.copiarBloque(origen, destinoEnCurso + bloquesCopiados);
+            bloquesCopiados++;
+        }
+
+        if (bloquesCopiados == tamañoEnCurso) {
+            LinkedList<Integer> bloquesAnteriores = archivoEnCurso.getBloques();
+            disco.confirmarReubicacion(archivoEnCurso, destinoEnCurso);
+            int indice = 0;
+            for (Integer bloque : bloquesAnteriores) {
+                registrarMovimiento(bloque, destinoEnCurso + indice++);
+            }
+            reporte.registrarReubicacion(tamañoEnCurso);
+            archivoEnCurso = null;
+        }
+        return Math.max(1, copiar);
+    }
+
+    // ====== COMPACTACIÓN BLOQUE A BLOQUE ======
+
+    /**
+     * Inicia la compactación si el disco sigue fragmentado y queda al menos un
+     * bloque libre para intercambiar. Se realiza una vez por pasada
+     */
+    private boolean iniciarCompactacion(Disco disco) {
+        if (compactacionRealizada || disco.getBloquesLibres() == 0) {
+            return false;
+        }
+        boolean fragmentado = disco.getPromedioExtensionesPorArchivo() > 1.0
+            || disco.getCantidadHuecosLibres() > 1
+            || disco.obtenerPrimerBloqueLibre() != disco.getBloquesOcupados();
+        if (!fragmentado) {
+            return false;
+        }
+
+        ordenCompactacion = new ArrayList<>(sistema.getIndiceArchivos().getTodos());
+        ordenCompactacion.sort(Comparator.comparingInt(Archivo::getPrimerBloque));
+        reconstruirDueños(disco);
+        cursor = 0;
+        archivoActual = 0;
+        bloqueLogicoActual = 0;
+        compactando = true;
+        compactacionRealizada = true;
+        return true;
+    }
+
+    /**
+     * Lleva a la posición del cursor el siguiente bloque lógico en el orden de
+     * archivos; si la posición está ocupada por otro archivo, primero desplaza
+     * ese bloque a un lugar libre. Devuelve los bloques consumidos del presupuesto
+     */
+    private int compactar(Disco disco, int presupuesto) {
+        int movidos = 0;
+        while (movidos < presupuesto) {
+            if (archivoActual >= ordenCompactacion.size()) {
+                compactando = false;
+                break;
+            }
+
+            Archivo archivo = ordenCompactacion.get(archivoActual);
+            if (bloqueLogicoActual >= archivo.getCantidadBloquesAsignados()) {
+                archivoActual++;
+                bloqueLogicoActual = 0;
+                continue;
+            }
+
+            int actual = archivo.obtenerBloque(bloqueLogicoActual);
+            if (actual <= cursor) {
+                // Ya está en su lugar (o quedó detrás por un cambio concurrente)
+                cursor = Math.max(cursor, actual + 1);
+                bloqueLogicoActual++;
+                continue;
+            }
+
+            if (disco.estaBloqueOcupado(cursor)) {
+                Archivo ocupante = dueños[cursor];
+                if (ocupante == null || !ocupante.contieneBloqueAsignado(cursor)) {
+                    reconstruirDueños(disco);
+                    ocupante = dueños[cursor];
+                }
+                int libre = disco.obtenerSiguienteBloqueLibre(cursor + 1);
+                if (ocupante == null || libre < 0) {
+                    // Bloque reservado o sin espacio para intercambiar: saltarlo
+                    cursor++;
+                    continue;
+                }
+                if (!disco.moverBloque(ocupante, cursor, libre)) {
+                    // El disco rechazó el intercambio: dejar esa posición como está
+                    cursor++;
+                    continue;
+                }
+                dueños[libre] = ocupante;
+                registrarMovimiento(cursor, libre);
+                movidos++;
+            }
+
+            if (!disco.moverBloque(archivo, actual, cursor)) {
+                // El bloque ya no es del archivo o la posición no quedó libre
+                cursor++;
+                continue;
+            }
+            dueños[cursor] = archivo;
+            dueños[actual] = null;
+            registrarMovimiento(actual, cursor);
+            movidos++;
+            cursor++;
+            bloqueLogicoActual++;
+        }
+
+        if (!compactando) {
+            dueños = null;
+            ordenCompactacion = null;
+        }
+        reporte.registrarCompactacion(movidos);
+        return Math.max(1, movidos);
+    }
+
+    private void reconstruirDueños(Disco disco) {
+        dueños = new Archivo[disco.getTotalBloques()];
+        for (Archivo archivo : sistema.getIndiceArchivos().getTodos()) {
+            for (Extension extension : archivo.getExtensiones()) {
+                for (int b = extension.getInicio(); b < extension.getFin(); b++) {
+                    dueños[b] = archivo;
+                }
+            }
+        }
+    }
+
+    // ====== SOLICITUDES PENDIENTES Y BUFFER ======
+
+    /**
+     * Registra la posición lógica de cada solicitud pendiente antes de mover bloques
+     */
+    private void capturarPendientes() {
+        pendientes.clear();
+        indicesPendientes.clear();
+        origenPorUbicacion.clear();
+        for (SolicitudIO solicitud : sistema.getColaIO().obtenerTodas()) {
+            Archivo archivo = solicitud.getArchivoAfectado();
+            if (archivo != null) {
+                int indice = archivo.obtenerIndiceLogico(solicitud.getCilindroAcceso());
+                if (indice >= 0) {
+                    pendientes.add(solicitud);
+                    indicesPendientes.add(indice);
+                }
+            }
+        }
+    }
+
+    /**
+     * Redirige las solicitudes pendientes a la nueva ubicación de sus bloques
+     */
+    private void redirigirPendientes() {
+        for (int i = 0; i < pendientes.size(); i++) {
+            SolicitudIO solicitud = pendientes.get(i);
+            int nuevoCilindro = solicitud.getArchivoAfectado().obtenerBloque(indicesPendientes.get(i));
+            if (nuevoCilindro >= 0 && nuevoCilindro != solicitud.getCilindroAcceso()) {
+                sistema.getColaIO().reubicarSolicitud(solicitud, nuevoCilindro);
+            }
+        }
+        pendientes.clear();
+        indicesPendientes.clear();
+
+        // Las escrituras del buffer no tienen archivo: se siguen por su bloque inicial
+        if (!origenPorUbicacion.isEmpty()) {
+            Map<Integer, Integer> ubicacionPorOrigen = new HashMap<>();
+            for (Map.Entry<Integer, Integer> movimiento : origenPorUbicacion.entrySet()) {
+                ubicacionPorOrigen.put(movimiento.getValue(), movimiento.getKey());
+            }
+            for (SolicitudIO solicitud : sistema.getColaIO().obtenerTodas()) {
+                if (solicitud.getArchivoAfectado() == null
+                        && solicitud.getTipo() == SolicitudIO.TipoOperacion.ESCRIBIR) {
+                    Integer nuevoCilindro = ubicacionPorOrigen.get(solicitud.getCilindroAcceso());
+                    if (nuevoCilindro != null) {
+                        sistema.getColaIO().reubicarSolicitud(solicitud, nuevoCilindro);
+                    }
+                }
+            }
+            origenPorUbicacion.clear();
+        }
+    }
+
+    /**
+     * Un bloque cambió de lugar: su copia en el buffer (sucia o no) lo acompaña
+     */
+    private void registrarMovimiento(int origen, int destino) {
+        Integer inicial = origenPorUbicacion.remove(origen);
+        origenPorUbicacion.put(destino, inicial != null ? inicial : origen);
+
+        Buffer buffer = sistema.getBuffer();
+        if (buffer != null) {
+            buffer.reubicarBloque(origen, destino);
+        }
+    }
+
+    /**
+     * Distancia de búsqueda total para leer secuencialmente todos los archivos
+     * siguiendo su cadena de bloques
+     */
+    public long calcularRecorridoTotal() {
+        long recorrido = 0;
+        for (Archivo archivo : sistema.getIndiceArchivos().getTodos()) {
+            int ultimo = -1;
+            for (Extension extension : archivo.getExtensiones()) {
+                if (ultimo >= 0) {
+                    recorrido += Math.abs(extension.getInicio() - ultimo);
+                }
+                recorrido += extension.getLongitud() - 1;
+                ultimo = extension.getFin() - 1;
+            }
+        }
+        return recorrido;
+    }
+
+    // Getters
+    public ReporteDesfragmentacion getReporte() {
+        return reporte;
+    }
+
+    public boolean isEnCurso() {
+        return archivoEnCurso != null || compactando;
+    }
+}
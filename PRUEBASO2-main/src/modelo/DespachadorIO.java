@@ -0,0 +1,126 @@
+package modelo;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hilo despachador que atiende continuamente la cola de E/S del sistema a
+ * través del planificador, fuera del hilo de la interfaz. Cada paso toma el
+ * cerrojo del sistema, así la GUI y otros hilos pueden operar entre pasos.
+ * Cuando no hay trabajo se duerme hasta que le avisan o pasa un instante
+ */
+public class DespachadorIO {
+    private static final long ESPERA_INACTIVO_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final SistemaArchivos sistema;
+    private volatile boolean activo;
+    private volatile Thread hilo;
+    private final LongAdder atendidas;
+    private final LongAdder errores;
+    private volatile RuntimeException ultimoError;
+
+    public DespachadorIO(SistemaArchivos sistema) {
+        this.sistema = sistema;
+        this.activo = false;
+        this.hilo = null;
+        this.atendidas = new LongAdder();
+        this.errores = new LongAdder();
+        this.ultimoError = null;
+    }
+
+    /**
+     * Arranca el despachador en un hilo virtual o de plataforma (demonio).
+     * Si ya está en marcha no hace nada
+     */
+    public synchronized void iniciar(boolean hiloVirtual) {
+        if (activo) {
+            return;
+        }
+        activo = true;
+        hilo = hiloVirtual
+            ? Thread.ofVirtual().name("despachador-io").unstarted(this::ejecutar)
+            : Thread.ofPlatform().name("despachador-io").daemon(true).unstarted(this::ejecutar);
+        hilo.start();
+    }
+
+    /**
+     * Detiene el despachador y espera a que termine el paso en curso
+     */
+    public synchronized void detener() {
+        Thread actual = hilo;
+        if (!activo || actual == null) {
+            return;
+        }
+        activo = false;
+        LockSupport.unpark(actual);
+        if (actual != Thread.currentThread()) {
+            try {
+                actual.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        hilo = null;
+    }
+
+    /**
+     * Avisa que llegó trabajo, para no esperar al siguiente sondeo
+     */
+    public void despertar() {
+        Thread actual = hilo;
+        if (actual != null) {
+            LockSupport.unpark(actual);
+        }
+    }
+
+    private void ejecutar() {
+        while (activo) {
+            boolean atendio;
+            try {
+                atendio = sistema.procesarSiguienteSolicitud();
+            } catch (RuntimeException e) {
+                // Un fallo en una solicitud no debe detener el despacho del resto:
+                // el sistema ya falló la solicitud y lo contó entre las
+                // operaciones fallidas; aquí queda el error para consultarlo
+                errores.increment();
+                ultimoError = e;
+                atendio = false;
+            }
+            if (atendio) {
+                atendidas.increment();
+            } else {
+                LockSupport.parkNanos(this, ESPERA_INACTIVO_NANOS);
+            }
+        }
+    }
+
+    // Getters
+    public boolean isActivo() {
+        return activo;
+    }
+
+    public long getTotalAtendidas() {
+        return atendidas.sum();
+    }
+
+    public long getTotalErrores() {
+        return errores.sum();
+    }
+
+    /**
+     * Último error al atender una solicitud, o null si no hubo ninguno
+     */
+    public RuntimeException getUltimoError() {
+        return ultimoError;
+    }
+
+    @Override
+    public String toString() {
+        return "DespachadorIO{" +
+                "activo=" + activo +
+                ", atendidas=" + getTotalAtendidas() +
+                ", errores=" + getTotalErrores() +
+                '}';
+    }
+}
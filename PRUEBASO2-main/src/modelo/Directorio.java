@@ -1,18 +1,56 @@
 package modelo;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
- * Clase que representa un directorio en el sistema de archivos
+ * Clase que representa un directorio en el sistema de archivos. Los hijos se
+ * guardan en orden de inserción (para la GUI) y además indexados por nombre,
+ * así buscar, agregar y quitar un hijo es O(1) aunque haya miles.
+ *
+ * Cada directorio tiene su cerrojo de lectura/escritura: buscar toma el de
+ * lectura y modificar los hijos el de escritura, así operaciones en
+ * directorios distintos no se estorban. Los cerrojos de varios directorios
+ * se toman siempre de arriba hacia abajo (padre antes que hijo)
  */
 public class Directorio {
     private String nombre;
     private Directorio padreDirectorio;
     private String propietario;
     private boolean esPublico;
-    private LinkedList<Directorio> subdirectorios;  // Sin librerías
-    private LinkedList<Archivo> archivos;           // Sin librerías
+    private LinkedHashSet<Directorio> subdirectorios;
+    private LinkedHashSet<Archivo> archivos;
+    private HashMap<String, Directorio> subdirectoriosPorNombre;
+    private HashMap<String, Archivo> archivosPorNombre;
     private long fechaCreacion;
+    private volatile RutaCalculada rutaCalculada;   // Última ruta absoluta calculada, o null
+    private volatile int versionHijos;      // Cambia al agregar, quitar o renombrar subdirectorios
+    private final AtomicLong versionEstructura;  // Solo en la raíz: cambia al quitar o renombrar uno
+    private boolean eliminado;          // Ya se quitó del árbol (se marca con su cerrojo tomado)
+    private final ReentrantReadWriteLock cerrojo;
+    private IndiceArchivos indice;      // Índice global del árbol (heredado de la raíz), o null
+    private ListasVisibilidad<Directorio> visibilidadSubdirectorios;
+    private ListasVisibilidad<Archivo> visibilidadArchivos;
+
+    /**
+     * Ruta absoluta junto con la versión de la estructura del árbol con que se
+     * calculó: sirve mientras esa versión no cambie
+     */
+    private static final class RutaCalculada {
+        final String ruta;
+        final long versionEstructura;
+
+        RutaCalculada(String ruta, long versionEstructura) {
+            this.ruta = ruta;
+            this.versionEstructura = versionEstructura;
+        }
+    }
 
     public Directorio(String nombre, String propietario, Directorio padre) {
         this(nombre, propietario, padre, true);
@@ -23,9 +61,16 @@ public class Directorio {
         this.propietario = propietario;
         this.padreDirectorio = padre;
         this.esPublico = esPublico;
-        this.subdirectorios = new LinkedList<>();
-        this.archivos = new LinkedList<>();
+        this.subdirectorios = new LinkedHashSet<>();
+        this.archivos = new LinkedHashSet<>();
+        this.subdirectoriosPorNombre = new HashMap<>();
+        this.archivosPorNombre = new HashMap<>();
+        this.visibilidadSubdirectorios = new ListasVisibilidad<>();
+        this.visibilidadArchivos = new ListasVisibilidad<>();
         this.fechaCreacion = System.currentTimeMillis();
+        this.versionEstructura = new AtomicLong();
+        this.cerrojo = new ReentrantReadWriteLock();
+        this.indice = padre != null ? padre.indice : null;
     }
 
     // Getters
@@ -45,65 +90,437 @@ public class Directorio {
         return esPublico;
     }
 
-    public LinkedList<Directorio> getSubdirectorios() {
-        return subdirectorios;
+    /**
+     * Copia en orden de creación, tomada con el cerrojo de lectura
+     */
+    public Collection<Directorio> getSubdirectorios() {
+        cerrojo.readLock().lock();
+        try {
+            return new ArrayList<>(subdirectorios);
+        } finally {
+            cerrojo.readLock().unlock();
+        }
     }
 
-    public LinkedList<Archivo> getArchivos() {
-        return archivos;
+    /**
+     * Copia en orden de creación, tomada con el cerrojo de lectura
+     */
+    public Collection<Archivo> getArchivos() {
+        cerrojo.readLock().lock();
+        try {
+            return new ArrayList<>(archivos);
+        } finally {
+            cerrojo.readLock().unlock();
+        }
     }
 
     public long getFechaCreacion() {
         return fechaCreacion;
     }
 
+    /**
+     * Ruta absoluta ("/" para la raíz). Se guarda con la versión de la
+     * estructura, como hace CacheRutas: un renombre cambia la versión después
+     * de cambiar el nombre, así una ruta calculada a la vez que un renombre
+     * queda con una versión vieja y no se vuelve a usar
+     */
+    public String getRuta() {
+        if (padreDirectorio == null) {
+            return "/";
+        }
+        // La versión se lee antes que los nombres
+        long version = raiz().versionEstructura.get();
+        RutaCalculada guardada = rutaCalculada;
+        if (guardada != null && guardada.versionEstructura == version) {
+            return guardada.ruta;
+        }
+        String rutaPadre = padreDirectorio.getRuta();
+        String ruta = "/".equals(rutaPadre) ? "/" + nombre : rutaPadre + "/" + nombre;
+        rutaCalculada = new RutaCalculada(ruta, version);
+        return ruta;
+    }
+
+    int getVersionHijos() {
+        return versionHijos;
+    }
+
+    long getVersionEstructura() {
+        return versionEstructura.get();
+    }
+
+    ReentrantReadWriteLock getCerrojo() {
+        return cerrojo;
+    }
+
+    /**
+     * Indica si el directorio ya no está en el árbol. Se consulta con su
+     * cerrojo tomado
+     */
+    boolean isEliminado() {
+        return eliminado;
+    }
+
+    /**
+     * Ruta absoluta que tendría un archivo con ese nombre en este directorio
+     */
+    String rutaDe(String nombreArchivo) {
+        String ruta = getRuta();
+        return "/".equals(ruta) ? "/" + nombreArchivo : ruta + "/" + nombreArchivo;
+    }
+
+    /**
+     * Asocia el índice global a la raíz; los directorios que se creen debajo lo heredan
+     */
+    void setIndiceArchivos(IndiceArchivos indice) {
+        this.indice = indice;
+    }
+
     // Setters
+    /**
+     * Renombra el directorio; falla si su padre ya tiene un hijo con ese nombre
+     */
     public void setNombre(String nombre) {
-        this.nombre = nombre;
+        if (padreDirectorio == null || nombre.equals(this.nombre)) {
+            this.nombre = nombre;
+            return;
+        }
+        // Las rutas de todo el subárbol cambian: nadie debe estar operando en él
+        padreDirectorio.cerrojo.writeLock().lock();
+        List<Directorio> bloqueados = new ArrayList<>();
+        try {
+            bloquearSubarbol(bloqueados);
+            String rutaAnterior = getRuta();
+            padreDirectorio.reindexarSubdirectorio(this, nombre);
+            this.nombre = nombre;
+            // De nuevo tras cambiar el nombre: invalida las rutas del subárbol
+            // que se hayan calculado mientras tanto
+            cambiarEstructura();
+            if (indice != null) {
+                indice.moverBajo(rutaAnterior, getRuta());
+            }
+        } finally {
+            desbloquear(bloqueados);
+            padreDirectorio.cerrojo.writeLock().unlock();
+        }
     }
 
     public void setEsPublico(boolean esPublico) {
-        this.esPublico = esPublico;
+        if (padreDirectorio == null) {
+            this.esPublico = esPublico;
+            return;
+        }
+        padreDirectorio.cerrojo.writeLock().lock();
+        try {
+            boolean eraPublico = this.esPublico;
+            this.esPublico = esPublico;
+            if (estaEnPadre()) {
+                padreDirectorio.visibilidadSubdirectorios.cambiarVisibilidad(this, propietario, eraPublico, esPublico);
+            }
+        } finally {
+            padreDirectorio.cerrojo.writeLock().unlock();
+        }
+    }
+
+    public void setPropietario(String propietario) {
+        if (padreDirectorio == null) {
+            this.propietario = propietario;
+            return;
+        }
+        padreDirectorio.cerrojo.writeLock().lock();
+        try {
+            String anterior = this.propietario;
+            this.propietario = propietario;
+            if (estaEnPadre()) {
+                padreDirectorio.visibilidadSubdirectorios.cambiarPropietario(this, anterior, propietario, esPublico);
+            }
+        } finally {
+            padreDirectorio.cerrojo.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Subdirectorios que ve el usuario (los públicos y los suyos), copiados
+     * con el cerrojo de lectura
+     */
+    public Collection<Directorio> getSubdirectoriosVisiblesPara(String usuario) {
+        cerrojo.readLock().lock();
+        try {
+            return new ArrayList<>(visibilidadSubdirectorios.visiblesPara(usuario));
+        } finally {
+            cerrojo.readLock().unlock();
+        }
+    }
+
+    /**
+     * Archivos de este directorio que ve el usuario (los públicos y los
+     * suyos), copiados con el cerrojo de lectura
+     */
+    public Collection<Archivo> getArchivosVisiblesPara(String usuario) {
+        cerrojo.readLock().lock();
+        try {
+            return new ArrayList<>(visibilidadArchivos.visiblesPara(usuario));
+        } finally {
+            cerrojo.readLock().unlock();
+        }
     }
 
     // Métodos de gestión de subdirectorios
-    public void agregarSubdirectorio(Directorio directorio) {
-        if (!subdirectorios.contains(directorio)) {
+    /**
+     * Agrega el subdirectorio. Devuelve false si ya hay otro con el mismo nombre
+     */
+    public boolean agregarSubdirectorio(Directorio directorio) {
+        cerrojo.writeLock().lock();
+        try {
+            if (eliminado) {
+                return false;
+            }
+            Directorio existente = subdirectoriosPorNombre.putIfAbsent(directorio.getNombre(), directorio);
+            if (existente != null) {
+                return existente == directorio;
+            }
             subdirectorios.add(directorio);
+            visibilidadSubdirectorios.agregar(directorio, directorio.propietario, directorio.esPublico);
+            versionHijos++;
+            if (indice != null) {
+                directorio.indexarArbol(indice);
+            }
+            return true;
+        } finally {
+            cerrojo.writeLock().unlock();
         }
     }
 
-    public void removerSubdirectorio(Directorio directorio) {
-        subdirectorios.remove(directorio);
+    /**
+     * Quita el subdirectorio con todo su contenido y devuelve los archivos
+     * que quedaron fuera del árbol, para liberar sus bloques. El subárbol
+     * entero se bloquea y se marca como eliminado, así una operación que ya
+     * iba camino a uno de sus directorios no puede agregarle nada después
+     */
+    public List<Archivo> removerSubdirectorio(Directorio directorio) {
+        List<Archivo> removidos = new ArrayList<>();
+        cerrojo.writeLock().lock();
+        List<Directorio> bloqueados = new ArrayList<>();
+        try {
+            if (!subdirectorios.contains(directorio)) {
+                return removidos;
+            }
+            directorio.bloquearSubarbol(bloqueados);
+            for (Directorio bloqueado : bloqueados) {
+                bloqueado.eliminado = true;
+                removidos.addAll(bloqueado.archivos);
+            }
+            subdirectorios.remove(directorio);
+            if (indice != null) {
+                indice.removerBajo(directorio.getRuta());
+            }
+            subdirectoriosPorNombre.remove(directorio.getNombre());
+            visibilidadSubdirectorios.remover(directorio, directorio.propietario, directorio.esPublico);
+            versionHijos++;
+            cambiarEstructura();
+            return removidos;
+        } finally {
+            desbloquear(bloqueados);
+            cerrojo.writeLock().unlock();
+        }
     }
 
     public Directorio buscarSubdirectorio(String nombre) {
-        for (Directorio d : subdirectorios) {
-            if (d.getNombre().equals(nombre)) {
-                return d;
-            }
+        cerrojo.readLock().lock();
+        try {
+            return subdirectoriosPorNombre.get(nombre);
+        } finally {
+            cerrojo.readLock().unlock();
         }
-        return null;
     }
 
     // Métodos de gestión de archivos
-    public void agregarArchivo(Archivo archivo) {
-        if (!archivos.contains(archivo)) {
+
+    /**
+     * Agrega el archivo. Devuelve false si ya hay otro con el mismo nombre
+     */
+    public boolean agregarArchivo(Archivo archivo) {
+        cerrojo.writeLock().lock();
+        try {
+            if (eliminado) {
+                return false;
+            }
+            Archivo existente = archivosPorNombre.putIfAbsent(archivo.getNombre(), archivo);
+            if (existente != null) {
+                return existente == archivo;
+            }
             archivos.add(archivo);
+            visibilidadArchivos.agregar(archivo, archivo.getPropietario(), archivo.isEsPublico());
+            archivo.setDirectorio(this);
+            if (indice != null) {
+                indice.agregar(rutaDe(archivo.getNombre()), archivo);
+            }
+            return true;
+        } finally {
+            cerrojo.writeLock().unlock();
         }
     }
 
-    public void removerArchivo(Archivo archivo) {
-        archivos.remove(archivo);
+    /**
+     * Quita el archivo. Devuelve false si ya no estaba (otro hilo lo quitó antes)
+     */
+    public boolean removerArchivo(Archivo archivo) {
+        cerrojo.writeLock().lock();
+        try {
+            if (!archivos.remove(archivo)) {
+                return false;
+            }
+            if (indice != null) {
+                indice.remover(rutaDe(archivo.getNombre()), archivo);
+            }
+            archivosPorNombre.remove(archivo.getNombre());
+            visibilidadArchivos.remover(archivo, archivo.getPropietario(), archivo.isEsPublico());
+            archivo.setDirectorio(null);
+            return true;
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
     }
 
     public Archivo buscarArchivo(String nombre) {
-        for (Archivo a : archivos) {
-            if (a.getNombre().equals(nombre)) {
-                return a;
+        cerrojo.readLock().lock();
+        try {
+            return archivosPorNombre.get(nombre);
+        } finally {
+            cerrojo.readLock().unlock();
+        }
+    }
+
+    /**
+     * Cambia la clave de un archivo que se está renombrando (ver Archivo.setNombre)
+     */
+    void reindexarArchivo(Archivo archivo, String nombreNuevo) {
+        cerrojo.writeLock().lock();
+        try {
+            if (archivosPorNombre.containsKey(nombreNuevo)) {
+                throw new IllegalArgumentException("Ya existe un archivo llamado " + nombreNuevo
+                        + " en " + nombre);
+            }
+            archivosPorNombre.remove(archivo.getNombre());
+            archivosPorNombre.put(nombreNuevo, archivo);
+            if (indice != null) {
+                indice.renombrar(rutaDe(archivo.getNombre()), rutaDe(nombreNuevo), archivo);
+            }
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Hace público o privado un archivo de este directorio y actualiza las
+     * listas de visibilidad y el índice, todo con el cerrojo de escritura.
+     * Devuelve false sin cambiar nada si el archivo ya no está aquí
+     */
+    boolean cambiarVisibilidadArchivo(Archivo archivo, boolean esPublico) {
+        cerrojo.writeLock().lock();
+        try {
+            if (!archivos.contains(archivo)) {
+                return false;
+            }
+            boolean eraPublico = archivo.isEsPublico();
+            if (eraPublico == esPublico) {
+                return true;
+            }
+            archivo.asignarEsPublico(esPublico);
+            visibilidadArchivos.cambiarVisibilidad(archivo, archivo.getPropietario(), eraPublico, esPublico);
+            if (indice != null) {
+                indice.cambiarVisibilidad(rutaDe(archivo.getNombre()), archivo);
+            }
+            return true;
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Cambia el dueño de un archivo de este directorio y actualiza las listas
+     * de visibilidad y el índice, todo con el cerrojo de escritura. Devuelve
+     * false sin cambiar nada si el archivo ya no está aquí
+     */
+    boolean cambiarPropietarioArchivo(Archivo archivo, String propietario) {
+        cerrojo.writeLock().lock();
+        try {
+            if (!archivos.contains(archivo)) {
+                return false;
+            }
+            String anterior = archivo.getPropietario();
+            if (anterior.equals(propietario)) {
+                return true;
+            }
+            archivo.asignarPropietario(propietario);
+            visibilidadArchivos.cambiarPropietario(archivo, anterior, propietario, archivo.isEsPublico());
+            if (indice != null) {
+                indice.cambiarPropietario(rutaDe(archivo.getNombre()), archivo, anterior);
             }
+            return true;
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+    }
+
+    private boolean estaEnPadre() {
+        return padreDirectorio != null && padreDirectorio.subdirectorios.contains(this);
+    }
+
+    private void reindexarSubdirectorio(Directorio directorio, String nombreNuevo) {
+        if (subdirectoriosPorNombre.containsKey(nombreNuevo)) {
+            throw new IllegalArgumentException("Ya existe un directorio llamado " + nombreNuevo
+                    + " en " + nombre);
+        }
+        subdirectoriosPorNombre.remove(directorio.getNombre());
+        subdirectoriosPorNombre.put(nombreNuevo, directorio);
+        versionHijos++;
+        cambiarEstructura();
+    }
+
+    /**
+     * Avisa a la raíz que alguna ruta existente dejó de ser válida
+     */
+    private void cambiarEstructura() {
+        raiz().versionEstructura.incrementAndGet();
+    }
+
+    private Directorio raiz() {
+        Directorio actual = this;
+        while (actual.padreDirectorio != null) {
+            actual = actual.padreDirectorio;
+        }
+        return actual;
+    }
+
+    /**
+     * Toma el cerrojo de escritura de este directorio y de todo su subárbol,
+     * de arriba hacia abajo, anotándolos en el orden en que se tomaron
+     */
+    private void bloquearSubarbol(List<Directorio> bloqueados) {
+        cerrojo.writeLock().lock();
+        bloqueados.add(this);
+        for (Directorio sub : subdirectorios) {
+            sub.bloquearSubarbol(bloqueados);
+        }
+    }
+
+    private static void desbloquear(List<Directorio> bloqueados) {
+        for (int i = bloqueados.size() - 1; i >= 0; i--) {
+            bloqueados.get(i).cerrojo.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Un subárbol que se cuelga ya armado entra al índice con sus archivos
+     */
+    private void indexarArbol(IndiceArchivos indice) {
+        this.indice = indice;
+        for (Archivo archivo : archivos) {
+            indice.agregar(rutaDe(archivo.getNombre()), archivo);
+        }
+        for (Directorio sub : subdirectorios) {
+            sub.indexarArbol(indice);
         }
-        return null;
     }
 
     public boolean contieneSoloEstaDirectorio(String nombre) {
@@ -112,13 +529,18 @@ public class Directorio {
 
     public LinkedList<Archivo> obtenerTodosLosArchivos() {
         LinkedList<Archivo> todos = new LinkedList<>();
-        // Agregar archivos de este directorio
-        for (Archivo a : archivos) {
-            todos.add(a);
-        }
-        // Agregar archivos recursivamente de subdirectorios
-        for (Directorio d : subdirectorios) {
-            todos.addAll(d.obtenerTodosLosArchivos());
+        cerrojo.readLock().lock();
+        try {
+            // Agregar archivos de este directorio
+            for (Archivo a : archivos) {
+                todos.add(a);
+            }
+            // Agregar archivos recursivamente de subdirectorios
+            for (Directorio d : subdirectorios) {
+                todos.addAll(d.obtenerTodosLosArchivos());
+            }
+        } finally {
+            cerrojo.readLock().unlock();
         }
         return todos;
     }
@@ -1,21 +1,76 @@
 package modelo;
 
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
 
 /**
- * Clase que simula el disco duro con asignación encadenada de bloques
+ * Clase que simula el disco duro con asignación encadenada de bloques. El
+ * espacio libre se reparte en grupos de bloques, cada uno con su cerrojo, así
+ * se puede asignar y liberar desde cualquier hilo y los hilos que asignan en
+ * grupos distintos avanzan a la vez. Un archivo se ubica dentro de un solo
+ * grupo si alguno alcanza; si no, se reparte entre varios con el disco entero
+ * bloqueado. Las políticas de asignación eligen huecos dentro de cada grupo
+ * (un hueco nuevo no cruza el límite entre grupos), pero las métricas y las
+ * búsquedas de la desfragmentación unen los huecos de grupos vecinos.
+ *
+ * El cerrojo del disco es de lectura y escritura: asignar y liberar en grupos
+ * toman el de lectura y después los de sus grupos; repartir entre grupos,
+ * desfragmentar, buscar huecos y cambiar la política toman el de escritura.
+ * Los bloques de un archivo ya publicado se cambian además con el monitor del
+ * archivo, así quien lo lee fuera del cerrojo del sistema ve sus extensiones
+ * completas
  */
 public class Disco {
+    public enum ModoAsignacion {
+        ENCADENADA,   // Bloque a bloque, tomando los primeros libres
+        EXTENSIONES   // Tramos contiguos (inicio, longitud)
+    }
+
+    public enum PoliticaAsignacion {
+        PRIMER_AJUSTE, SIGUIENTE_AJUSTE, MEJOR_AJUSTE, BUDDY
+    }
+
+    /** Bloques por grupo; un disco de este tamaño o menor es un solo grupo */
+    public static final int BLOQUES_POR_GRUPO = 8192;
+
     private Bloque[] bloques;
     private int totalBloques;
-    private int bloquesOcupados;
-    private int bloquesLibres;
+    private final GrupoBloques[] grupos;
+    private final ReentrantReadWriteLock cerrojo;   // Lectura: asignar o liberar en grupos; escritura: todo el disco
+    private volatile ModoAsignacion modoAsignacion;
+    private volatile PoliticaAsignacion politicaAsignacion;
+    private volatile int ultimoGrupo;               // Donde asignó por última vez (siguiente ajuste)
+    private final CandidatosDesfragmentacion candidatos;
+
+    // Espacio libre y métricas de fragmentación (se leen sin cerrojo)
+    private final AtomicInteger bloquesLibres;
+    private final AtomicInteger archivosAsignados;
+    private final AtomicLong extensionesAsignadas;
 
     public Disco(int totalBloques) {
         this.totalBloques = totalBloques;
         this.bloques = new Bloque[totalBloques];
-        this.bloquesOcupados = 0;
-        this.bloquesLibres = totalBloques;
+        this.cerrojo = new ReentrantReadWriteLock();
+        this.modoAsignacion = ModoAsignacion.ENCADENADA;
+        this.politicaAsignacion = PoliticaAsignacion.PRIMER_AJUSTE;
+        this.candidatos = new CandidatosDesfragmentacion();
+        this.bloquesLibres = new AtomicInteger(totalBloques);
+        this.archivosAsignados = new AtomicInteger();
+        this.extensionesAsignadas = new AtomicLong();
+
+        int cantidadGrupos = Math.max(1, (totalBloques + BLOQUES_POR_GRUPO - 1) / BLOQUES_POR_GRUPO);
+        this.grupos = new GrupoBloques[cantidadGrupos];
+        for (int g = 0; g < cantidadGrupos; g++) {
+            int inicio = g * BLOQUES_POR_GRUPO;
+            grupos[g] = new GrupoBloques(inicio, Math.min(BLOQUES_POR_GRUPO, totalBloques - inicio),
+                crearEstrategia(politicaAsignacion));
+        }
 
         // Inicializar todos los bloques
         for (int i = 0; i < totalBloques; i++) {
@@ -23,6 +78,18 @@ public class Disco {
         }
     }
 
+    /**
+     * Toma el disco entero: nadie asigna ni libera hasta desbloquearlo (p. ej.
+     * durante un paso de desfragmentación)
+     */
+    public void bloquearTodo() {
+        cerrojo.writeLock().lock();
+    }
+
+    public void desbloquearTodo() {
+        cerrojo.writeLock().unlock();
+    }
+
     /**
      * Asigna bloques continuos o en forma encadenada para un archivo
      */
@@ -30,90 +97,645 @@ public class Disco {
         int cantidadBloques = archivo.getTamañoBloques();
 
         // Verificar si hay suficientes bloques libres
-        if (bloquesLibres < cantidadBloques) {
+        if (bloquesLibres.get() < cantidadBloques) {
             return false;
         }
 
-        int contadorAsignados = 0;
-        int ultimoBloqueAsignado = -1;
-
-        // Buscar bloques libres y asignarlos
-        for (int i = 0; i < totalBloques && contadorAsignados < cantidadBloques; i++) {
-            if (!bloques[i].isOcupado()) {
-                bloques[i].setOcupado(true);
-                bloques[i].setPropietario(archivo.getNombre());
-                bloques[i].setColorAsignado(archivo.getColorAsignado());
+        cerrojo.readLock().lock();
+        try {
+            if (asignarEnUnGrupo(archivo, cantidadBloques)) {
+                registrarArchivo(archivo);
+                return true;
+            }
+        } finally {
+            cerrojo.readLock().unlock();
+        }
 
-                archivo.agregarBloque(i);
+        // Ningún grupo alcanza solo: repartir con el disco entero bloqueado
+        cerrojo.writeLock().lock();
+        try {
+            if (bloquesLibres.get() < cantidadBloques) {
+                return false;
+            }
+            boolean asignado = asignarEnUnGrupo(archivo, cantidadBloques)
+                || asignarRepartido(archivo, cantidadBloques);
+            if (asignado) {
+                registrarArchivo(archivo);
+            }
+            return asignado;
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+    }
 
-                // Encadenar los bloques
-                if (ultimoBloqueAsignado != -1) {
-                    bloques[ultimoBloqueAsignado].setBloqueProximo(i);
+    /**
+     * Asigna el archivo entero dentro de un grupo. En extensiones prefiere un
+     * grupo donde quepa contiguo. La primera vuelta salta los grupos que otro
+     * hilo tiene tomados; las siguientes esperan su cerrojo
+     */
+    private boolean asignarEnUnGrupo(Archivo archivo, int cantidadBloques) {
+        boolean extensiones = modoAsignacion == ModoAsignacion.EXTENSIONES;
+        int primero = politicaAsignacion == PoliticaAsignacion.SIGUIENTE_AJUSTE ? ultimoGrupo : 0;
+        int vueltas = extensiones ? 3 : 2;
+        for (int vuelta = 0; vuelta < vueltas; vuelta++) {
+            boolean contiguo = extensiones && vuelta < 2;
+            for (int k = 0; k < grupos.length; k++) {
+                int indice = (primero + k) % grupos.length;
+                GrupoBloques grupo = grupos[indice];
+                if ((contiguo ? grupo.getMayorHueco() : grupo.getLibres()) < cantidadBloques) {
+                    continue;
+                }
+                if (vuelta == 0) {
+                    if (!grupo.getCerrojo().tryLock()) {
+                        continue;
+                    }
                 } else {
-                    // Primer bloque
-                    archivo.setPrimerBloque(i);
+                    grupo.getCerrojo().lock();
+                }
+                try {
+                    if (asignarEnGrupo(grupo, archivo, cantidadBloques)) {
+                        ultimoGrupo = indice;
+                        return true;
+                    }
+                } finally {
+                    grupo.getCerrojo().unlock();
                 }
+            }
+        }
+        return false;
+    }
 
-                ultimoBloqueAsignado = i;
-                contadorAsignados++;
+    /**
+     * Asigna el archivo con los bloques libres de un grupo, que el llamador
+     * tiene tomado
+     */
+    private boolean asignarEnGrupo(GrupoBloques grupo, Archivo archivo, int cantidadBloques) {
+        if (grupo.getLibres() < cantidadBloques) {
+            return false;
+        }
+
+        if (modoAsignacion == ModoAsignacion.EXTENSIONES) {
+            LinkedList<Extension> tramos = grupo.seleccionar(cantidadBloques);
+            if (tramos == null) {
+                return false;
             }
+            for (Extension tramo : tramos) {
+                ocuparTramo(tramo.getInicio(), tramo.getLongitud(), archivo);
+            }
+            return true;
         }
 
-        if (contadorAsignados == cantidadBloques) {
-            bloquesOcupados += cantidadBloques;
-            bloquesLibres -= cantidadBloques;
+        int ultimoBloqueAsignado = -1;
+
+        // Buscar bloques libres en el mapa de bits del grupo y asignarlos
+        int i = grupo.siguienteLibre(grupo.getInicio());
+        for (int asignados = 0; asignados < cantidadBloques; asignados++) {
+            ocuparBloque(i, archivo, ultimoBloqueAsignado);
+            ultimoBloqueAsignado = i;
+            i = grupo.siguienteLibre(i + 1);
+        }
+        return true;
+    }
+
+    /**
+     * Reparte el archivo entre varios grupos, en orden. Se llama con el disco
+     * entero bloqueado y con bloques libres suficientes; si la estrategia de
+     * algún grupo no puede, devuelve lo ocupado
+     */
+    private boolean asignarRepartido(Archivo archivo, int cantidadBloques) {
+        if (modoAsignacion == ModoAsignacion.ENCADENADA) {
+            int ultimoBloqueAsignado = -1;
+            int i = siguienteLibre(0);
+            for (int asignados = 0; asignados < cantidadBloques; asignados++) {
+                ocuparBloque(i, archivo, ultimoBloqueAsignado);
+                ultimoBloqueAsignado = i;
+                i = siguienteLibre(i + 1);
+            }
             return true;
         }
 
+        int restantes = cantidadBloques;
+        for (GrupoBloques grupo : grupos) {
+            int cantidad = Math.min(restantes, grupo.getLibres());
+            LinkedList<Extension> tramos = cantidad > 0 ? grupo.seleccionar(cantidad) : null;
+            if (tramos == null) {
+                continue;
+            }
+            for (Extension tramo : tramos) {
+                ocuparTramo(tramo.getInicio(), tramo.getLongitud(), archivo);
+            }
+            restantes -= cantidad;
+            if (restantes == 0) {
+                return true;
+            }
+        }
+
+        for (Extension extension : archivo.getExtensiones()) {
+            liberarTramo(extension.getInicio(), extension.getFin());
+        }
+        archivo.limpiarBloques();
         return false;
     }
 
     /**
-     * Libera los bloques asignados a un archivo
+     * Ocupa un tramo contiguo que eligió la estrategia de su grupo y lo
+     * encadena tras el último bloque del archivo
+     */
+    private void ocuparTramo(int inicio, int longitud, Archivo archivo) {
+        int cantidadPrevia = archivo.getCantidadBloquesAsignados();
+        int bloqueAnterior = cantidadPrevia > 0 ? archivo.obtenerBloque(cantidadPrevia - 1) : -1;
+
+        grupoDe(inicio).ocuparSeleccionado(inicio, longitud);
+        bloquesLibres.addAndGet(-longitud);
+        for (int i = inicio; i < inicio + longitud; i++) {
+            bloques[i].setOcupado(true);
+            bloques[i].setPropietario(archivo.getNombre());
+            bloques[i].setColorAsignado(archivo.getColorAsignado());
+            if (i > inicio) {
+                bloques[i - 1].setBloqueProximo(i);
+            }
+        }
+
+        if (bloqueAnterior != -1) {
+            bloques[bloqueAnterior].setBloqueProximo(inicio);
+        }
+        archivo.agregarExtension(inicio, longitud);
+    }
+
+    /**
+     * Ocupa exactamente los bloques indicados, en orden, para un archivo
+     * (usado al reconstruir un estado guardado)
+     */
+    public boolean ocuparBloques(Archivo archivo, LinkedList<Integer> numerosBloque) {
+        cerrojo.writeLock().lock();
+        try {
+            int ultimoBloqueAsignado = -1;
+            for (Integer numBloque : numerosBloque) {
+                if (numBloque < 0 || numBloque >= totalBloques || grupoDe(numBloque).estaOcupado(numBloque)) {
+                    return false;
+                }
+                ocuparBloque(numBloque, archivo, ultimoBloqueAsignado);
+                ultimoBloqueAsignado = numBloque;
+            }
+            registrarArchivo(archivo);
+            return true;
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Marca un bloque como ocupado por el archivo y lo encadena tras el anterior
+     */
+    private void ocuparBloque(int numero, Archivo archivo, int bloqueAnterior) {
+        ocuparRango(numero, 1);
+        bloques[numero].setOcupado(true);
+        bloques[numero].setPropietario(archivo.getNombre());
+        bloques[numero].setColorAsignado(archivo.getColorAsignado());
+
+        archivo.agregarBloque(numero);
+
+        // Encadenar los bloques
+        if (bloqueAnterior != -1) {
+            bloques[bloqueAnterior].setBloqueProximo(numero);
+        } else {
+            // Primer bloque
+            archivo.setPrimerBloque(numero);
+        }
+    }
+
+    /**
+     * Libera los bloques asignados a un archivo. Toma solo los grupos donde
+     * está el archivo, en orden
      */
     public void liberarBloques(Archivo archivo) {
-        LinkedList<Integer> bloquesDelArchivo = archivo.getBloques();
+        cerrojo.readLock().lock();
+        try {
+            candidatos.quitar(archivo);
+            synchronized (archivo) {
+                if (archivo.getCantidadBloquesAsignados() > 0) {
+                    archivosAsignados.decrementAndGet();
+                    extensionesAsignadas.addAndGet(-archivo.getCantidadExtensiones());
+                }
 
-        for (Integer numBloque : bloquesDelArchivo) {
-            if (numBloque >= 0 && numBloque < totalBloques) {
-                bloques[numBloque].liberar();
+                BitSet involucrados = new BitSet(grupos.length);
+                for (Extension extension : archivo.getExtensiones()) {
+                    if (extension.getLongitud() > 0) {
+                        involucrados.set(indiceGrupo(extension.getInicio()), indiceGrupo(extension.getFin() - 1) + 1);
+                    }
+                }
+                for (int g = involucrados.nextSetBit(0); g >= 0; g = involucrados.nextSetBit(g + 1)) {
+                    grupos[g].getCerrojo().lock();
+                }
+                try {
+                    for (Extension extension : archivo.getExtensiones()) {
+                        liberarTramo(extension.getInicio(), extension.getFin());
+                    }
+                } finally {
+                    for (int g = involucrados.nextSetBit(0); g >= 0; g = involucrados.nextSetBit(g + 1)) {
+                        grupos[g].getCerrojo().unlock();
+                    }
+                }
+
+                // Limpiar las extensiones del archivo
+                archivo.limpiarBloques();
             }
+        } finally {
+            cerrojo.readLock().unlock();
+        }
+    }
+
+    /**
+     * Libera los bloques [inicio, fin) en el disco y en los grupos que abarca
+     */
+    private void liberarTramo(int inicio, int fin) {
+        inicio = Math.max(0, inicio);
+        fin = Math.min(totalBloques, fin);
+        if (inicio >= fin) {
+            return;
         }
+        for (int i = inicio; i < fin; i++) {
+            bloques[i].liberar();
+        }
+        for (int desde = inicio; desde < fin; ) {
+            GrupoBloques grupo = grupoDe(desde);
+            int hasta = Math.min(fin, grupo.getFin());
+            grupo.liberar(desde, hasta - desde);
+            desde = hasta;
+        }
+        bloquesLibres.addAndGet(fin - inicio);
+    }
 
-        int cantidadLiberada = bloquesDelArchivo.size();
-        bloquesOcupados -= cantidadLiberada;
-        bloquesLibres += cantidadLiberada;
+    /**
+     * Ocupa el rango en los grupos que abarca, sin pasar por sus estrategias
+     */
+    private void ocuparRango(int inicio, int longitud) {
+        int fin = inicio + longitud;
+        for (int desde = inicio; desde < fin; ) {
+            GrupoBloques grupo = grupoDe(desde);
+            int hasta = Math.min(fin, grupo.getFin());
+            grupo.ocupar(desde, hasta - desde);
+            desde = hasta;
+        }
+        bloquesLibres.addAndGet(-longitud);
+    }
 
-        // Limpiar la lista de bloques del archivo
-        bloquesDelArchivo.clear();
-        archivo.setPrimerBloque(-1);
+    private int indiceGrupo(int numero) {
+        return Math.min(numero / BLOQUES_POR_GRUPO, grupos.length - 1);
     }
 
+    private GrupoBloques grupoDe(int numero) {
+        return grupos[indiceGrupo(numero)];
+    }
+
+    // Reubicación de archivos (desfragmentación)
+
     /**
-     * Obtiene el primer bloque libre
+     * Reserva un tramo libre como destino de una reubicación. El archivo
+     * conserva sus bloques actuales hasta que se confirme el cambio
      */
-    public int obtenerPrimerBloqueLibre() {
-        for (int i = 0; i < totalBloques; i++) {
-            if (!bloques[i].isOcupado()) {
-                return i;
+    public boolean reservarTramo(int inicio, int longitud) {
+        cerrojo.writeLock().lock();
+        try {
+            if (longitud <= 0 || libresConsecutivos(inicio) < longitud) {
+                return false;
             }
+            ocuparRango(inicio, longitud);
+            return true;
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Copia un bloque de un archivo a su posición dentro de un tramo reservado
+     */
+    public void copiarBloque(int origen, int destino) {
+        cerrojo.writeLock().lock();
+        try {
+            bloques[destino].setOcupado(true);
+            bloques[destino].setPropietario(bloques[origen].getPropietario());
+            bloques[destino].setColorAsignado(bloques[origen].getColorAsignado());
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Descarta una reserva que no llegó a confirmarse
+     */
+    public void liberarReserva(int inicio, int longitud) {
+        cerrojo.writeLock().lock();
+        try {
+            liberarTramo(inicio, inicio + longitud);
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Confirma la reubicación del archivo al tramo reservado: encadena el
+     * tramo, actualiza primer bloque y extensiones y libera los bloques
+     * anteriores en un solo paso
+     */
+    public void confirmarReubicacion(Archivo archivo, int inicio) {
+        cerrojo.writeLock().lock();
+        try {
+            int cantidad = archivo.getCantidadBloquesAsignados();
+            int extensionesPrevias = archivo.getCantidadExtensiones();
+
+            for (Extension extension : archivo.getExtensiones()) {
+                liberarTramo(extension.getInicio(), extension.getFin());
+            }
+
+            for (int i = inicio; i < inicio + cantidad; i++) {
+                bloques[i].setOcupado(true);
+                bloques[i].setPropietario(archivo.getNombre());
+                bloques[i].setColorAsignado(archivo.getColorAsignado());
+                bloques[i].setBloqueProximo(i + 1 < inicio + cantidad ? i + 1 : -1);
+            }
+
+            synchronized (archivo) {
+                archivo.limpiarBloques();
+                archivo.agregarExtension(inicio, cantidad);
+            }
+            extensionesAsignadas.addAndGet(1 - extensionesPrevias);
+            candidatos.agregar(archivo);
+        } finally {
+            cerrojo.writeLock().unlock();
         }
-        return -1;
+    }
+
+    /**
+     * Mueve un único bloque de un archivo a una posición libre, reencadenando
+     * su anterior y su siguiente
+     */
+    public boolean moverBloque(Archivo archivo, int origen, int destino) {
+        cerrojo.writeLock().lock();
+        try {
+            int indice = archivo.obtenerIndiceLogico(origen);
+            if (indice < 0 || destino < 0 || destino >= totalBloques || grupoDe(destino).estaOcupado(destino)) {
+                return false;
+            }
+            int anterior = archivo.obtenerBloque(indice - 1);
+            int siguiente = archivo.obtenerBloque(indice + 1);
+            int extensionesPrevias = archivo.getCantidadExtensiones();
+
+            ocuparRango(destino, 1);
+            copiarBloque(origen, destino);
+            bloques[destino].setBloqueProximo(siguiente);
+            if (anterior >= 0) {
+                bloques[anterior].setBloqueProximo(destino);
+            }
+
+            synchronized (archivo) {
+                archivo.reemplazarBloque(origen, destino);
+            }
+            extensionesAsignadas.addAndGet(archivo.getCantidadExtensiones() - extensionesPrevias);
+            candidatos.agregar(archivo);
+            liberarTramo(origen, origen + 1);
+            return true;
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Primer bloque libre a partir de la posición indicada, o -1
+     */
+    public int obtenerSiguienteBloqueLibre(int desde) {
+        cerrojo.writeLock().lock();
+        try {
+            return siguienteLibre(desde);
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Hueco más pequeño donde cabe la longitud pedida, o -1. Considera también
+     * los huecos que cruzan el límite entre grupos
+     */
+    public int buscarMejorHueco(int longitud) {
+        cerrojo.writeLock().lock();
+        try {
+            int mejor = -1;
+            int longitudMejor = Integer.MAX_VALUE;
+            for (GrupoBloques grupo : grupos) {
+                int inicio = grupo.mejorHueco(longitud);
+                if (inicio >= 0 && grupo.getLongitudHueco(inicio) < longitudMejor) {
+                    mejor = inicio;
+                    longitudMejor = grupo.getLongitudHueco(inicio);
+                }
+            }
+            for (Extension hueco : huecosEntreGrupos()) {
+                if (hueco.getLongitud() >= longitud && (hueco.getLongitud() < longitudMejor
+                        || (hueco.getLongitud() == longitudMejor && hueco.getInicio() < mejor))) {
+                    mejor = hueco.getInicio();
+                    longitudMejor = hueco.getLongitud();
+                }
+            }
+            return mejor;
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Primer hueco por posición donde cabe la longitud pedida, o -1
+     */
+    public int buscarPrimerHueco(int longitud) {
+        cerrojo.writeLock().lock();
+        try {
+            return primerHueco(longitud);
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+    }
+
+    private int primerHueco(int longitud) {
+        int primero = -1;
+        for (GrupoBloques grupo : grupos) {
+            primero = grupo.primerHueco(longitud);
+            if (primero >= 0) {
+                break;
+            }
+        }
+        for (Extension hueco : huecosEntreGrupos()) {
+            if (hueco.getLongitud() >= longitud) {
+                if (primero < 0 || hueco.getInicio() < primero) {
+                    primero = hueco.getInicio();
+                }
+                break;
+            }
+        }
+        return primero;
+    }
+
+    /**
+     * Archivo fragmentado con más extensiones que cabe entero en algún hueco,
+     * o null
+     */
+    public Archivo buscarFragmentadoReubicable() {
+        cerrojo.writeLock().lock();
+        try {
+            return candidatos.fragmentadoQueCabe(getMayorHuecoLibre());
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Archivo contiguo de menor primer bloque que cabe en un hueco anterior a
+     * él, o null
+     */
+    public Archivo buscarContiguoAdelantable() {
+        cerrojo.writeLock().lock();
+        try {
+            return candidatos.contiguoAdelantable(this::primerHueco);
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Huecos que cruzan el límite entre grupos, unidos, en orden de posición.
+     * Se arman con los huecos de los extremos de cada grupo, sin recorrer sus
+     * bloques
+     */
+    private List<Extension> huecosEntreGrupos() {
+        List<Extension> unidos = new ArrayList<>();
+        int inicioHueco = -1;       // Hueco que llega al final del grupo anterior
+        boolean cruza = false;      // Ya pasó al menos un límite
+        for (GrupoBloques grupo : grupos) {
+            int alInicio = grupo.getHuecoAlInicio();
+            if (inicioHueco >= 0 && alInicio > 0) {
+                cruza = true;
+                if (alInicio == grupo.getLongitud()) {
+                    continue;       // Grupo entero libre: el hueco sigue en el próximo
+                }
+                unidos.add(new Extension(inicioHueco, grupo.getInicio() + alInicio - inicioHueco));
+            } else if (inicioHueco >= 0 && cruza) {
+                unidos.add(new Extension(inicioHueco, grupo.getInicio() - inicioHueco));
+            }
+            int alFinal = grupo.getHuecoAlFinal();
+            inicioHueco = alFinal > 0 ? grupo.getFin() - alFinal : -1;
+            cruza = false;
+        }
+        if (inicioHueco >= 0 && cruza) {
+            unidos.add(new Extension(inicioHueco, totalBloques - inicioHueco));
+        }
+        return unidos;
+    }
+
+    /**
+     * Contabiliza un archivo recién asignado en las métricas de fragmentación
+     * y en los candidatos a desfragmentar
+     */
+    private void registrarArchivo(Archivo archivo) {
+        if (archivo.getCantidadBloquesAsignados() > 0) {
+            archivosAsignados.incrementAndGet();
+            extensionesAsignadas.addAndGet(archivo.getCantidadExtensiones());
+        }
+        candidatos.agregar(archivo);
+    }
+
+    private static EstrategiaAsignacion crearEstrategia(PoliticaAsignacion politica) {
+        switch (politica) {
+            case SIGUIENTE_AJUSTE:
+                return new AsignacionSiguienteAjuste();
+            case MEJOR_AJUSTE:
+                return new AsignacionMejorAjuste();
+            case BUDDY:
+                return new AsignacionBuddy();
+            case PRIMER_AJUSTE:
+            default:
+                return new AsignacionPrimerAjuste();
+        }
+    }
+
+    /**
+     * Obtiene el primer bloque libre
+     */
+    public int obtenerPrimerBloqueLibre() {
+        return obtenerSiguienteBloqueLibre(0);
     }
 
     /**
      * Obtiene la cantidad de bloques libres consecutivos a partir de una posición
      */
     public int obtenerBloquesLibresConsecutivos(int inicio) {
-        int contador = 0;
-        for (int i = inicio; i < totalBloques; i++) {
-            if (!bloques[i].isOcupado()) {
-                contador++;
-            } else {
+        cerrojo.writeLock().lock();
+        try {
+            return libresConsecutivos(inicio);
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+    }
+
+    private int siguienteLibre(int desde) {
+        for (int g = indiceGrupo(Math.max(0, desde)); g < grupos.length; g++) {
+            int libre = grupos[g].siguienteLibre(desde);
+            if (libre >= 0) {
+                return libre;
+            }
+        }
+        return -1;
+    }
+
+    private int libresConsecutivos(int inicio) {
+        if (inicio < 0 || inicio >= totalBloques || grupoDe(inicio).estaOcupado(inicio)) {
+            return 0;
+        }
+        int fin = inicio;
+        for (int g = indiceGrupo(inicio); g < grupos.length; g++) {
+            fin = grupos[g].siguienteOcupado(fin);
+            if (fin < grupos[g].getFin()) {
                 break;
             }
         }
-        return contador;
+        return fin - inicio;
+    }
+
+    // Métricas de fragmentación (combinan el resumen de cada grupo, sin cerrojo)
+
+    /**
+     * Promedio de extensiones por archivo asignado (1.0 = sin fragmentación)
+     */
+    public double getPromedioExtensionesPorArchivo() {
+        int archivos = archivosAsignados.get();
+        return archivos == 0 ? 0 : (double) extensionesAsignadas.get() / archivos;
+    }
+
+    public int getMayorHuecoLibre() {
+        int mayor = 0;
+        for (GrupoBloques grupo : grupos) {
+            mayor = Math.max(mayor, grupo.getMayorHueco());
+        }
+        for (Extension hueco : huecosEntreGrupos()) {
+            mayor = Math.max(mayor, hueco.getLongitud());
+        }
+        return mayor;
+    }
+
+    public int getCantidadHuecosLibres() {
+        int cantidad = 0;
+        for (int g = 0; g < grupos.length; g++) {
+            cantidad += grupos[g].getCantidadHuecos();
+            // Un hueco partido por el límite se contó en los dos grupos
+            if (g > 0 && grupos[g - 1].getHuecoAlFinal() > 0 && grupos[g].getHuecoAlInicio() > 0) {
+                cantidad--;
+            }
+        }
+        return cantidad;
+    }
+
+    /**
+     * Fragmentación externa: fracción del espacio libre fuera del mayor hueco
+     */
+    public double getFragmentacionExterna() {
+        int libres = bloquesLibres.get();
+        return libres == 0 ? 0 : 1.0 - (double) getMayorHuecoLibre() / libres;
     }
 
     // Getters
@@ -125,14 +747,75 @@ public class Disco {
         return totalBloques;
     }
 
+    public int getCantidadGrupos() {
+        return grupos.length;
+    }
+
+    public ModoAsignacion getModoAsignacion() {
+        return modoAsignacion;
+    }
+
+    public void setModoAsignacion(ModoAsignacion modoAsignacion) {
+        cerrojo.writeLock().lock();
+        try {
+            this.modoAsignacion = modoAsignacion;
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+    }
+
+    public PoliticaAsignacion getPoliticaAsignacion() {
+        return politicaAsignacion;
+    }
+
+    /**
+     * Cambia la política que elige los tramos en el modo por extensiones
+     */
+    public void setPoliticaAsignacion(PoliticaAsignacion politica) {
+        cerrojo.writeLock().lock();
+        try {
+            this.politicaAsignacion = politica;
+            for (GrupoBloques grupo : grupos) {
+                grupo.setEstrategia(crearEstrategia(politica));
+            }
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Instala una estrategia de asignación propia; la fábrica da una
+     * instancia para cada grupo
+     */
+    public void setEstrategiaAsignacion(Supplier<? extends EstrategiaAsignacion> fabrica) {
+        cerrojo.writeLock().lock();
+        try {
+            for (GrupoBloques grupo : grupos) {
+                grupo.setEstrategia(fabrica.get());
+            }
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Estrategia del primer grupo (todos usan la misma clase)
+     */
+    public EstrategiaAsignacion getEstrategiaAsignacion() {
+        cerrojo.readLock().lock();
+        try {
+            return grupos[0].getEstrategia();
+        } finally {
+            cerrojo.readLock().unlock();
+        }
+    }
+
     public int getBloquesOcupados() {
-        recalcularEstado();
-        return bloquesOcupados;
+        return totalBloques - bloquesLibres.get();
     }
 
     public int getBloquesLibres() {
-        recalcularEstado();
-        return bloquesLibres;
+        return bloquesLibres.get();
     }
 
     public Bloque getBloque(int numero) {
@@ -146,35 +829,33 @@ public class Disco {
      * Verifica si un bloque específico está ocupado
      */
     public boolean estaBloqueOcupado(int numero) {
-        return bloques[numero].isOcupado();
+        cerrojo.readLock().lock();
+        try {
+            GrupoBloques grupo = grupoDe(numero);
+            grupo.getCerrojo().lock();
+            try {
+                return grupo.estaOcupado(numero);
+            } finally {
+                grupo.getCerrojo().unlock();
+            }
+        } finally {
+            cerrojo.readLock().unlock();
+        }
     }
 
     /**
      * Calcula el porcentaje de ocupación del disco
      */
     public double getPercentajeOcupacion() {
-        recalcularEstado();
-        return (double) bloquesOcupados / totalBloques * 100;
-    }
-
-    private void recalcularEstado() {
-        int ocupados = 0;
-        for (Bloque bloque : bloques) {
-            if (bloque.isOcupado()) {
-                ocupados++;
-            }
-        }
-
-        bloquesOcupados = ocupados;
-        bloquesLibres = totalBloques - ocupados;
+        return (double) getBloquesOcupados() / totalBloques * 100;
     }
 
     @Override
     public String toString() {
         return "Disco{" +
                 "totalBloques=" + totalBloques +
-                ", bloquesOcupados=" + bloquesOcupados +
-                ", bloquesLibres=" + bloquesLibres +
+                ", bloquesOcupados=" + getBloquesOcupados() +
+                ", bloquesLibres=" + getBloquesLibres() +
                 ", porcentajeOcupacion=" + String.format("%.2f%%", getPercentajeOcupacion()) +
                 '}';
     }
@@ -0,0 +1,97 @@
+package modelo;
+
+import java.util.Arrays;
+
+/**
+ * Distancia de pila LRU de cada acceso: cuántos bloques distintos se usaron
+ * desde el uso anterior del mismo bloque, contando al propio (1 = el último
+ * usado). Un acceso con distancia d acierta en un buffer LRU de d bloques o
+ * más.
+ *
+ * Se calcula con un árbol de Fenwick sobre los instantes de acceso, que tiene
+ * un 1 en el último uso de cada bloque: la distancia es la cantidad de unos
+ * posteriores al uso anterior, en O(log n). Cuando se agotan los instantes se
+ * renumeran los últimos usos conservando su orden. Los métodos son
+ * sincronizados para que contador, últimos usos y árbol cambien juntos
+ */
+class DistanciaPila {
+    private int[] ultimoUso;     // Instante del último uso de cada bloque (0 = nunca)
+    private int[] arbol;         // Fenwick de 1 a capacidad
+    private int capacidad;       // Instantes disponibles antes de renumerar
+    private int ahora;
+    private int distintos;       // Bloques usados alguna vez (unos en el árbol)
+
+    DistanciaPila(int capacidadInicial) {
+        this.capacidad = Math.max(16, capacidadInicial);
+        this.ultimoUso = new int[capacidad];
+        this.arbol = new int[capacidad + 1];
+        this.ahora = 0;
+        this.distintos = 0;
+    }
+
+    /**
+     * Anota un uso del bloque y devuelve su distancia de pila, o -1 si es el
+     * primero
+     */
+    synchronized long registrar(int numeroBloque) {
+        if (numeroBloque < 0) {
+            return -1;
+        }
+        if (numeroBloque >= ultimoUso.length) {
+            ultimoUso = Arrays.copyOf(ultimoUso, Math.max(numeroBloque + 1, ultimoUso.length * 2));
+        }
+        if (ahora == capacidad) {
+            renumerar();
+        }
+        ahora++;
+
+        int anterior = ultimoUso[numeroBloque];
+        long distancia = -1;
+        if (anterior > 0) {
+            distancia = distintos - sumaHasta(anterior) + 1;
+            sumar(anterior, -1);
+        } else {
+            distintos++;
+        }
+        sumar(ahora, 1);
+        ultimoUso[numeroBloque] = ahora;
+        return distancia;
+    }
+
+    /**
+     * Reasigna a los últimos usos los instantes 1..distintos en el mismo orden
+     * y deja al menos otros tantos libres
+     */
+    private void renumerar() {
+        int[] bloquePorInstante = new int[capacidad + 1];
+        for (int bloque = 0; bloque < ultimoUso.length; bloque++) {
+            if (ultimoUso[bloque] > 0) {
+                bloquePorInstante[ultimoUso[bloque]] = bloque + 1;
+            }
+        }
+        capacidad = Math.max(capacidad, 2 * distintos);
+        arbol = new int[capacidad + 1];
+        ahora = 0;
+        for (int instante = 1; instante < bloquePorInstante.length; instante++) {
+            if (bloquePorInstante[instante] > 0) {
+                ahora++;
+                ultimoUso[bloquePorInstante[instante] - 1] = ahora;
+                sumar(ahora, 1);
+            }
+        }
+    }
+
+    private int sumaHasta(int instante) {
+        int suma = 0;
+        for (int i = instante; i > 0; i -= i & -i) {
+            suma += arbol[i];
+        }
+        return suma;
+    }
+
+    private void sumar(int instante, int valor) {
+        for (int i = instante; i <= capacidad; i += i & -i) {
+            arbol[i] += valor;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package modelo;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Modo de ejecución en el que cada proceso corre en su propio hilo virtual:
+ * emite su operación de archivo en nombre de un usuario, queda BLOQUEADO
+ * estacionado hasta que el despachador completa su E/S y pasa a TERMINADO.
+ * Como los hilos virtuales son baratos se pueden simular decenas de miles de
+ * procesos concurrentes compitiendo por el disco. Las operaciones son las
+ * concurrentes del sistema, con el usuario y rutas absolutas: no toman el
+ * cerrojo del sistema ni cambian el usuario actual, así los hilos virtuales
+ * no quedan fijados a su portador. Requiere el despachador en marcha
+ * (SistemaArchivos.iniciarDespachador)
+ */
+public class EjecutorProcesos implements AutoCloseable {
+    private final SistemaArchivos sistema;
+    private final ExecutorService hilos;
+    private final LongAdder lanzados;
+    private final LongAdder terminados;
+    private final LongAdder rechazados;
+    private final LongAdder fallidos;
+    private final LongAdder nanosRetorno;
+    private final AtomicLong maximoNanosRetorno;
+
+    public EjecutorProcesos(SistemaArchivos sistema) {
+        this.sistema = sistema;
+        this.hilos = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("proceso-", 0).factory());
+        this.lanzados = new LongAdder();
+        this.terminados = new LongAdder();
+        this.rechazados = new LongAdder();
+        this.fallidos = new LongAdder();
+        this.nanosRetorno = new LongAdder();
+        this.maximoNanosRetorno = new AtomicLong();
+    }
+
+    /**
+     * Lanza un proceso del usuario que lee el archivo de la ruta indicada. El
+     * futuro se completa con el resultado de la operación al terminar su E/S
+     */
+    public CompletableFuture<Boolean> lanzarLectura(String usuario, String rutaArchivo) {
+        return lanzar(() -> sistema.leerArchivoConcurrente(usuario, rutaArchivo, true));
+    }
+
+    /**
+     * Lanza un proceso que renombra el archivo (al mismo nombre, solo
+     * reescribe su primer bloque)
+     */
+    public CompletableFuture<Boolean> lanzarActualizacion(String usuario, String rutaArchivo, String nombreNuevo) {
+        return lanzar(() -> sistema.actualizarArchivoConcurrente(usuario, rutaArchivo, nombreNuevo, true));
+    }
+
+    public CompletableFuture<Boolean> lanzarCreacion(String usuario, String rutaDirectorio, String nombreArchivo,
+                                                     int tamañoBloques, boolean esPublico) {
+        return lanzar(() -> sistema.crearArchivoConcurrente(usuario, rutaDirectorio, nombreArchivo,
+                                                            tamañoBloques, esPublico, true));
+    }
+
+    public CompletableFuture<Boolean> lanzarEliminacion(String usuario, String rutaArchivo) {
+        return lanzar(() -> sistema.eliminarArchivoConcurrente(usuario, rutaArchivo, true));
+    }
+
+    private CompletableFuture<Boolean> lanzar(Supplier<CompletableFuture<Boolean>> operacion) {
+        CompletableFuture<Boolean> resultado = new CompletableFuture<>();
+        lanzados.increment();
+        hilos.execute(() -> ejecutar(operacion, resultado));
+        return resultado;
+    }
+
+    private void ejecutar(Supplier<CompletableFuture<Boolean>> operacion, CompletableFuture<Boolean> resultado) {
+        long inicio = System.nanoTime();
+        try {
+            // join estaciona el hilo virtual y libera su hilo portador mientras espera
+            boolean exito = operacion.get().join();
+            registrarRetorno(System.nanoTime() - inicio);
+            (exito ? terminados : rechazados).increment();
+            resultado.complete(exito);
+        } catch (CompletionException e) {
+            fallidos.increment();
+            resultado.completeExceptionally(e.getCause());
+        } catch (RuntimeException e) {
+            fallidos.increment();
+            resultado.completeExceptionally(e);
+        }
+    }
+
+    private void registrarRetorno(long nanos) {
+        nanosRetorno.add(nanos);
+        maximoNanosRetorno.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * No acepta más procesos y espera a que terminen los lanzados
+     */
+    @Override
+    public void close() {
+        hilos.close();
+    }
+
+    // Getters
+    public long getTotalLanzados() {
+        return lanzados.sum();
+    }
+
+    public long getTotalTerminados() {
+        return terminados.sum();
+    }
+
+    /**
+     * Procesos cuya operación fue rechazada (permisos, espacio, nombre)
+     */
+    public long getTotalRechazados() {
+        return rechazados.sum();
+    }
+
+    public long getTotalFallidos() {
+        return fallidos.sum();
+    }
+
+    /**
+     * Procesos lanzados que todavía no terminan
+     */
+    public long getEnCurso() {
+        return getTotalLanzados() - getTotalTerminados() - getTotalRechazados() - getTotalFallidos();
+    }
+
+    /**
+     * Tiempo de retorno promedio (desde el lanzamiento hasta el fin de la E/S) en ms
+     */
+    public double getRetornoPromedioMs() {
+        long finalizados = getTotalTerminados() + getTotalRechazados();
+        return finalizados > 0 ? nanosRetorno.sum() / 1e6 / finalizados : 0;
+    }
+
+    public double getRetornoMaximoMs() {
+        return maximoNanosRetorno.get() / 1e6;
+    }
+
+    @Override
+    public String toString() {
+        return "EjecutorProcesos{" +
+                "lanzados=" + getTotalLanzados() +
+                ", terminados=" + getTotalTerminados() +
+                ", enCurso=" + getEnCurso() +
+                '}';
+    }
+}
@@ -0,0 +1,207 @@
+package modelo;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contadores de efectividad del buffer: aciertos, fallos y desalojos (en
+ * total y por política de reemplazo), lecturas anticipadas e histograma de
+ * distancias de reutilización. Los contadores son LongAdder para que
+ * registrar un evento no compita por una misma variable.
+ *
+ * La distancia de reutilización de un acceso es su distancia de pila LRU:
+ * cuántos bloques distintos se buscaron desde el uso anterior del mismo
+ * bloque, contándolo a él (ver DistanciaPila). El histograma agrupa en
+ * potencias de dos: el casillero i cuenta las distancias en [2^i, 2^(i+1)).
+ * Un fallo con distancia d habría sido un acierto en un buffer LRU de d
+ * bloques o más. El histograma y los primeros accesos solo se llenan si el
+ * buffer mide distancias (Buffer.setMedirDistancias); si no, registrar una
+ * búsqueda son dos incrementos de LongAdder
+ */
+public class EstadisticasBuffer {
+    public static final int CASILLEROS_HISTOGRAMA = 32;
+
+    private final LongAdder aciertos = new LongAdder();
+    private final LongAdder fallos = new LongAdder();
+    private final LongAdder desalojos = new LongAdder();
+    private final LongAdder[] aciertosPorPolitica = crearContadores(Buffer.PoliticaReemplazo.values().length);
+    private final LongAdder[] fallosPorPolitica = crearContadores(Buffer.PoliticaReemplazo.values().length);
+
+    private final LongAdder anticipadosCargados = new LongAdder();
+    private final LongAdder anticipadosUsados = new LongAdder();
+    private final LongAdder anticipadosDesperdiciados = new LongAdder();
+
+    private final LongAdder primerosAccesos = new LongAdder();
+    private final LongAdder[] histogramaAciertos = crearContadores(CASILLEROS_HISTOGRAMA);
+    private final LongAdder[] histogramaFallos = crearContadores(CASILLEROS_HISTOGRAMA);
+
+    private static LongAdder[] crearContadores(int cantidad) {
+        LongAdder[] contadores = new LongAdder[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            contadores[i] = new LongAdder();
+        }
+        return contadores;
+    }
+
+    /**
+     * Casillero del histograma para una distancia (>= 1)
+     */
+    public static int casillero(long distancia) {
+        return Math.min(CASILLEROS_HISTOGRAMA - 1, 63 - Long.numberOfLeadingZeros(Math.max(1, distancia)));
+    }
+
+    // ====== REGISTRO ======
+
+    void registrarAcierto(Buffer.PoliticaReemplazo politica) {
+        aciertos.increment();
+        aciertosPorPolitica[politica.ordinal()].increment();
+    }
+
+    void registrarFallo(Buffer.PoliticaReemplazo politica) {
+        fallos.increment();
+        fallosPorPolitica[politica.ordinal()].increment();
+    }
+
+    /**
+     * Registra la distancia de una búsqueda medida; -1 si el bloque no se
+     * había usado antes
+     */
+    void registrarDistancia(boolean acierto, long distancia) {
+        if (distancia < 0) {
+            primerosAccesos.increment();
+        } else {
+            (acierto ? histogramaAciertos : histogramaFallos)[casillero(distancia)].increment();
+        }
+    }
+
+    void registrarDesalojo() {
+        desalojos.increment();
+    }
+
+    void registrarAnticipadoCargado() {
+        anticipadosCargados.increment();
+    }
+
+    void registrarAnticipadoUsado() {
+        anticipadosUsados.increment();
+    }
+
+    void registrarAnticipadoDesperdiciado() {
+        anticipadosDesperdiciados.increment();
+    }
+
+    public void reiniciar() {
+        aciertos.reset();
+        fallos.reset();
+        desalojos.reset();
+        anticipadosCargados.reset();
+        anticipadosUsados.reset();
+        anticipadosDesperdiciados.reset();
+        primerosAccesos.reset();
+        for (int i = 0; i < aciertosPorPolitica.length; i++) {
+            aciertosPorPolitica[i].reset();
+            fallosPorPolitica[i].reset();
+        }
+        for (int i = 0; i < CASILLEROS_HISTOGRAMA; i++) {
+            histogramaAciertos[i].reset();
+            histogramaFallos[i].reset();
+        }
+    }
+
+    // ====== CONSULTA ======
+
+    public long getAciertos() {
+        return aciertos.sum();
+    }
+
+    public long getFallos() {
+        return fallos.sum();
+    }
+
+    public long getDesalojos() {
+        return desalojos.sum();
+    }
+
+    public long getAciertos(Buffer.PoliticaReemplazo politica) {
+        return aciertosPorPolitica[politica.ordinal()].sum();
+    }
+
+    public long getFallos(Buffer.PoliticaReemplazo politica) {
+        return fallosPorPolitica[politica.ordinal()].sum();
+    }
+
+    /**
+     * Porcentaje de búsquedas acertadas en total
+     */
+    public double getTasaAciertos() {
+        return porcentaje(getAciertos(), getFallos());
+    }
+
+    /**
+     * Porcentaje de búsquedas acertadas mientras la política estuvo activa
+     */
+    public double getTasaAciertos(Buffer.PoliticaReemplazo politica) {
+        return porcentaje(getAciertos(politica), getFallos(politica));
+    }
+
+    public long getAnticipadosCargados() {
+        return anticipadosCargados.sum();
+    }
+
+    public long getAnticipadosUsados() {
+        return anticipadosUsados.sum();
+    }
+
+    public long getAnticipadosDesperdiciados() {
+        return anticipadosDesperdiciados.sum();
+    }
+
+    /**
+     * Accesos a bloques que nunca se habían buscado (fallos obligatorios)
+     */
+    public long getPrimerosAccesos() {
+        return primerosAccesos.sum();
+    }
+
+    public long[] getHistogramaAciertos() {
+        return sumar(histogramaAciertos);
+    }
+
+    public long[] getHistogramaFallos() {
+        return sumar(histogramaFallos);
+    }
+
+    /**
+     * Fallos que un buffer LRU de la capacidad indicada habría evitado, según
+     * los casilleros cuyas distancias caben enteras en ella
+     */
+    public long estimarFallosEvitables(int capacidad) {
+        long evitables = 0;
+        for (int i = 0; i < CASILLEROS_HISTOGRAMA && (1L << (i + 1)) <= capacidad; i++) {
+            evitables += histogramaFallos[i].sum();
+        }
+        return evitables;
+    }
+
+    private static long[] sumar(LongAdder[] contadores) {
+        long[] valores = new long[contadores.length];
+        for (int i = 0; i < contadores.length; i++) {
+            valores[i] = contadores[i].sum();
+        }
+        return valores;
+    }
+
+    private static double porcentaje(long aciertos, long fallos) {
+        long total = aciertos + fallos;
+        return total == 0 ? 0 : (double) aciertos / total * 100;
+    }
+
+    @Override
+    public String toString() {
+        return "EstadisticasBuffer{" +
+                "aciertos=" + getAciertos() +
+                ", fallos=" + getFallos() +
+                ", desalojos=" + getDesalojos() +
+                ", tasaAciertos=" + String.format("%.1f%%", getTasaAciertos()) +
+                '}';
+    }
+}
@@ -0,0 +1,33 @@
+package modelo;
+
+import java.util.LinkedList;
+
+/**
+ * Interfaz de las políticas que deciden en qué tramos libres del disco se
+ * ubican los bloques de un archivo
+ */
+public interface EstrategiaAsignacion {
+
+    /**
+     * Elige los tramos donde ubicar la cantidad de bloques pedida, en el orden
+     * en que se asignarán, o null si no es posible. No modifica el índice,
+     * pero sí puede actualizar el estado propio de la estrategia (el puntero
+     * del siguiente ajuste, las listas libres del buddy): quien llama ocupa
+     * enseguida los tramos devueltos, o los devuelve con tramoLiberado
+     */
+    LinkedList<Extension> seleccionar(IndiceHuecos huecos, int cantidadBloques);
+
+    /**
+     * Avisa que un tramo quedó libre
+     */
+    default void tramoLiberado(int inicio, int longitud) {
+    }
+
+    /**
+     * Avisa que un tramo se ocupó sin pasar por la estrategia
+     */
+    default void tramoOcupadoExternamente(int inicio, int longitud) {
+    }
+
+    String getNombre();
+}
@@ -0,0 +1,50 @@
+package modelo;
+
+import java.util.function.Consumer;
+
+/**
+ * Orden de desalojo que mantiene cada política de reemplazo del buffer.
+ * El buffer resuelve las búsquedas con su índice hash; la estrategia solo
+ * decide qué bloque sale cuando no hay espacio
+ */
+interface EstrategiaReemplazo {
+
+    /**
+     * Aviso previo a la inserción de un bloque que no estaba en el buffer,
+     * antes de elegir víctima
+     */
+    default void alFallar(int numeroBloque) {
+    }
+
+    void alInsertar(Buffer.BloqueBlog bloque);
+
+    void alAcceder(Buffer.BloqueBlog bloque);
+
+    void alRemover(Buffer.BloqueBlog bloque);
+
+    /**
+     * Quita el bloque elegido como víctima. Las políticas con listas fantasma
+     * recuerdan aquí su número; un borrado explícito usa alRemover
+     */
+    default void alDesalojar(Buffer.BloqueBlog bloque) {
+        alRemover(bloque);
+    }
+
+    /**
+     * Objeto del último bloque desalojado si la política reutiliza sus marcos,
+     * o null para que el buffer cree uno nuevo
+     */
+    default Buffer.BloqueBlog reciclarMarco() {
+        return null;
+    }
+
+    /**
+     * Bloque a desalojar para hacer lugar al bloque entrante (sin quitarlo)
+     */
+    Buffer.BloqueBlog elegirVictima(int numeroEntrante);
+
+    /**
+     * Recorre los bloques en el orden de la política
+     */
+    void recorrer(Consumer<Buffer.BloqueBlog> accion);
+}
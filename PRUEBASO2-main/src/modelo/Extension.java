@@ -0,0 +1,42 @@
+package modelo;
+
+/**
+ * Clase que representa una extensión: un tramo de bloques contiguos en el disco
+ */
+public class Extension {
+    private final int inicio;
+    private final int longitud;
+
+    public Extension(int inicio, int longitud) {
+        this.inicio = inicio;
+        this.longitud = longitud;
+    }
+
+    // Getters
+    public int getInicio() {
+        return inicio;
+    }
+
+    public int getLongitud() {
+        return longitud;
+    }
+
+    /**
+     * Primer bloque posterior a la extensión
+     */
+    public int getFin() {
+        return inicio + longitud;
+    }
+
+    public boolean contiene(int numeroBloque) {
+        return numeroBloque >= inicio && numeroBloque < inicio + longitud;
+    }
+
+    @Override
+    public String toString() {
+        return "Extension{" +
+                "inicio=" + inicio +
+                ", longitud=" + longitud +
+                '}';
+    }
+}
@@ -0,0 +1,179 @@
+package modelo;
+
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Grupo de bloques contiguos del disco con su propio espacio libre (mapa de
+ * bits, índice de huecos y estrategia de asignación, en posiciones relativas
+ * al grupo) y su propio cerrojo, como los grupos de bloques de ext4: hilos que
+ * asignan en grupos distintos no se estorban. Los métodos reciben y devuelven
+ * posiciones absolutas del disco.
+ *
+ * Tras cada cambio se publica un resumen (libres, mayor hueco, huecos en los
+ * extremos) en campos volátiles, para elegir grupo y calcular las métricas
+ * del disco sin tomar el cerrojo
+ */
+class GrupoBloques {
+    private final int inicio;
+    private final int longitud;
+    private final MapaBits mapaLibres;
+    private final IndiceHuecos huecos;
+    private EstrategiaAsignacion estrategia;
+    private final ReentrantLock cerrojo;
+
+    // Resumen publicado al terminar cada cambio
+    private volatile int libres;
+    private volatile int mayorHueco;
+    private volatile int cantidadHuecos;
+    private volatile int huecoAlInicio;     // Libres desde el primer bloque del grupo
+    private volatile int huecoAlFinal;      // Libres que terminan en el último bloque
+
+    GrupoBloques(int inicio, int longitud, EstrategiaAsignacion estrategia) {
+        this.inicio = inicio;
+        this.longitud = longitud;
+        this.mapaLibres = new MapaBits(longitud);
+        this.huecos = new IndiceHuecos(longitud);
+        this.estrategia = estrategia;
+        this.cerrojo = new ReentrantLock();
+        publicarResumen();
+    }
+
+    /**
+     * Elige con la estrategia del grupo los tramos para la cantidad pedida, o
+     * null si no es posible. No los ocupa
+     */
+    LinkedList<Extension> seleccionar(int cantidadBloques) {
+        LinkedList<Extension> tramos = estrategia.seleccionar(huecos, cantidadBloques);
+        if (tramos == null) {
+            return null;
+        }
+        LinkedList<Extension> absolutos = new LinkedList<>();
+        for (Extension tramo : tramos) {
+            absolutos.add(new Extension(inicio + tramo.getInicio(), tramo.getLongitud()));
+        }
+        return absolutos;
+    }
+
+    /**
+     * Ocupa un tramo que eligió la estrategia del grupo
+     */
+    void ocuparSeleccionado(int desde, int cantidad) {
+        mapaLibres.ocuparRango(desde - inicio, cantidad);
+        huecos.ocupar(desde - inicio, cantidad);
+        publicarResumen();
+    }
+
+    /**
+     * Ocupa un tramo elegido sin la estrategia (encadenada, reservas, movimientos)
+     */
+    void ocupar(int desde, int cantidad) {
+        mapaLibres.ocuparRango(desde - inicio, cantidad);
+        huecos.ocupar(desde - inicio, cantidad);
+        estrategia.tramoOcupadoExternamente(desde - inicio, cantidad);
+        publicarResumen();
+    }
+
+    void liberar(int desde, int cantidad) {
+        mapaLibres.liberarRango(desde - inicio, cantidad);
+        huecos.liberar(desde - inicio, cantidad);
+        estrategia.tramoLiberado(desde - inicio, cantidad);
+        publicarResumen();
+    }
+
+    boolean estaOcupado(int numero) {
+        return mapaLibres.estaOcupado(numero - inicio);
+    }
+
+    /**
+     * Primer bloque libre del grupo a partir de desde, o -1
+     */
+    int siguienteLibre(int desde) {
+        int relativo = mapaLibres.siguienteLibre(Math.max(0, desde - inicio));
+        return relativo >= 0 ? inicio + relativo : -1;
+    }
+
+    /**
+     * Primer bloque ocupado del grupo a partir de desde, o el fin del grupo
+     */
+    int siguienteOcupado(int desde) {
+        return inicio + mapaLibres.siguienteOcupado(Math.max(0, desde - inicio));
+    }
+
+    /**
+     * Inicio del hueco más pequeño del grupo donde cabe la longitud, o -1
+     */
+    int mejorHueco(int longitudMinima) {
+        int relativo = huecos.mejorHueco(longitudMinima);
+        return relativo >= 0 ? inicio + relativo : -1;
+    }
+
+    /**
+     * Longitud del hueco que empieza en la posición indicada, o 0
+     */
+    int getLongitudHueco(int inicioHueco) {
+        return huecos.getLongitud(inicioHueco - inicio);
+    }
+
+    /**
+     * Inicio del primer hueco del grupo (por posición) donde cabe la longitud, o -1
+     */
+    int primerHueco(int longitudMinima) {
+        Map.Entry<Integer, Integer> hueco = huecos.primerHuecoDesde(0, longitudMinima);
+        return hueco != null ? inicio + hueco.getKey() : -1;
+    }
+
+    private void publicarResumen() {
+        libres = mapaLibres.getLibres();
+        mayorHueco = huecos.getLongitudMayorHueco();
+        cantidadHuecos = huecos.getCantidadHuecos();
+        huecoAlInicio = huecos.getLongitud(0);
+        huecoAlFinal = huecos.getLongitudHuecoQueTermina(longitud);
+    }
+
+    // Getters
+    int getInicio() {
+        return inicio;
+    }
+
+    int getFin() {
+        return inicio + longitud;
+    }
+
+    int getLongitud() {
+        return longitud;
+    }
+
+    ReentrantLock getCerrojo() {
+        return cerrojo;
+    }
+
+    EstrategiaAsignacion getEstrategia() {
+        return estrategia;
+    }
+
+    void setEstrategia(EstrategiaAsignacion estrategia) {
+        this.estrategia = estrategia;
+    }
+
+    int getLibres() {
+        return libres;
+    }
+
+    int getMayorHueco() {
+        return mayorHueco;
+    }
+
+    int getCantidadHuecos() {
+        return cantidadHuecos;
+    }
+
+    int getHuecoAlInicio() {
+        return huecoAlInicio;
+    }
+
+    int getHuecoAlFinal() {
+        return huecoAlFinal;
+    }
+}
@@ -0,0 +1,276 @@
+package modelo;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Índice global de archivos por ruta absoluta, por propietario y de los
+ * públicos. Los directorios lo actualizan al agregar, quitar o renombrar
+ * archivos, así listar no recorre el árbol: los archivos visibles para un
+ * usuario (públicos más propios) se obtienen en orden de ruta, en tiempo
+ * proporcional al resultado y sin copiar nada.
+ *
+ * Los mapas son listas de salto concurrentes: directorios distintos pueden
+ * actualizar el índice a la vez y las vistas se recorren desde cualquier hilo
+ * sin cerrojos (reflejan los cambios que ocurran durante el recorrido o no,
+ * pero nunca fallan)
+ */
+public class IndiceArchivos {
+    private final ConcurrentSkipListMap<String, Archivo> porRuta;
+    private final ConcurrentSkipListMap<String, Archivo> publicos;
+    private final ConcurrentHashMap<String, ConcurrentSkipListMap<String, Archivo>> porPropietario;
+    private final ConcurrentHashMap<String, Collection<Archivo>> vistasVisibles;
+    private final Collection<Archivo> todos;
+    private final AtomicInteger tamaño;     // El size() de la lista de salto es O(n)
+    private final AtomicInteger cantidadPublicos;
+
+    public IndiceArchivos() {
+        this.porRuta = new ConcurrentSkipListMap<>();
+        this.publicos = new ConcurrentSkipListMap<>();
+        this.porPropietario = new ConcurrentHashMap<>();
+        this.vistasVisibles = new ConcurrentHashMap<>();
+        this.todos = Collections.unmodifiableCollection(porRuta.values());
+        this.tamaño = new AtomicInteger();
+        this.cantidadPublicos = new AtomicInteger();
+    }
+
+    void agregar(String ruta, Archivo archivo) {
+        if (porRuta.put(ruta, archivo) == null) {
+            tamaño.incrementAndGet();
+        }
+        if (archivo.isEsPublico() && publicos.put(ruta, archivo) == null) {
+            cantidadPublicos.incrementAndGet();
+        }
+        agregarAPropietario(archivo.getPropietario(), ruta, archivo);
+    }
+
+    void remover(String ruta, Archivo archivo) {
+        if (porRuta.remove(ruta, archivo)) {
+            tamaño.decrementAndGet();
+            if (publicos.remove(ruta, archivo)) {
+                cantidadPublicos.decrementAndGet();
+            }
+            removerDePropietario(archivo.getPropietario(), ruta, archivo);
+        }
+    }
+
+    void cambiarVisibilidad(String ruta, Archivo archivo) {
+        if (archivo.isEsPublico()) {
+            if (publicos.put(ruta, archivo) == null) {
+                cantidadPublicos.incrementAndGet();
+            }
+        } else if (publicos.remove(ruta, archivo)) {
+            cantidadPublicos.decrementAndGet();
+        }
+    }
+
+    void cambiarPropietario(String ruta, Archivo archivo, String anterior) {
+        removerDePropietario(anterior, ruta, archivo);
+        agregarAPropietario(archivo.getPropietario(), ruta, archivo);
+    }
+
+    /**
+     * El mapa de cada propietario se crea y se descarta dentro de compute,
+     * así no se pierde un archivo que llega mientras otro hilo lo vacía
+     */
+    private void agregarAPropietario(String propietario, String ruta, Archivo archivo) {
+        porPropietario.compute(propietario, (clave, propios) -> {
+            ConcurrentSkipListMap<String, Archivo> destino = propios != null ? propios : new ConcurrentSkipListMap<>();
+            destino.put(ruta, archivo);
+            return destino;
+        });
+    }
+
+    private void removerDePropietario(String propietario, String ruta, Archivo archivo) {
+        porPropietario.computeIfPresent(propietario, (clave, propios) -> {
+            propios.remove(ruta, archivo);
+            return propios.isEmpty() ? null : propios;
+        });
+    }
+
+    void renombrar(String rutaAnterior, String rutaNueva, Archivo archivo) {
+        remover(rutaAnterior, archivo);
+        agregar(rutaNueva, archivo);
+    }
+
+    /**
+     * Quita los archivos que estaban bajo un directorio eliminado
+     */
+    void removerBajo(String rutaDirectorio) {
+        for (Map.Entry<String, Archivo> entrada : copiarBajo(rutaDirectorio)) {
+            remover(entrada.getKey(), entrada.getValue());
+        }
+    }
+
+    /**
+     * Cambia el prefijo de ruta de los archivos bajo un directorio renombrado
+     */
+    void moverBajo(String rutaAnterior, String rutaNueva) {
+        List<Map.Entry<String, Archivo>> afectados = copiarBajo(rutaAnterior);
+        for (Map.Entry<String, Archivo> entrada : afectados) {
+            remover(entrada.getKey(), entrada.getValue());
+        }
+        for (Map.Entry<String, Archivo> entrada : afectados) {
+            agregar(rutaNueva + entrada.getKey().substring(rutaAnterior.length()), entrada.getValue());
+        }
+    }
+
+    public void limpiar() {
+        porRuta.clear();
+        publicos.clear();
+        porPropietario.clear();
+        tamaño.set(0);
+        cantidadPublicos.set(0);
+    }
+
+    public Archivo buscar(String ruta) {
+        return porRuta.get(ruta);
+    }
+
+    /**
+     * Todos los archivos, en orden de ruta
+     */
+    public Collection<Archivo> getTodos() {
+        return todos;
+    }
+
+    /**
+     * Archivos bajo el directorio indicado (en cualquier nivel), en orden de ruta
+     */
+    public Collection<Archivo> getBajo(String rutaDirectorio) {
+        return Collections.unmodifiableCollection(bajo(porRuta, rutaDirectorio).values());
+    }
+
+    public Collection<Archivo> getPublicos() {
+        return Collections.unmodifiableCollection(publicos.values());
+    }
+
+    public Collection<Archivo> getDePropietario(String propietario) {
+        ConcurrentSkipListMap<String, Archivo> propios = porPropietario.get(propietario);
+        return propios != null
+            ? Collections.unmodifiableCollection(propios.values())
+            : Collections.emptyList();
+    }
+
+    /**
+     * Archivos públicos más los propios del usuario, en orden de ruta. La
+     * vista de cada usuario se crea una sola vez y sigue al índice
+     */
+    public Collection<Archivo> getVisiblesPara(String usuario) {
+        return vistasVisibles.computeIfAbsent(usuario, VistaVisibles::new);
+    }
+
+    public int getTamaño() {
+        return tamaño.get();
+    }
+
+    /**
+     * Copia las entradas bajo un directorio antes de modificar el mapa, para
+     * no recorrer el rango mientras se lo cambia
+     */
+    private List<Map.Entry<String, Archivo>> copiarBajo(String rutaDirectorio) {
+        List<Map.Entry<String, Archivo>> copia = new ArrayList<>();
+        for (Map.Entry<String, Archivo> entrada : bajo(porRuta, rutaDirectorio).entrySet()) {
+            copia.add(Map.entry(entrada.getKey(), entrada.getValue()));
+        }
+        return copia;
+    }
+
+    private static NavigableMap<String, Archivo> bajo(NavigableMap<String, Archivo> mapa, String rutaDirectorio) {
+        String prefijo = rutaDirectorio.endsWith("/") ? rutaDirectorio : rutaDirectorio + "/";
+        return mapa.subMap(prefijo, true, prefijo + Character.MAX_VALUE, false);
+    }
+
+    /**
+     * Mezcla ordenada de los públicos con los privados del usuario
+     */
+    private class VistaVisibles extends AbstractCollection<Archivo> {
+        private final String usuario;
+
+        VistaVisibles(String usuario) {
+            this.usuario = usuario;
+        }
+
+        @Override
+        public Iterator<Archivo> iterator() {
+            ConcurrentSkipListMap<String, Archivo> propios = porPropietario.get(usuario);
+            Iterator<Map.Entry<String, Archivo>> deTodos = publicos.entrySet().iterator();
+            Iterator<Map.Entry<String, Archivo>> dePropios = propios != null
+                ? propios.entrySet().iterator()
+                : Collections.emptyIterator();
+            return new Iterator<Archivo>() {
+                private Map.Entry<String, Archivo> publico = avanzar(deTodos, false);
+                private Map.Entry<String, Archivo> privado = avanzar(dePropios, true);
+
+                @Override
+                public boolean hasNext() {
+                    return publico != null || privado != null;
+                }
+
+                @Override
+                public Archivo next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    Archivo siguiente;
+                    if (privado == null || (publico != null && publico.getKey().compareTo(privado.getKey()) < 0)) {
+                        siguiente = publico.getValue();
+                        publico = avanzar(deTodos, false);
+                    } else {
+                        siguiente = privado.getValue();
+                        privado = avanzar(dePropios, true);
+                    }
+                    return siguiente;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            int privados = 0;
+            ConcurrentSkipListMap<String, Archivo> propios = porPropietario.get(usuario);
+            if (propios != null) {
+                for (Archivo archivo : propios.values()) {
+                    if (!archivo.isEsPublico()) {
+                        privados++;
+                    }
+                }
+            }
+            return cantidadPublicos.get() + privados;
+        }
+
+        /**
+         * Siguiente entrada; de los propios se saltan los públicos, que ya
+         * salen por el otro lado
+         */
+        private Map.Entry<String, Archivo> avanzar(Iterator<Map.Entry<String, Archivo>> iterador,
+                                                   boolean soloPrivados) {
+            while (iterador.hasNext()) {
+                Map.Entry<String, Archivo> entrada = iterador.next();
+                if (!soloPrivados || !entrada.getValue().isEsPublico()) {
+                    return entrada;
+                }
+            }
+            return null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "IndiceArchivos{" +
+                "archivos=" + tamaño.get() +
+                ", publicos=" + cantidadPublicos.get() +
+                ", propietarios=" + porPropietario.size() +
+                '}';
+    }
+}
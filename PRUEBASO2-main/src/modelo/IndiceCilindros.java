@@ -0,0 +1,239 @@
+package modelo;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Solicitudes pendientes indexadas por cilindro y por orden de llegada, para
+ * que el planificador elija la siguiente en O(log n). Dentro de un mismo
+ * cilindro se conservan en orden de llegada (desempate FIFO). Lecturas y
+ * escrituras tienen además su propia fila de llegada para los vencimientos.
+ * Opcionalmente mantiene un subíndice por usuario, en orden de turno, para el
+ * reparto equitativo del disco
+ */
+class IndiceCilindros {
+    private final TreeMap<Integer, ArrayDeque<SolicitudIO>> porCilindro;
+    private final LinkedHashSet<SolicitudIO> porLlegada;
+    private final LinkedHashSet<SolicitudIO> lecturas;
+    private final LinkedHashSet<SolicitudIO> escrituras;
+    private final LinkedHashMap<String, IndiceCilindros> porUsuario;   // null en los subíndices
+    private final HashMap<Integer, ArrayDeque<SolicitudIO>> porFin;      // null en los subíndices
+
+    IndiceCilindros() {
+        this(true);
+    }
+
+    private IndiceCilindros(boolean conSubindices) {
+        this.porCilindro = new TreeMap<>();
+        this.porLlegada = new LinkedHashSet<>();
+        this.lecturas = new LinkedHashSet<>();
+        this.escrituras = new LinkedHashSet<>();
+        this.porUsuario = conSubindices ? new LinkedHashMap<>() : null;
+        this.porFin = conSubindices ? new HashMap<>() : null;
+    }
+
+    void agregar(SolicitudIO solicitud) {
+        porLlegada.add(solicitud);
+        (solicitud.esLectura() ? lecturas : escrituras).add(solicitud);
+        if (porUsuario != null) {
+            porUsuario.computeIfAbsent(solicitud.getUsuario(), k -> new IndiceCilindros(false))
+                    .agregar(solicitud);
+            porFin.computeIfAbsent(solicitud.getCilindroFin(), k -> new ArrayDeque<>()).addLast(solicitud);
+        }
+        ArrayDeque<SolicitudIO> cilindro = porCilindro.computeIfAbsent(
+                solicitud.getCilindroAcceso(), k -> new ArrayDeque<>());
+        if (cilindro.isEmpty() || cilindro.peekLast().getOrdenLlegada() < solicitud.getOrdenLlegada()) {
+            cilindro.addLast(solicitud);
+        } else {
+            insertarEnOrden(cilindro, solicitud);
+        }
+    }
+
+    /**
+     * Quita la solicitud del índice. Su cilindro no debe haber cambiado desde
+     * que se agregó (ver ColaIO.reubicarSolicitud)
+     */
+    boolean remover(SolicitudIO solicitud) {
+        if (!porLlegada.remove(solicitud)) {
+            return false;
+        }
+        (solicitud.esLectura() ? lecturas : escrituras).remove(solicitud);
+        ArrayDeque<SolicitudIO> cilindro = porCilindro.get(solicitud.getCilindroAcceso());
+        if (cilindro == null || !cilindro.remove(solicitud)) {
+            throw new IllegalStateException("Solicitud " + solicitud.getIdSolicitud()
+                    + " fuera de su cilindro indexado");
+        }
+        if (cilindro.isEmpty()) {
+            porCilindro.remove(solicitud.getCilindroAcceso());
+        }
+        if (porUsuario != null) {
+            IndiceCilindros subindice = porUsuario.get(solicitud.getUsuario());
+            subindice.remover(solicitud);
+            if (subindice.estaVacio()) {
+                porUsuario.remove(solicitud.getUsuario());
+            }
+            ArrayDeque<SolicitudIO> terminan = porFin.get(solicitud.getCilindroFin());
+            terminan.remove(solicitud);
+            if (terminan.isEmpty()) {
+                porFin.remove(solicitud.getCilindroFin());
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Solicitudes pendientes cuyo tramo empieza en el cilindro indicado
+     */
+    Collection<SolicitudIO> queEmpiezanEn(int cilindro) {
+        ArrayDeque<SolicitudIO> empiezan = porCilindro.get(cilindro);
+        return empiezan != null ? empiezan : Collections.emptyList();
+    }
+
+    /**
+     * Solicitudes pendientes cuyo tramo termina justo antes del cilindro indicado
+     */
+    Collection<SolicitudIO> queTerminanEn(int cilindro) {
+        ArrayDeque<SolicitudIO> terminan = porFin.get(cilindro);
+        return terminan != null ? terminan : Collections.emptyList();
+    }
+
+    /**
+     * Usuario al que le toca el turno (el primero de la rotación), o null
+     */
+    String getUsuarioEnTurno() {
+        Iterator<String> usuarios = porUsuario.keySet().iterator();
+        return usuarios.hasNext() ? usuarios.next() : null;
+    }
+
+    IndiceCilindros getSubindice(String usuario) {
+        return porUsuario.get(usuario);
+    }
+
+    /**
+     * Pasa el usuario en turno al final de la rotación
+     */
+    void rotarTurno() {
+        String usuario = getUsuarioEnTurno();
+        if (usuario != null) {
+            porUsuario.put(usuario, porUsuario.remove(usuario));
+        }
+    }
+
+    int getCantidadUsuarios() {
+        return porUsuario != null ? porUsuario.size() : 0;
+    }
+
+    boolean contiene(SolicitudIO solicitud) {
+        return porLlegada.contains(solicitud);
+    }
+
+    /**
+     * Solicitud más antigua, o null si el índice está vacío
+     */
+    SolicitudIO primeraEnLlegar() {
+        return primeraDe(porLlegada);
+    }
+
+    /**
+     * Lectura más antigua, o null si no hay lecturas pendientes
+     */
+    SolicitudIO primeraLectura() {
+        return primeraDe(lecturas);
+    }
+
+    /**
+     * Escritura (cualquier operación que no sea lectura) más antigua, o null
+     */
+    SolicitudIO primeraEscritura() {
+        return primeraDe(escrituras);
+    }
+
+    /**
+     * Solicitud más antigua del menor cilindro mayor o igual al indicado
+     */
+    SolicitudIO primeraDesde(int cilindro) {
+        return primeraDe(porCilindro.ceilingEntry(cilindro));
+    }
+
+    /**
+     * Solicitud más antigua del mayor cilindro menor o igual al indicado
+     */
+    SolicitudIO primeraHasta(int cilindro) {
+        return primeraDe(porCilindro.floorEntry(cilindro));
+    }
+
+    /**
+     * Solicitud más antigua del mayor cilindro estrictamente menor al indicado
+     */
+    SolicitudIO primeraAntesDe(int cilindro) {
+        return primeraDe(porCilindro.lowerEntry(cilindro));
+    }
+
+    /**
+     * Solicitud más antigua del menor cilindro pendiente
+     */
+    SolicitudIO primeraDelMenorCilindro() {
+        return primeraDe(porCilindro.firstEntry());
+    }
+
+    /**
+     * Vista de las solicitudes en orden de llegada
+     */
+    Collection<SolicitudIO> enOrdenDeLlegada() {
+        return Collections.unmodifiableCollection(porLlegada);
+    }
+
+    int getTamaño() {
+        return porLlegada.size();
+    }
+
+    boolean estaVacio() {
+        return porLlegada.isEmpty();
+    }
+
+    void limpiar() {
+        porCilindro.clear();
+        porLlegada.clear();
+        lecturas.clear();
+        escrituras.clear();
+        if (porUsuario != null) {
+            porUsuario.clear();
+            porFin.clear();
+        }
+    }
+
+    private static SolicitudIO primeraDe(Map.Entry<Integer, ArrayDeque<SolicitudIO>> entrada) {
+        return entrada != null ? entrada.getValue().peekFirst() : null;
+    }
+
+    private static SolicitudIO primeraDe(LinkedHashSet<SolicitudIO> fila) {
+        return fila.isEmpty() ? null : fila.iterator().next();
+    }
+
+    /**
+     * Una solicitud reubicada puede ser más antigua que las que ya esperan en
+     * su nuevo cilindro
+     */
+    private void insertarEnOrden(ArrayDeque<SolicitudIO> cilindro, SolicitudIO solicitud) {
+        ArrayDeque<SolicitudIO> ordenada = new ArrayDeque<>(cilindro.size() + 1);
+        boolean insertada = false;
+        for (SolicitudIO otra : cilindro) {
+            if (!insertada && otra.getOrdenLlegada() > solicitud.getOrdenLlegada()) {
+                ordenada.addLast(solicitud);
+                insertada = true;
+            }
+            ordenada.addLast(otra);
+        }
+        if (!insertada) {
+            ordenada.addLast(solicitud);
+        }
+        porCilindro.put(solicitud.getCilindroAcceso(), ordenada);
+    }
+}
@@ -0,0 +1,195 @@
+package modelo;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Índice de tramos libres (huecos) del disco, ordenado por posición y por
+ * longitud, para que las políticas de asignación no recorran bloque a bloque.
+ * Además guarda, en un árbol de segmentos sobre las posiciones de inicio, la
+ * longitud máxima de hueco de cada rango: así el primer ajuste encuentra el
+ * primer hueco que alcanza en O(log n) sin recorrer los que no alcanzan
+ */
+public class IndiceHuecos {
+    private final TreeMap<Integer, Integer> porInicio;              // inicio -> longitud
+    private final TreeMap<Integer, TreeSet<Integer>> porLongitud;   // longitud -> inicios
+    private final int capacidad;                                    // Hojas del árbol (potencia de dos)
+    private final int[] mayorLongitud;                              // Máximo de cada rango de inicios
+    private int bloquesLibres;
+
+    public IndiceHuecos(int totalBloques) {
+        this.porInicio = new TreeMap<>();
+        this.porLongitud = new TreeMap<>();
+        this.capacidad = totalBloques <= 1 ? 1 : Integer.highestOneBit(totalBloques - 1) << 1;
+        this.mayorLongitud = new int[2 * capacidad];
+        this.bloquesLibres = 0;
+        if (totalBloques > 0) {
+            agregarHueco(0, totalBloques);
+        }
+    }
+
+    /**
+     * Retira del índice el tramo [inicio, inicio + longitud), que debe estar libre
+     */
+    public void ocupar(int inicio, int longitud) {
+        Map.Entry<Integer, Integer> hueco = porInicio.floorEntry(inicio);
+        if (hueco == null || hueco.getKey() + hueco.getValue() < inicio + longitud) {
+            return;
+        }
+
+        int inicioHueco = hueco.getKey();
+        int finHueco = inicioHueco + hueco.getValue();
+        quitarHueco(inicioHueco, hueco.getValue());
+        if (inicio > inicioHueco) {
+            agregarHueco(inicioHueco, inicio - inicioHueco);
+        }
+        if (inicio + longitud < finHueco) {
+            agregarHueco(inicio + longitud, finHueco - inicio - longitud);
+        }
+    }
+
+    /**
+     * Devuelve al índice el tramo [inicio, inicio + longitud), fusionándolo con
+     * los huecos vecinos
+     */
+    public void liberar(int inicio, int longitud) {
+        int nuevoInicio = inicio;
+        int nuevoFin = inicio + longitud;
+
+        Map.Entry<Integer, Integer> anterior = porInicio.lowerEntry(inicio);
+        if (anterior != null && anterior.getKey() + anterior.getValue() == inicio) {
+            nuevoInicio = anterior.getKey();
+            quitarHueco(anterior.getKey(), anterior.getValue());
+        }
+
+        Integer longitudSiguiente = porInicio.get(nuevoFin);
+        if (longitudSiguiente != null) {
+            quitarHueco(nuevoFin, longitudSiguiente);
+            nuevoFin += longitudSiguiente;
+        }
+
+        agregarHueco(nuevoInicio, nuevoFin - nuevoInicio);
+    }
+
+    /**
+     * Primer hueco (por posición) desde la posición indicada con al menos la
+     * longitud pedida, o null si no existe
+     */
+    public Map.Entry<Integer, Integer> primerHuecoDesde(int desde, int longitudMinima) {
+        // El hueco que contiene a desde solo aporta lo que queda desde ahí
+        Map.Entry<Integer, Integer> hueco = porInicio.floorEntry(desde);
+        int finHueco = hueco != null ? hueco.getKey() + hueco.getValue() : 0;
+        if (finHueco > desde && finHueco - desde >= longitudMinima) {
+            return hueco;
+        }
+        int inicio = primerInicioConLongitud(1, 0, capacidad, Math.max(0, desde + 1), longitudMinima);
+        return inicio >= 0 ? porInicio.ceilingEntry(inicio) : null;
+    }
+
+    /**
+     * Hueco más pequeño con al menos la longitud pedida (el de menor posición
+     * si hay empate), o -1 si ninguno alcanza
+     */
+    public int mejorHueco(int longitudMinima) {
+        Map.Entry<Integer, TreeSet<Integer>> entrada = porLongitud.ceilingEntry(longitudMinima);
+        return entrada != null ? entrada.getValue().first() : -1;
+    }
+
+    /**
+     * Hueco de mayor longitud (el de menor posición si hay empate), o -1
+     */
+    public int mayorHueco() {
+        return porLongitud.isEmpty() ? -1 : porLongitud.lastEntry().getValue().first();
+    }
+
+    public int getLongitud(int inicioHueco) {
+        Integer longitud = porInicio.get(inicioHueco);
+        return longitud != null ? longitud : 0;
+    }
+
+    /**
+     * Longitud del hueco que termina justo antes de la posición indicada, o 0
+     */
+    public int getLongitudHuecoQueTermina(int fin) {
+        Map.Entry<Integer, Integer> hueco = porInicio.lowerEntry(fin);
+        return hueco != null && hueco.getKey() + hueco.getValue() == fin ? hueco.getValue() : 0;
+    }
+
+    public int getLongitudMayorHueco() {
+        return porLongitud.isEmpty() ? 0 : porLongitud.lastKey();
+    }
+
+    public int getCantidadHuecos() {
+        return porInicio.size();
+    }
+
+    public int getBloquesLibres() {
+        return bloquesLibres;
+    }
+
+    /**
+     * Vista de los huecos ordenados por posición (inicio -> longitud)
+     */
+    public Map<Integer, Integer> getHuecos() {
+        return Collections.unmodifiableMap(porInicio);
+    }
+
+    /**
+     * Vista de los inicios de hueco agrupados por longitud
+     */
+    public NavigableMap<Integer, TreeSet<Integer>> getHuecosPorLongitud() {
+        return Collections.unmodifiableNavigableMap(porLongitud);
+    }
+
+    private void agregarHueco(int inicio, int longitud) {
+        porInicio.put(inicio, longitud);
+        porLongitud.computeIfAbsent(longitud, k -> new TreeSet<>()).add(inicio);
+        fijarLongitud(inicio, longitud);
+        bloquesLibres += longitud;
+    }
+
+    private void quitarHueco(int inicio, int longitud) {
+        porInicio.remove(inicio);
+        fijarLongitud(inicio, 0);
+        TreeSet<Integer> inicios = porLongitud.get(longitud);
+        if (inicios != null) {
+            inicios.remove(inicio);
+            if (inicios.isEmpty()) {
+                porLongitud.remove(longitud);
+            }
+        }
+        bloquesLibres -= longitud;
+    }
+
+    /**
+     * Actualiza la hoja del inicio indicado y los máximos de sus ancestros
+     */
+    private void fijarLongitud(int inicio, int longitud) {
+        int nodo = capacidad + inicio;
+        mayorLongitud[nodo] = longitud;
+        for (nodo >>= 1; nodo > 0; nodo >>= 1) {
+            mayorLongitud[nodo] = Math.max(mayorLongitud[2 * nodo], mayorLongitud[2 * nodo + 1]);
+        }
+    }
+
+    /**
+     * Menor inicio de hueco en [desde, fin del rango del nodo) con al menos la
+     * longitud pedida, o -1. Descarta enteros los rangos cuyo máximo no alcanza
+     */
+    private int primerInicioConLongitud(int nodo, int izquierda, int derecha, int desde, int longitudMinima) {
+        if (derecha <= desde || mayorLongitud[nodo] < longitudMinima) {
+            return -1;
+        }
+        if (derecha - izquierda == 1) {
+            return izquierda;
+        }
+        int medio = (izquierda + derecha) >>> 1;
+        int encontrado = primerInicioConLongitud(2 * nodo, izquierda, medio, desde, longitudMinima);
+        return encontrado >= 0
+            ? encontrado
+            : primerInicioConLongitud(2 * nodo + 1, medio, derecha, desde, longitudMinima);
+    }
+}
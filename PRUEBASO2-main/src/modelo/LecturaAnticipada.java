@@ -0,0 +1,217 @@
+package modelo;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Motor de lectura anticipada. Sigue por archivo la posición lógica de las
+ * lecturas; cuando una lectura continúa donde terminó la anterior (o empieza
+ * al inicio del archivo) se anticipan los bloques lógicos siguientes. La
+ * ventana de cada archivo se duplica con cada lectura secuencial hasta un tope
+ * global, que crece o se reduce según cuántos bloques anticipados terminan
+ * usándose antes de salir del buffer.
+ *
+ * Se siguen como máximo MAX_ARCHIVOS_SEGUIDOS archivos (los de lectura más
+ * reciente). Cuando una secuencia se corta, el archivo se achica, se deja de
+ * seguir o se elimina, sus lecturas anticipadas todavía pendientes se cancelan
+ * y el sistema las retira de la cola
+ */
+public class LecturaAnticipada {
+    public static final int MAX_ARCHIVOS_SEGUIDOS = 256;
+
+    private static final int VENTANA_MINIMA = 2;
+    private static final int VENTANA_MAXIMA = 64;
+    private static final int MUESTRA_MINIMA = 16;      // Bloques anticipados resueltos para reajustar el tope
+    private static final double UMBRAL_CRECER = 0.75;
+    private static final double UMBRAL_REDUCIR = 0.40;
+
+    /**
+     * Estado de la lectura secuencial de un archivo
+     */
+    private static class Secuencia {
+        int siguienteIndice;    // Donde debería empezar la próxima lectura secuencial
+        int anticipadoHasta;    // Primer bloque lógico todavía no anticipado
+        int ventana;
+        final List<SolicitudIO> pendientes = new ArrayList<>();   // Anticipadas encoladas sin completar
+    }
+
+    private final LinkedHashMap<Archivo, Secuencia> secuencias;   // En orden de última lectura
+    private final List<SolicitudIO> canceladas;
+    private int ventanaTope;
+    private boolean activa;
+
+    // Contadores del buffer en el último reajuste del tope
+    private long usadosPrevios;
+    private long desperdiciadosPrevios;
+
+    public LecturaAnticipada() {
+        this.secuencias = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Archivo, Secuencia> masAntigua) {
+                if (size() <= MAX_ARCHIVOS_SEGUIDOS) {
+                    return false;
+                }
+                cancelarPendientes(masAntigua.getValue());
+                return true;
+            }
+        };
+        this.canceladas = new ArrayList<>();
+        this.ventanaTope = VENTANA_MAXIMA / 4;
+        this.activa = true;
+    }
+
+    /**
+     * Registra una lectura de los bloques lógicos [indiceInicio, indiceInicio +
+     * cantidad) del archivo y devuelve los tramos físicos a leer por anticipado
+     */
+    public List<Extension> registrarLectura(Archivo archivo, int indiceInicio, int cantidad, Buffer buffer) {
+        List<Extension> tramos = new ArrayList<>();
+        if (!activa || archivo == null || indiceInicio < 0) {
+            return tramos;
+        }
+
+        int fin = indiceInicio + cantidad;
+        Secuencia secuencia = secuencias.get(archivo);
+        boolean secuencial = indiceInicio == 0 || (secuencia != null && indiceInicio == secuencia.siguienteIndice);
+        if (secuencia == null) {
+            secuencia = new Secuencia();
+            secuencia.ventana = VENTANA_MINIMA;
+            secuencias.put(archivo, secuencia);
+        }
+        if (indiceInicio == 0 || !secuencial || secuencia.anticipadoHasta > archivo.getCantidadBloquesAsignados()) {
+            // Comienza una pasada nueva (o el archivo se achicó): lo anticipado
+            // antes ya no sirve de referencia ni hace falta leerlo
+            secuencia.anticipadoHasta = fin;
+            cancelarPendientes(secuencia);
+        }
+        secuencia.siguienteIndice = fin;
+
+        if (!secuencial) {
+            secuencia.ventana = VENTANA_MINIMA;
+            return tramos;
+        }
+
+        reajustarTope(buffer);
+        secuencia.ventana = Math.min(ventanaTope, Math.max(VENTANA_MINIMA, secuencia.ventana * 2));
+
+        int desde = Math.max(fin, secuencia.anticipadoHasta);
+        int hasta = Math.min(archivo.getCantidadBloquesAsignados(), fin + secuencia.ventana);
+        if (desde >= hasta) {
+            return tramos;
+        }
+        secuencia.anticipadoHasta = hasta;
+
+        // Partir el rango lógico en tramos físicamente contiguos
+        int indice = desde;
+        while (indice < hasta) {
+            int bloque = archivo.obtenerBloque(indice);
+            int longitud = Math.min(archivo.obtenerLongitudContigua(bloque), hasta - indice);
+            tramos.add(new Extension(bloque, longitud));
+            indice += longitud;
+        }
+        return tramos;
+    }
+
+    /**
+     * Asocia a la secuencia del archivo una lectura anticipada ya encolada,
+     * para poder cancelarla si la secuencia se corta
+     */
+    void registrarAnticipada(Archivo archivo, SolicitudIO solicitud) {
+        Secuencia secuencia = secuencias.get(archivo);
+        if (secuencia == null) {
+            return;
+        }
+        secuencia.pendientes.removeIf(SolicitudIO::isCompletada);
+        secuencia.pendientes.add(solicitud);
+    }
+
+    /**
+     * Devuelve y olvida las lecturas anticipadas canceladas desde la última
+     * llamada, que el sistema debe retirar de la cola
+     */
+    List<SolicitudIO> extraerCanceladas() {
+        List<SolicitudIO> extraidas = new ArrayList<>(canceladas);
+        canceladas.clear();
+        return extraidas;
+    }
+
+    /**
+     * Descarta el seguimiento de un archivo eliminado y cancela sus anticipadas
+     */
+    public void olvidar(Archivo archivo) {
+        Secuencia secuencia = secuencias.remove(archivo);
+        if (secuencia != null) {
+            cancelarPendientes(secuencia);
+        }
+    }
+
+    public void limpiar() {
+        secuencias.clear();
+        canceladas.clear();
+        usadosPrevios = 0;
+        desperdiciadosPrevios = 0;
+    }
+
+    private void cancelarPendientes(Secuencia secuencia) {
+        for (SolicitudIO solicitud : secuencia.pendientes) {
+            if (!solicitud.isCompletada()) {
+                solicitud.cancelar();
+                canceladas.add(solicitud);
+            }
+        }
+        secuencia.pendientes.clear();
+    }
+
+    /**
+     * Ajusta el tope de la ventana según la proporción de bloques anticipados
+     * que se usaron desde el último ajuste
+     */
+    private void reajustarTope(Buffer buffer) {
+        if (buffer.getAnticipadosUsados() < usadosPrevios
+                || buffer.getAnticipadosDesperdiciados() < desperdiciadosPrevios) {
+            // Se reiniciaron las estadísticas del buffer
+            usadosPrevios = 0;
+            desperdiciadosPrevios = 0;
+        }
+        long usados = buffer.getAnticipadosUsados() - usadosPrevios;
+        long desperdiciados = buffer.getAnticipadosDesperdiciados() - desperdiciadosPrevios;
+        if (usados + desperdiciados < MUESTRA_MINIMA) {
+            return;
+        }
+
+        double tasa = (double) usados / (usados + desperdiciados);
+        if (tasa >= UMBRAL_CRECER) {
+            ventanaTope = Math.min(VENTANA_MAXIMA, ventanaTope * 2);
+        } else if (tasa < UMBRAL_REDUCIR) {
+            ventanaTope = Math.max(VENTANA_MINIMA, ventanaTope / 2);
+        }
+        usadosPrevios = buffer.getAnticipadosUsados();
+        desperdiciadosPrevios = buffer.getAnticipadosDesperdiciados();
+    }
+
+    // Getters
+    public boolean isActiva() {
+        return activa;
+    }
+
+    public int getVentanaTope() {
+        return ventanaTope;
+    }
+
+    public int getArchivosSeguidos() {
+        return secuencias.size();
+    }
+
+    // Setters
+    public void setActiva(boolean activa) {
+        this.activa = activa;
+        if (!activa) {
+            for (Secuencia secuencia : secuencias.values()) {
+                cancelarPendientes(secuencia);
+            }
+            secuencias.clear();
+        }
+    }
+}
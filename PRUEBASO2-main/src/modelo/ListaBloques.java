@@ -0,0 +1,80 @@
+package modelo;
+
+import java.util.function.Consumer;
+
+/**
+ * Lista doblemente enlazada intrusiva de bloques del buffer: los enlaces
+ * viven en el propio BloqueBlog, así que mover o quitar un nodo es O(1) y
+ * no reserva memoria
+ */
+class ListaBloques {
+    private Buffer.BloqueBlog primero;
+    private Buffer.BloqueBlog ultimo;
+    private int tamaño;
+
+    void agregarAlFinal(Buffer.BloqueBlog bloque) {
+        bloque.lista = this;
+        bloque.anterior = ultimo;
+        bloque.siguiente = null;
+        if (ultimo != null) {
+            ultimo.siguiente = bloque;
+        } else {
+            primero = bloque;
+        }
+        ultimo = bloque;
+        tamaño++;
+    }
+
+    void remover(Buffer.BloqueBlog bloque) {
+        if (bloque.anterior != null) {
+            bloque.anterior.siguiente = bloque.siguiente;
+        } else {
+            primero = bloque.siguiente;
+        }
+        if (bloque.siguiente != null) {
+            bloque.siguiente.anterior = bloque.anterior;
+        } else {
+            ultimo = bloque.anterior;
+        }
+        bloque.anterior = null;
+        bloque.siguiente = null;
+        bloque.lista = null;
+        tamaño--;
+    }
+
+    void moverAlFinal(Buffer.BloqueBlog bloque) {
+        if (bloque != ultimo) {
+            remover(bloque);
+            agregarAlFinal(bloque);
+        }
+    }
+
+    boolean contiene(Buffer.BloqueBlog bloque) {
+        return bloque.lista == this;
+    }
+
+    Buffer.BloqueBlog getPrimero() {
+        return primero;
+    }
+
+    Buffer.BloqueBlog getUltimo() {
+        return ultimo;
+    }
+
+    int getTamaño() {
+        return tamaño;
+    }
+
+    boolean estaVacia() {
+        return tamaño == 0;
+    }
+
+    void recorrer(Consumer<Buffer.BloqueBlog> accion) {
+        Buffer.BloqueBlog actual = primero;
+        while (actual != null) {
+            Buffer.BloqueBlog siguiente = actual.siguiente;
+            accion.accept(actual);
+            actual = siguiente;
+        }
+    }
+}
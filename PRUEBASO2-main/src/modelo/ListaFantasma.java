@@ -0,0 +1,36 @@
+package modelo;
+
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+
+/**
+ * Lista fantasma de las políticas adaptativas: recuerda en orden de llegada
+ * los números de bloques desalojados recientemente, sin sus datos
+ */
+class ListaFantasma {
+    private final LinkedHashSet<Integer> numeros = new LinkedHashSet<>();
+
+    void agregar(int numeroBloque) {
+        numeros.add(numeroBloque);
+    }
+
+    boolean contiene(int numeroBloque) {
+        return numeros.contains(numeroBloque);
+    }
+
+    boolean remover(int numeroBloque) {
+        return numeros.remove(numeroBloque);
+    }
+
+    void removerMasAntiguo() {
+        Iterator<Integer> iterador = numeros.iterator();
+        if (iterador.hasNext()) {
+            iterador.next();
+            iterador.remove();
+        }
+    }
+
+    int getTamaño() {
+        return numeros.size();
+    }
+}
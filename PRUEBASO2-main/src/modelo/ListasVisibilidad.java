@@ -0,0 +1,102 @@
+package modelo;
+
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.NoSuchElementException;
+
+/**
+ * Listas de visibilidad de los hijos de un directorio: los públicos por un
+ * lado y los privados de cada propietario por otro (conjuntos disjuntos). Lo
+ * que ve un usuario es la unión de los públicos con sus privados, así que se
+ * recorre sin evaluar permisos hijo por hijo. Agregar, quitar y cambiar la
+ * visibilidad o el dueño de un hijo es O(1)
+ */
+class ListasVisibilidad<T> {
+    private final LinkedHashSet<T> publicos;
+    private final HashMap<String, LinkedHashSet<T>> privadosPorPropietario;
+
+    ListasVisibilidad() {
+        this.publicos = new LinkedHashSet<>();
+        this.privadosPorPropietario = new HashMap<>();
+    }
+
+    void agregar(T elemento, String propietario, boolean esPublico) {
+        if (esPublico) {
+            publicos.add(elemento);
+        } else {
+            privadosPorPropietario.computeIfAbsent(propietario, k -> new LinkedHashSet<>()).add(elemento);
+        }
+    }
+
+    void remover(T elemento, String propietario, boolean esPublico) {
+        if (esPublico) {
+            publicos.remove(elemento);
+            return;
+        }
+        LinkedHashSet<T> privados = privadosPorPropietario.get(propietario);
+        if (privados != null) {
+            privados.remove(elemento);
+            if (privados.isEmpty()) {
+                privadosPorPropietario.remove(propietario);
+            }
+        }
+    }
+
+    void cambiarVisibilidad(T elemento, String propietario, boolean eraPublico, boolean esPublico) {
+        if (eraPublico != esPublico) {
+            remover(elemento, propietario, eraPublico);
+            agregar(elemento, propietario, esPublico);
+        }
+    }
+
+    void cambiarPropietario(T elemento, String anterior, String nuevo, boolean esPublico) {
+        if (!esPublico) {
+            remover(elemento, anterior, false);
+            agregar(elemento, nuevo, false);
+        }
+    }
+
+    /**
+     * Vista de lo que ve el usuario: primero los públicos y luego sus privados,
+     * cada grupo en orden de llegada
+     */
+    Collection<T> visiblesPara(String usuario) {
+        return new AbstractCollection<T>() {
+            @Override
+            public Iterator<T> iterator() {
+                LinkedHashSet<T> privados = privadosPorPropietario.get(usuario);
+                Iterator<T> dePublicos = publicos.iterator();
+                Iterator<T> dePrivados = privados != null
+                    ? privados.iterator()
+                    : Collections.emptyIterator();
+                return new Iterator<T>() {
+                    @Override
+                    public boolean hasNext() {
+                        return dePublicos.hasNext() || dePrivados.hasNext();
+                    }
+
+                    @Override
+                    public T next() {
+                        if (dePublicos.hasNext()) {
+                            return dePublicos.next();
+                        }
+                        if (dePrivados.hasNext()) {
+                            return dePrivados.next();
+                        }
+                        throw new NoSuchElementException();
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                LinkedHashSet<T> privados = privadosPorPropietario.get(usuario);
+                return publicos.size() + (privados != null ? privados.size() : 0);
+            }
+        };
+    }
+}
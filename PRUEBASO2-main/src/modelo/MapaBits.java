@@ -0,0 +1,233 @@
+package modelo;
+
+import java.util.Arrays;
+
+/**
+ * Mapa de bits del espacio libre del disco empaquetado en palabras de 64 bits.
+ * Un bit en 1 indica bloque ocupado. Dos niveles de resumen marcan las
+ * palabras completamente ocupadas y las completamente libres, para saltarlas
+ * sin recorrerlas al buscar un bloque libre o uno ocupado.
+ */
+public class MapaBits {
+    private static final long PALABRA_LLENA = -1L;
+
+    private final long[] palabras;
+    private final long[] resumen;      // Bit i en 1 si palabras[i] está llena
+    private final long[] resumenVacias; // Bit i en 1 si palabras[i] está vacía
+    private final int totalBits;
+    private int bitsOcupados;
+
+    public MapaBits(int totalBits) {
+        this.totalBits = totalBits;
+        this.palabras = new long[(totalBits + 63) >>> 6];
+        this.resumen = new long[(palabras.length + 63) >>> 6];
+        this.resumenVacias = new long[resumen.length];
+        this.bitsOcupados = 0;
+        // Todas las palabras empiezan vacías; las posiciones de más en el
+        // último grupo también figuran vacías para que nunca se elijan
+        Arrays.fill(resumenVacias, PALABRA_LLENA);
+
+        // Los bits sobrantes de la última palabra se marcan como ocupados
+        // para que nunca aparezcan como libres en las búsquedas
+        int sobrantes = (palabras.length << 6) - totalBits;
+        if (sobrantes > 0) {
+            palabras[palabras.length - 1] = PALABRA_LLENA << (64 - sobrantes);
+            actualizarResumen(palabras.length - 1);
+        }
+    }
+
+    /**
+     * Indica si el bit está marcado como ocupado
+     */
+    public boolean estaOcupado(int indice) {
+        return (palabras[indice >>> 6] & (1L << indice)) != 0;
+    }
+
+    /**
+     * Marca un bit como ocupado. Devuelve false si ya lo estaba
+     */
+    public boolean ocupar(int indice) {
+        int palabra = indice >>> 6;
+        long mascara = 1L << indice;
+        if ((palabras[palabra] & mascara) != 0) {
+            return false;
+        }
+        palabras[palabra] |= mascara;
+        bitsOcupados++;
+        actualizarResumen(palabra);
+        return true;
+    }
+
+    /**
+     * Marca un bit como libre. Devuelve false si ya lo estaba
+     */
+    public boolean liberar(int indice) {
+        int palabra = indice >>> 6;
+        long mascara = 1L << indice;
+        if ((palabras[palabra] & mascara) == 0) {
+            return false;
+        }
+        palabras[palabra] &= ~mascara;
+        bitsOcupados--;
+        actualizarResumen(palabra);
+        return true;
+    }
+
+    /**
+     * Marca como ocupado el rango [inicio, inicio + longitud) palabra por palabra
+     */
+    public void ocuparRango(int inicio, int longitud) {
+        int fin = inicio + longitud;
+        while (inicio < fin) {
+            int palabra = inicio >>> 6;
+            int limite = Math.min(fin, (palabra + 1) << 6);
+            long mascara = mascaraRango(inicio, limite);
+            bitsOcupados += Long.bitCount(mascara & ~palabras[palabra]);
+            palabras[palabra] |= mascara;
+            actualizarResumen(palabra);
+            inicio = limite;
+        }
+    }
+
+    /**
+     * Marca como libre el rango [inicio, inicio + longitud) palabra por palabra
+     */
+    public void liberarRango(int inicio, int longitud) {
+        int fin = inicio + longitud;
+        while (inicio < fin) {
+            int palabra = inicio >>> 6;
+            int limite = Math.min(fin, (palabra + 1) << 6);
+            long mascara = mascaraRango(inicio, limite);
+            bitsOcupados -= Long.bitCount(mascara & palabras[palabra]);
+            palabras[palabra] &= ~mascara;
+            actualizarResumen(palabra);
+            inicio = limite;
+        }
+    }
+
+    /**
+     * Devuelve el primer bit libre a partir de desde, o -1 si no hay
+     */
+    public int siguienteLibre(int desde) {
+        if (desde < 0) {
+            desde = 0;
+        }
+        if (desde >= totalBits) {
+            return -1;
+        }
+
+        int palabra = desde >>> 6;
+        long libres = ~palabras[palabra] & (PALABRA_LLENA << desde);
+        if (libres != 0) {
+            return (palabra << 6) + Long.numberOfTrailingZeros(libres);
+        }
+
+        // Saltar palabras llenas usando el resumen
+        palabra = siguientePalabraNoLlena(palabra + 1);
+        if (palabra < 0) {
+            return -1;
+        }
+        return (palabra << 6) + Long.numberOfTrailingZeros(~palabras[palabra]);
+    }
+
+    /**
+     * Devuelve el primer bit ocupado a partir de desde, o totalBits si no hay
+     */
+    public int siguienteOcupado(int desde) {
+        if (desde < 0) {
+            desde = 0;
+        }
+        if (desde >= totalBits) {
+            return totalBits;
+        }
+
+        int palabra = desde >>> 6;
+        long ocupados = palabras[palabra] & (PALABRA_LLENA << desde);
+        if (ocupados != 0) {
+            return Math.min(totalBits, (palabra << 6) + Long.numberOfTrailingZeros(ocupados));
+        }
+
+        // Saltar palabras vacías usando el resumen
+        palabra = siguientePalabraNoVacia(palabra + 1);
+        if (palabra < 0) {
+            return totalBits;
+        }
+        return Math.min(totalBits, (palabra << 6) + Long.numberOfTrailingZeros(palabras[palabra]));
+    }
+
+    /**
+     * Busca en el resumen la primera palabra con algún bit libre
+     */
+    private int siguientePalabraNoLlena(int desde) {
+        if (desde >= palabras.length) {
+            return -1;
+        }
+
+        int grupo = desde >>> 6;
+        long noLlenas = ~resumen[grupo] & (PALABRA_LLENA << desde);
+        while (noLlenas == 0) {
+            grupo++;
+            if (grupo >= resumen.length) {
+                return -1;
+            }
+            noLlenas = ~resumen[grupo];
+        }
+
+        int palabra = (grupo << 6) + Long.numberOfTrailingZeros(noLlenas);
+        return palabra < palabras.length ? palabra : -1;
+    }
+
+    /**
+     * Busca en el resumen de vacías la primera palabra con algún bit ocupado
+     */
+    private int siguientePalabraNoVacia(int desde) {
+        if (desde >= palabras.length) {
+            return -1;
+        }
+
+        int grupo = desde >>> 6;
+        long noVacias = ~resumenVacias[grupo] & (PALABRA_LLENA << desde);
+        while (noVacias == 0) {
+            grupo++;
+            if (grupo >= resumenVacias.length) {
+                return -1;
+            }
+            noVacias = ~resumenVacias[grupo];
+        }
+
+        int palabra = (grupo << 6) + Long.numberOfTrailingZeros(noVacias);
+        return palabra < palabras.length ? palabra : -1;
+    }
+
+    private void actualizarResumen(int palabra) {
+        if (palabras[palabra] == PALABRA_LLENA) {
+            resumen[palabra >>> 6] |= 1L << palabra;
+        } else {
+            resumen[palabra >>> 6] &= ~(1L << palabra);
+        }
+        if (palabras[palabra] == 0) {
+            resumenVacias[palabra >>> 6] |= 1L << palabra;
+        } else {
+            resumenVacias[palabra >>> 6] &= ~(1L << palabra);
+        }
+    }
+
+    private static long mascaraRango(int inicio, int limite) {
+        long desdeInicio = PALABRA_LLENA << inicio;
+        long hastaLimite = (limite & 63) == 0 ? PALABRA_LLENA : ~(PALABRA_LLENA << limite);
+        return desdeInicio & hastaLimite;
+    }
+
+    // Getters
+    public int getTotalBits() {
+        return totalBits;
+    }
+
+    public int getOcupados() {
+        return bitsOcupados;
+    }
+
+    public int getLibres() {
+        return totalBits - bitsOcupados;
+    }
+}
@@ -1,183 +1,327 @@
 package modelo;
 
-import java.util.LinkedList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Clase que implementa el planificador de disco con diferentes políticas
  */
 public class Planificador {
     public enum PoliticaplanificacionDisco {
-        FIFO, SSTF, SCAN, CSCAN
+        FIFO, SSTF, SCAN, CSCAN, LOOK, CLOOK, DEADLINE, EQUITATIVA
     }
 
+    /** Solicitudes que Deadline atiende en orden de cilindro antes de revisar vencimientos */
+    public static final int LOTE_DEADLINE = 16;
+
     private PoliticaplanificacionDisco politicaActual;
-    private int posicionCabezal;  // Para SCAN y CSCAN
-    private boolean direccionAdelante;  // Para SCAN y CSCAN
+    private int posicionCabezal;
+    private boolean direccionAdelante;  // Para SCAN y LOOK
     private int totalBloques;
+    private final long[] movimientoPorPolitica;   // Cilindros recorridos por el cabezal
+    private final long[] atendidasPorPolitica;
+    private long vencimientoLecturaMs;
+    private long vencimientoEscrituraMs;
+    private int loteRestante;                     // Para DEADLINE
+    private long saltosPorVencimiento;
+    private int presupuestoTurno;                 // Bloques por turno en EQUITATIVA
+    private String usuarioEnTurno;
+    private int presupuestoRestante;
+    private final Map<String, Long> bloquesPorUsuario;
 
     public Planificador(PoliticaplanificacionDisco politica, int totalBloques) {
         this.politicaActual = politica;
         this.posicionCabezal = 0;
         this.direccionAdelante = true;
         this.totalBloques = totalBloques;
+        this.movimientoPorPolitica = new long[PoliticaplanificacionDisco.values().length];
+        this.atendidasPorPolitica = new long[PoliticaplanificacionDisco.values().length];
+        this.vencimientoLecturaMs = 500;
+        this.vencimientoEscrituraMs = 5000;
+        this.loteRestante = 0;
+        this.saltosPorVencimiento = 0;
+        this.presupuestoTurno = 32;
+        this.usuarioEnTurno = null;
+        this.presupuestoRestante = 0;
+        this.bloquesPorUsuario = new HashMap<>();
     }
 
     /**
-     * Ordena la cola de solicitudes según la política establecida
+     * Extrae de la cola la siguiente solicitud a atender según la política
+     * establecida y mueve el cabezal a lo largo de su tramo, sumando el recorrido a la
+     * política. Las lecturas anticipadas solo se consideran cuando no queda
+     * ninguna otra solicitud
      */
-    public void planificar(ColaIO cola) {
-        if (cola.estaVacia()) {
-            return;
+    public SolicitudIO extraerSiguiente(ColaIO cola) {
+        IndiceCilindros indice = cola.getIndiceAtendible();
+        if (indice.estaVacio()) {
+            return null;
         }
 
+        SolicitudIO siguiente = null;
         switch (politicaActual) {
             case FIFO:
-                // No requiere reorden
+                siguiente = indice.primeraEnLlegar();
                 break;
             case SSTF:
-                planificarSSTF(cola);
+                siguiente = elegirSSTF(indice);
                 break;
             case SCAN:
-                planificarSCAN(cola);
+                siguiente = elegirBarrido(indice, true);
                 break;
             case CSCAN:
-                planificarCSCAN(cola);
+                siguiente = elegirBarridoCircular(indice, true);
+                break;
+            case LOOK:
+                siguiente = elegirBarrido(indice, false);
+                break;
+            case CLOOK:
+                siguiente = elegirBarridoCircular(indice, false);
+                break;
+            case DEADLINE:
+                siguiente = elegirDeadline(indice);
+                break;
+            case EQUITATIVA:
+                siguiente = elegirEquitativa(indice);
                 break;
         }
+
+        indice.remover(siguiente);
+        registrarAtencion(siguiente);
+        return siguiente;
     }
 
     /**
-     * FIFO (First In First Out): No hace nada, se atiende en orden de llegada
+     * Lleva el cabezal sobre el tramo de una solicitud que se atiende y la
+     * cuenta. Lo usa también quien atiende solicitudes sin pedirle al
+     * planificador que las elija (la descarga síncrona del buffer)
      */
-    private void planificarFIFO(ColaIO cola) {
-        // La cola ya está en orden FIFO
+    public void registrarAtencion(SolicitudIO solicitud) {
+        moverCabezal(solicitud.getCilindroAcceso());
+        // El cabezal queda sobre el último bloque transferido
+        moverCabezal(solicitud.getCilindroFin() - 1);
+        atendidasPorPolitica[politicaActual.ordinal()]++;
+        bloquesPorUsuario.merge(solicitud.getUsuario(), (long) solicitud.getCantidadBloques(), Long::sum);
     }
 
     /**
      * SSTF (Shortest Seek Time First): 
-     * Atiende la solicitud con el cilindro más cercano
-     */
-    private void planificarSSTF(ColaIO cola) {
-        LinkedList<SolicitudIO> solicitudes = cola.obtenerTodas();
-        if (solicitudes.isEmpty()) return;
-
-        // Ordenamiento simple (burbuja adaptado) - O(n²) pero suficiente para el proyecto
-        for (int i = 0; i < solicitudes.size(); i++) {
-            for (int j = 0; j < solicitudes.size() - 1 - i; j++) {
-                int distancia1 = Math.abs(solicitudes.get(j).getCilindroAcceso() - posicionCabezal);
-                int distancia2 = Math.abs(solicitudes.get(j + 1).getCilindroAcceso() - posicionCabezal);
-
-                if (distancia1 > distancia2) {
-                    // Intercambiar
-                    SolicitudIO temp = solicitudes.get(j);
-                    solicitudes.set(j, solicitudes.get(j + 1));
-                    solicitudes.set(j + 1, temp);
-                }
-            }
+     * Atiende la solicitud con el cilindro más cercano; a igual distancia,
+     * la que llegó primero
+     */
+    private SolicitudIO elegirSSTF(IndiceCilindros indice) {
+        SolicitudIO adelante = indice.primeraDesde(posicionCabezal);
+        SolicitudIO atras = indice.primeraAntesDe(posicionCabezal);
+        if (adelante == null || atras == null) {
+            return adelante != null ? adelante : atras;
         }
 
-        // Actualizar posición del cabezal
-        if (!solicitudes.isEmpty()) {
-            posicionCabezal = solicitudes.getFirst().getCilindroAcceso();
+        int distanciaAdelante = adelante.getCilindroAcceso() - posicionCabezal;
+        int distanciaAtras = posicionCabezal - atras.getCilindroAcceso();
+        if (distanciaAdelante != distanciaAtras) {
+            return distanciaAdelante < distanciaAtras ? adelante : atras;
         }
+        return adelante.getOrdenLlegada() < atras.getOrdenLlegada() ? adelante : atras;
     }
 
     /**
-     * SCAN (Barrido del cabezal):
-     * El cabezal se mueve en una dirección hasta el final, luego regresa
+     * SCAN y LOOK (ascensor): atienden en la dirección actual el cilindro
+     * pendiente más cercano, incluido el del cabezal. Cuando no queda ninguno
+     * en esa dirección, SCAN lleva el cabezal hasta el borde del disco antes
+     * de invertirla; LOOK la invierte en el sitio
      */
-    private void planificarSCAN(ColaIO cola) {
-        LinkedList<SolicitudIO> solicitudes = cola.obtenerTodas();
-        if (solicitudes.isEmpty()) return;
+    private SolicitudIO elegirBarrido(IndiceCilindros indice, boolean hastaElBorde) {
+        SolicitudIO siguiente = siguienteEnDireccion(indice);
+        if (siguiente == null) {
+            if (hastaElBorde) {
+                moverCabezal(direccionAdelante ? ultimoCilindro() : 0);
+            }
+            direccionAdelante = !direccionAdelante;
+            siguiente = siguienteEnDireccion(indice);
+        }
+        return siguiente;
+    }
 
-        // Separar solicitudes adelante y atrás de la posición actual
-        LinkedList<SolicitudIO> adelante = new LinkedList<>();
-        LinkedList<SolicitudIO> atras = new LinkedList<>();
+    private SolicitudIO siguienteEnDireccion(IndiceCilindros indice) {
+        return direccionAdelante
+                ? indice.primeraDesde(posicionCabezal)
+                : indice.primeraHasta(posicionCabezal);
+    }
 
-        for (SolicitudIO s : solicitudes) {
-            if (s.getCilindroAcceso() >= posicionCabezal) {
-                adelante.add(s);
+    /**
+     * C-SCAN y C-LOOK: solo atienden hacia adelante. Al no quedar nada
+     * adelante, C-SCAN recorre hasta el último cilindro y regresa al 0 (el
+     * retorno también cuenta como recorrido); C-LOOK salta directo al menor
+     * cilindro pendiente
+     */
+    private SolicitudIO elegirBarridoCircular(IndiceCilindros indice, boolean hastaElBorde) {
+        SolicitudIO siguiente = indice.primeraDesde(posicionCabezal);
+        if (siguiente == null) {
+            if (hastaElBorde) {
+                moverCabezal(ultimoCilindro());
+                moverCabezal(0);
+            }
+            siguiente = indice.primeraDelMenorCilindro();
+        }
+        return siguiente;
+    }
+
+    /**
+     * Deadline: atiende lotes de hasta LOTE_DEADLINE solicitudes en orden de
+     * cilindro ascendente (como C-LOOK). Al empezar cada lote revisa la
+     * lectura y la escritura más antiguas; si alguna venció, el lote arranca
+     * desde ella, así ninguna espera indefinidamente
+     */
+    private SolicitudIO elegirDeadline(IndiceCilindros indice) {
+        SolicitudIO siguiente = loteRestante > 0 ? indice.primeraDesde(posicionCabezal) : null;
+        if (siguiente == null) {
+            siguiente = vencidaMasUrgente(indice, System.currentTimeMillis());
+            if (siguiente != null) {
+                saltosPorVencimiento++;
             } else {
-                atras.add(s);
+                siguiente = elegirBarridoCircular(indice, false);
             }
+            loteRestante = LOTE_DEADLINE;
         }
+        loteRestante--;
+        return siguiente;
+    }
 
-        // Ordenar ambas listas
-        ordenarPorCilindro(adelante);
-        ordenarPorCilindro(atras);
+    /**
+     * Entre la lectura y la escritura más antiguas, la que venció primero, o
+     * null si ninguna venció todavía
+     */
+    private SolicitudIO vencidaMasUrgente(IndiceCilindros indice, long ahora) {
+        SolicitudIO lectura = indice.primeraLectura();
+        SolicitudIO escritura = indice.primeraEscritura();
+        long limiteLectura = lectura != null
+                ? lectura.getTiempoLlegada() + vencimientoLecturaMs : Long.MAX_VALUE;
+        long limiteEscritura = escritura != null
+                ? escritura.getTiempoLlegada() + vencimientoEscrituraMs : Long.MAX_VALUE;
 
-        // Limpiar la cola original y reconstruir según la dirección
-        solicitudes.clear();
+        if (Math.min(limiteLectura, limiteEscritura) > ahora) {
+            return null;
+        }
+        return limiteLectura <= limiteEscritura ? lectura : escritura;
+    }
 
-        if (direccionAdelante) {
-            solicitudes.addAll(adelante);
-            solicitudes.addAll(atras);
-            if (!atras.isEmpty()) {
-                direccionAdelante = false;
-            }
-        } else {
-            // Invertir atras para ir hacia atrás
-            LinkedList<SolicitudIO> atrasInvertida = new LinkedList<>();
-            for (int i = atras.size() - 1; i >= 0; i--) {
-                atrasInvertida.add(atras.get(i));
-            }
-            solicitudes.addAll(atrasInvertida);
-            solicitudes.addAll(adelante);
-            if (!adelante.isEmpty()) {
-                direccionAdelante = true;
-            }
+    /**
+     * Reparto equitativo (estilo CFQ/BFQ): cada usuario con solicitudes
+     * pendientes tiene un turno con un presupuesto de bloques y los turnos
+     * rotan en orden circular. Dentro del turno se atiende en orden de
+     * cilindro ascendente (como C-LOOK). Un usuario que vacía su cola pierde
+     * el resto del turno
+     */
+    private SolicitudIO elegirEquitativa(IndiceCilindros indice) {
+        String usuario = indice.getUsuarioEnTurno();
+        if (!usuario.equals(usuarioEnTurno)) {
+            usuarioEnTurno = usuario;
+            presupuestoRestante = presupuestoTurno;
+        } else if (presupuestoRestante <= 0) {
+            indice.rotarTurno();
+            usuarioEnTurno = indice.getUsuarioEnTurno();
+            presupuestoRestante = presupuestoTurno;
         }
 
-        // Actualizar posición
-        if (!solicitudes.isEmpty()) {
-            posicionCabezal = solicitudes.getFirst().getCilindroAcceso();
+        IndiceCilindros propias = indice.getSubindice(usuarioEnTurno);
+        SolicitudIO siguiente = propias.primeraDesde(posicionCabezal);
+        if (siguiente == null) {
+            siguiente = propias.primeraDelMenorCilindro();
         }
+        presupuestoRestante -= siguiente.getCantidadBloques();
+        return siguiente;
+    }
+
+    private void moverCabezal(int cilindro) {
+        movimientoPorPolitica[politicaActual.ordinal()] += Math.abs(cilindro - posicionCabezal);
+        posicionCabezal = cilindro;
+    }
+
+    private int ultimoCilindro() {
+        return Math.max(totalBloques - 1, posicionCabezal);
     }
 
     /**
-     * CSCAN (Circular SCAN): 
-     * Similar a SCAN pero solo va en una dirección y regresa al inicio
+     * Cilindros recorridos por el cabezal mientras estuvo activa la política
      */
-    private void planificarCSCAN(ColaIO cola) {
-        LinkedList<SolicitudIO> solicitudes = cola.obtenerTodas();
-        if (solicitudes.isEmpty()) return;
+    public long getMovimientoCabezal(PoliticaplanificacionDisco politica) {
+        return movimientoPorPolitica[politica.ordinal()];
+    }
 
-        LinkedList<SolicitudIO> adelante = new LinkedList<>();
-        LinkedList<SolicitudIO> atras = new LinkedList<>();
+    public long getSolicitudesAtendidas(PoliticaplanificacionDisco politica) {
+        return atendidasPorPolitica[politica.ordinal()];
+    }
 
-        for (SolicitudIO s : solicitudes) {
-            if (s.getCilindroAcceso() >= posicionCabezal) {
-                adelante.add(s);
-            } else {
-                atras.add(s);
+    /**
+     * Recorrido medio del cabezal por solicitud atendida con la política
+     */
+    public double getMovimientoPromedio(PoliticaplanificacionDisco politica) {
+        long atendidas = atendidasPorPolitica[politica.ordinal()];
+        return atendidas > 0 ? (double) movimientoPorPolitica[politica.ordinal()] / atendidas : 0;
+    }
+
+    /**
+     * Política con menor recorrido medio entre las que ya atendieron
+     * solicitudes, o null si ninguna lo hizo
+     */
+    public PoliticaplanificacionDisco getPoliticaMenorRecorrido() {
+        PoliticaplanificacionDisco mejor = null;
+        for (PoliticaplanificacionDisco politica : PoliticaplanificacionDisco.values()) {
+            if (atendidasPorPolitica[politica.ordinal()] > 0
+                    && (mejor == null || getMovimientoPromedio(politica) < getMovimientoPromedio(mejor))) {
+                mejor = politica;
             }
         }
+        return mejor;
+    }
 
-        ordenarPorCilindro(adelante);
-        ordenarPorCilindro(atras);
+    /**
+     * Veces que Deadline interrumpió el barrido para atender una solicitud vencida
+     */
+    public long getSaltosPorVencimiento() {
+        return saltosPorVencimiento;
+    }
 
-        solicitudes.clear();
-        solicitudes.addAll(adelante);
-        solicitudes.addAll(atras);
+    /**
+     * Plazos de Deadline desde la llegada; las lecturas deberían vencer antes
+     * que las escrituras
+     */
+    public void setVencimientos(long lecturaMs, long escrituraMs) {
+        this.vencimientoLecturaMs = Math.max(0, lecturaMs);
+        this.vencimientoEscrituraMs = Math.max(0, escrituraMs);
+    }
 
-        if (!solicitudes.isEmpty()) {
-            posicionCabezal = solicitudes.getFirst().getCilindroAcceso();
-        }
+    public long getVencimientoLecturaMs() {
+        return vencimientoLecturaMs;
+    }
+
+    public long getVencimientoEscrituraMs() {
+        return vencimientoEscrituraMs;
     }
 
     /**
-     * Ordena una lista de solicitudes por número de cilindro
+     * Bloques que cada turno de EQUITATIVA puede atender antes de ceder el disco
      */
-    private void ordenarPorCilindro(LinkedList<SolicitudIO> lista) {
-        for (int i = 0; i < lista.size(); i++) {
-            for (int j = 0; j < lista.size() - 1 - i; j++) {
-                if (lista.get(j).getCilindroAcceso() > lista.get(j + 1).getCilindroAcceso()) {
-                    SolicitudIO temp = lista.get(j);
-                    lista.set(j, lista.get(j + 1));
-                    lista.set(j + 1, temp);
-                }
-            }
-        }
+    public void setPresupuestoTurno(int bloques) {
+        this.presupuestoTurno = Math.max(1, bloques);
+    }
+
+    public int getPresupuestoTurno() {
+        return presupuestoTurno;
+    }
+
+    /**
+     * Bloques atendidos por usuario (con cualquier política)
+     */
+    public Map<String, Long> getBloquesPorUsuario() {
+        return new HashMap<>(bloquesPorUsuario);
+    }
+
+    public void reiniciarMovimiento() {
+        Arrays.fill(movimientoPorPolitica, 0);
+        Arrays.fill(atendidasPorPolitica, 0);
+        bloquesPorUsuario.clear();
     }
 
     // Getters y Setters
@@ -185,10 +329,15 @@ public class Planificador {
         return politicaActual;
     }
 
+    /**
+     * Cambia la política; el cabezal se queda donde está para que el recorrido
+     * acumulado de cada política sea comparable
+     */
     public void setPoliticaActual(PoliticaplanificacionDisco politica) {
         this.politicaActual = politica;
-        this.posicionCabezal = 0;
         this.direccionAdelante = true;
+        this.loteRestante = 0;
+        this.usuarioEnTurno = null;
     }
 
     public int getPosicionCabezal() {
@@ -204,6 +353,7 @@ public class Planificador {
         return "Planificador{" +
                 "politica=" + politicaActual +
                 ", posicionCabezal=" + posicionCabezal +
+                ", movimiento=" + movimientoPorPolitica[politicaActual.ordinal()] +
                 '}';
     }
 }
@@ -0,0 +1,109 @@
+package modelo;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Región de memoria fuera del heap, reservada una sola vez y dividida en
+ * marcos de tamaño fijo, uno por bloque del buffer. Los BloqueBlog también se
+ * crean de antemano, cada uno atado a su marco, y se reciclan con una pila de
+ * libres: insertar un bloque no reserva memoria y el recolector de basura no
+ * tiene que recorrer un arreglo por bloque.
+ *
+ * Un ByteBuffer directo no puede superar 2 GB, así que la región se reparte
+ * en segmentos de hasta 1 GB con una cantidad entera de marcos
+ */
+class PoolMarcos {
+    private static final long TAMAÑO_MAXIMO_SEGMENTO = 1L << 30;
+
+    private final ByteBuffer[] segmentos;
+    private final int tamañoMarco;
+    private final int marcosPorSegmento;
+    private final int cantidadMarcos;
+    private final Buffer.BloqueBlog[] libres;
+    private int cantidadLibres;
+
+    PoolMarcos(long capacidadBytes, int tamañoMarco) {
+        if (tamañoMarco <= 0) {
+            throw new IllegalArgumentException("El tamaño de marco debe ser positivo");
+        }
+        long marcos = capacidadBytes / tamañoMarco;
+        if (marcos < 1 || marcos > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Capacidad fuera de rango: " + capacidadBytes + " bytes");
+        }
+
+        this.tamañoMarco = tamañoMarco;
+        this.cantidadMarcos = (int) marcos;
+        this.marcosPorSegmento = (int) Math.max(1, Math.min(cantidadMarcos, TAMAÑO_MAXIMO_SEGMENTO / tamañoMarco));
+        int cantidadSegmentos = (cantidadMarcos + marcosPorSegmento - 1) / marcosPorSegmento;
+        this.segmentos = new ByteBuffer[cantidadSegmentos];
+        for (int s = 0; s < cantidadSegmentos; s++) {
+            int marcosEnSegmento = Math.min(marcosPorSegmento, cantidadMarcos - s * marcosPorSegmento);
+            segmentos[s] = ByteBuffer.allocateDirect(marcosEnSegmento * tamañoMarco);
+        }
+
+        this.libres = new Buffer.BloqueBlog[cantidadMarcos];
+        for (int i = 0; i < cantidadMarcos; i++) {
+            Buffer.BloqueBlog bloque = new Buffer.BloqueBlog(-1, null);
+            bloque.pool = this;
+            bloque.marcoPool = cantidadMarcos - 1 - i;
+            libres[i] = bloque;
+        }
+        this.cantidadLibres = cantidadMarcos;
+    }
+
+    /**
+     * Toma un BloqueBlog libre con su marco
+     */
+    Buffer.BloqueBlog tomar() {
+        if (cantidadLibres == 0) {
+            throw new IllegalStateException("No quedan marcos libres en el pool");
+        }
+        Buffer.BloqueBlog bloque = libres[--cantidadLibres];
+        libres[cantidadLibres] = null;
+        return bloque;
+    }
+
+    void devolver(Buffer.BloqueBlog bloque) {
+        libres[cantidadLibres++] = bloque;
+    }
+
+    /**
+     * Copia los datos al marco y devuelve cuántos bytes se guardaron
+     */
+    int escribir(int marco, byte[] datos) {
+        if (datos == null) {
+            return 0;
+        }
+        int longitud = Math.min(datos.length, tamañoMarco);
+        segmento(marco).put(desplazamiento(marco), datos, 0, longitud);
+        return longitud;
+    }
+
+    /**
+     * Copia los primeros bytes del marco al destino
+     */
+    void leer(int marco, byte[] destino, int longitud) {
+        segmento(marco).get(desplazamiento(marco), destino, 0, Math.min(longitud, destino.length));
+    }
+
+    private ByteBuffer segmento(int marco) {
+        return segmentos[marco / marcosPorSegmento];
+    }
+
+    private int desplazamiento(int marco) {
+        return (marco % marcosPorSegmento) * tamañoMarco;
+    }
+
+    // Getters
+    int getCantidadMarcos() {
+        return cantidadMarcos;
+    }
+
+    int getTamañoMarco() {
+        return tamañoMarco;
+    }
+
+    long getCapacidadBytes() {
+        return (long) cantidadMarcos * tamañoMarco;
+    }
+}
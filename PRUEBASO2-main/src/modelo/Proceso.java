@@ -10,7 +10,7 @@ public class Proceso {
 
     private int idProceso;
     private String nombreUsuario;
-    private EstadoProceso estado;
+    private volatile EstadoProceso estado;  // Lo cambian quien envía la E/S y el despachador
     private SolicitudIO solicitudActual;
     private long tiempoCreacion;
     private long tiempoFinalizacion;
@@ -0,0 +1,71 @@
+package modelo;
+
+import java.util.function.Consumer;
+
+/**
+ * 2Q (versión completa de Johnson y Shasha). Los bloques nuevos entran a una
+ * cola FIFO A1in; al salir de ella solo se recuerda su número en el fantasma
+ * A1out. Un bloque que se vuelve a pedir estando en A1out pasa a Am, que se
+ * administra con LRU. Los recorridos secuenciales atraviesan A1in sin tocar Am
+ */
+class Reemplazo2Q implements EstrategiaReemplazo {
+    private final int limiteEntrada;      // Kin: ~25% de la capacidad
+    private final int limiteFantasma;     // Kout: ~50% de la capacidad
+    private final ListaBloques a1in = new ListaBloques();
+    private final ListaBloques am = new ListaBloques();
+    private final ListaFantasma a1out = new ListaFantasma();
+
+    Reemplazo2Q(int capacidad) {
+        this.limiteEntrada = Math.max(1, capacidad / 4);
+        this.limiteFantasma = Math.max(1, capacidad / 2);
+    }
+
+    @Override
+    public void alInsertar(Buffer.BloqueBlog bloque) {
+        if (a1out.remover(bloque.getNumeroBloque())) {
+            am.agregarAlFinal(bloque);
+        } else {
+            a1in.agregarAlFinal(bloque);
+        }
+    }
+
+    @Override
+    public void alAcceder(Buffer.BloqueBlog bloque) {
+        // Los aciertos en A1in no cambian nada: se consideran correlacionados
+        if (am.contiene(bloque)) {
+            am.moverAlFinal(bloque);
+        }
+    }
+
+    @Override
+    public void alRemover(Buffer.BloqueBlog bloque) {
+        bloque.lista.remover(bloque);
+    }
+
+    @Override
+    public void alDesalojar(Buffer.BloqueBlog bloque) {
+        if (a1in.contiene(bloque)) {
+            a1in.remover(bloque);
+            a1out.agregar(bloque.getNumeroBloque());
+            if (a1out.getTamaño() > limiteFantasma) {
+                a1out.removerMasAntiguo();
+            }
+        } else {
+            am.remover(bloque);
+        }
+    }
+
+    @Override
+    public Buffer.BloqueBlog elegirVictima(int numeroEntrante) {
+        if (!a1in.estaVacia() && (a1in.getTamaño() > limiteEntrada || am.estaVacia())) {
+            return a1in.getPrimero();
+        }
+        return am.getPrimero();
+    }
+
+    @Override
+    public void recorrer(Consumer<Buffer.BloqueBlog> accion) {
+        a1in.recorrer(accion);
+        am.recorrer(accion);
+    }
+}
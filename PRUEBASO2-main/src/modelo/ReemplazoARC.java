@@ -0,0 +1,105 @@
+package modelo;
+
+import java.util.function.Consumer;
+
+/**
+ * ARC (Adaptive Replacement Cache). T1 guarda los bloques vistos una sola vez
+ * y T2 los que se volvieron a pedir; B1 y B2 recuerdan lo desalojado de cada
+ * una. Un acierto en un fantasma desplaza el objetivo p del tamaño de T1 hacia
+ * la lista que lo habría retenido, así una lectura secuencial larga solo
+ * recorre T1 y no expulsa el conjunto caliente de T2
+ */
+class ReemplazoARC implements EstrategiaReemplazo {
+    private final int capacidad;
+    private final ListaBloques t1 = new ListaBloques();
+    private final ListaBloques t2 = new ListaBloques();
+    private final ListaFantasma b1 = new ListaFantasma();
+    private final ListaFantasma b2 = new ListaFantasma();
+    private int objetivoT1;     // p: tamaño deseado de T1
+
+    ReemplazoARC(int capacidad) {
+        this.capacidad = Math.max(1, capacidad);
+        this.objetivoT1 = 0;
+    }
+
+    @Override
+    public void alFallar(int numeroBloque) {
+        if (b1.contiene(numeroBloque)) {
+            int delta = Math.max(1, b2.getTamaño() / b1.getTamaño());
+            objetivoT1 = Math.min(capacidad, objetivoT1 + delta);
+        } else if (b2.contiene(numeroBloque)) {
+            int delta = Math.max(1, b1.getTamaño() / b2.getTamaño());
+            objetivoT1 = Math.max(0, objetivoT1 - delta);
+        }
+    }
+
+    @Override
+    public void alInsertar(Buffer.BloqueBlog bloque) {
+        int numero = bloque.getNumeroBloque();
+        if (b1.remover(numero) || b2.remover(numero)) {
+            t2.agregarAlFinal(bloque);
+        } else {
+            t1.agregarAlFinal(bloque);
+        }
+        recortarFantasmas();
+    }
+
+    @Override
+    public void alAcceder(Buffer.BloqueBlog bloque) {
+        bloque.lista.remover(bloque);
+        t2.agregarAlFinal(bloque);
+    }
+
+    @Override
+    public void alRemover(Buffer.BloqueBlog bloque) {
+        bloque.lista.remover(bloque);
+    }
+
+    @Override
+    public void alDesalojar(Buffer.BloqueBlog bloque) {
+        if (t1.contiene(bloque)) {
+            t1.remover(bloque);
+            b1.agregar(bloque.getNumeroBloque());
+        } else {
+            t2.remover(bloque);
+            b2.agregar(bloque.getNumeroBloque());
+        }
+    }
+
+    @Override
+    public Buffer.BloqueBlog elegirVictima(int numeroEntrante) {
+        boolean desdeT1 = !t1.estaVacia()
+            && (t1.getTamaño() > objetivoT1
+                || (b2.contiene(numeroEntrante) && t1.getTamaño() == objetivoT1)
+                || t2.estaVacia());
+        return desdeT1 ? t1.getPrimero() : t2.getPrimero();
+    }
+
+    @Override
+    public void recorrer(Consumer<Buffer.BloqueBlog> accion) {
+        t1.recorrer(accion);
+        t2.recorrer(accion);
+    }
+
+    /**
+     * Mantiene |T1| + |B1| <= c y el total de entradas (reales y fantasma) <= 2c
+     */
+    private void recortarFantasmas() {
+        while (t1.getTamaño() + b1.getTamaño() > capacidad && b1.getTamaño() > 0) {
+            b1.removerMasAntiguo();
+        }
+        while (t1.getTamaño() + t2.getTamaño() + b1.getTamaño() + b2.getTamaño() > 2 * capacidad) {
+            if (b2.getTamaño() > 0) {
+                b2.removerMasAntiguo();
+            } else if (b1.getTamaño() > 0) {
+                b1.removerMasAntiguo();
+            } else {
+                break;
+            }
+        }
+    }
+
+    int getObjetivoT1() {
+        return objetivoT1;
+    }
+}
@@ -0,0 +1,105 @@
+package modelo;
+
+import java.util.function.Consumer;
+
+/**
+ * CLOCK (segunda oportunidad) sobre un arreglo fijo de marcos. Un acierto solo
+ * enciende el bit de referencia del marco, sin mover nodos; la manecilla
+ * recorre los marcos apagando bits hasta encontrar uno sin referencia. El
+ * BloqueBlog desalojado se recicla para el bloque entrante
+ */
+class ReemplazoClock implements EstrategiaReemplazo {
+    protected final Buffer.BloqueBlog[] marcos;
+    protected final boolean[] referenciado;
+    protected int mano;
+
+    private final int[] marcosLibres;       // Pila de índices de marcos vacíos
+    private int cantidadLibres;
+    private Buffer.BloqueBlog marcoLiberado;
+
+    ReemplazoClock(int capacidad) {
+        int cantidad = Math.max(1, capacidad);
+        this.marcos = new Buffer.BloqueBlog[cantidad];
+        this.referenciado = new boolean[cantidad];
+        this.marcosLibres = new int[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            marcosLibres[i] = cantidad - 1 - i;
+        }
+        this.cantidadLibres = cantidad;
+        this.mano = 0;
+    }
+
+    @Override
+    public void alInsertar(Buffer.BloqueBlog bloque) {
+        if (cantidadLibres == 0) {
+            throw new IllegalStateException("No quedan marcos libres en el reloj");
+        }
+        int marco = marcosLibres[--cantidadLibres];
+        marcos[marco] = bloque;
+        referenciado[marco] = false;
+        bloque.marco = marco;
+    }
+
+    @Override
+    public void alAcceder(Buffer.BloqueBlog bloque) {
+        referenciado[bloque.marco] = true;
+    }
+
+    @Override
+    public void alRemover(Buffer.BloqueBlog bloque) {
+        liberarMarco(bloque.marco);
+        bloque.marco = -1;
+    }
+
+    @Override
+    public void alDesalojar(Buffer.BloqueBlog bloque) {
+        alRemover(bloque);
+        marcoLiberado = bloque;
+    }
+
+    @Override
+    public Buffer.BloqueBlog reciclarMarco() {
+        Buffer.BloqueBlog bloque = marcoLiberado;
+        marcoLiberado = null;
+        return bloque;
+    }
+
+    @Override
+    public Buffer.BloqueBlog elegirVictima(int numeroEntrante) {
+        if (getCantidadOcupados() == 0) {
+            return null;
+        }
+        while (marcos[mano] == null || referenciado[mano]) {
+            referenciado[mano] = false;
+            avanzar();
+        }
+        Buffer.BloqueBlog victima = marcos[mano];
+        avanzar();
+        return victima;
+    }
+
+    @Override
+    public void recorrer(Consumer<Buffer.BloqueBlog> accion) {
+        // En el orden en que los visitará la manecilla
+        for (int i = 0; i < marcos.length; i++) {
+            Buffer.BloqueBlog bloque = marcos[(mano + i) % marcos.length];
+            if (bloque != null) {
+                accion.accept(bloque);
+            }
+        }
+    }
+
+    protected int getCantidadOcupados() {
+        return marcos.length - cantidadLibres;
+    }
+
+    protected void liberarMarco(int marco) {
+        marcos[marco] = null;
+        referenciado[marco] = false;
+        marcosLibres[cantidadLibres++] = marco;
+    }
+
+    protected void avanzar() {
+        mano = mano + 1 == marcos.length ? 0 : mano + 1;
+    }
+}
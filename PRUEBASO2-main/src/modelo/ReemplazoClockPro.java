@@ -0,0 +1,148 @@
+package modelo;
+
+/**
+ * Aproximación de CLOCK-Pro sobre los mismos marcos que CLOCK. Los bloques se
+ * separan en calientes y fríos; un bloque frío entra en período de prueba y,
+ * si se vuelve a referenciar durante la prueba (estando cargado o ya como
+ * fantasma), pasa a caliente. La manecilla fría elige víctimas solo entre los
+ * fríos y la caliente enfría los calientes sin referencia. La cantidad
+ * objetivo de marcos fríos se adapta según los aciertos en período de prueba.
+ *
+ * A diferencia del algoritmo original, los bloques no residentes se guardan en
+ * una lista fantasma aparte en lugar de ocupar posiciones del reloj
+ */
+class ReemplazoClockPro extends ReemplazoClock {
+    private final int capacidad;
+    private final boolean[] caliente;
+    private final boolean[] enPrueba;
+    private final ListaFantasma fantasmas = new ListaFantasma();
+    private int manoCaliente;
+    private int cantidadCalientes;
+    private int objetivoFrios;      // mc: marcos reservados para bloques fríos
+    private boolean entranteEnPrueba;
+
+    ReemplazoClockPro(int capacidad) {
+        super(capacidad);
+        this.capacidad = marcos.length;
+        this.caliente = new boolean[this.capacidad];
+        this.enPrueba = new boolean[this.capacidad];
+        this.manoCaliente = 0;
+        this.cantidadCalientes = 0;
+        this.objetivoFrios = Math.max(1, this.capacidad / 100);
+    }
+
+    @Override
+    public void alFallar(int numeroBloque) {
+        // Fallo sobre un bloque frío todavía en prueba: hacían falta más marcos fríos
+        entranteEnPrueba = fantasmas.remover(numeroBloque);
+        if (entranteEnPrueba) {
+            objetivoFrios = Math.min(capacidad, objetivoFrios + 1);
+        }
+    }
+
+    @Override
+    public void alInsertar(Buffer.BloqueBlog bloque) {
+        super.alInsertar(bloque);
+        int marco = bloque.marco;
+        if (entranteEnPrueba) {
+            caliente[marco] = true;
+            enPrueba[marco] = false;
+            cantidadCalientes++;
+            entranteEnPrueba = false;
+            enfriarExcedente();
+        } else {
+            caliente[marco] = false;
+            enPrueba[marco] = true;
+        }
+    }
+
+    @Override
+    public void alRemover(Buffer.BloqueBlog bloque) {
+        int marco = bloque.marco;
+        if (caliente[marco]) {
+            cantidadCalientes--;
+        }
+        caliente[marco] = false;
+        enPrueba[marco] = false;
+        super.alRemover(bloque);
+    }
+
+    @Override
+    public void alDesalojar(Buffer.BloqueBlog bloque) {
+        if (enPrueba[bloque.marco]) {
+            // Sigue en prueba como bloque no residente
+            fantasmas.agregar(bloque.getNumeroBloque());
+            if (fantasmas.getTamaño() > capacidad) {
+                fantasmas.removerMasAntiguo();
+            }
+        }
+        super.alDesalojar(bloque);
+    }
+
+    /**
+     * Manecilla fría: un frío referenciado en prueba se vuelve caliente, uno
+     * referenciado fuera de prueba recibe otra prueba y uno sin referencia sale
+     */
+    @Override
+    public Buffer.BloqueBlog elegirVictima(int numeroEntrante) {
+        if (getCantidadOcupados() == 0) {
+            return null;
+        }
+        while (true) {
+            if (cantidadCalientes == getCantidadOcupados()) {
+                enfriar();
+            }
+            Buffer.BloqueBlog bloque = marcos[mano];
+            if (bloque != null && !caliente[mano]) {
+                if (!referenciado[mano]) {
+                    avanzar();
+                    return bloque;
+                }
+                referenciado[mano] = false;
+                if (enPrueba[mano]) {
+                    caliente[mano] = true;
+                    enPrueba[mano] = false;
+                    cantidadCalientes++;
+                    enfriarExcedente();
+                } else {
+                    enPrueba[mano] = true;
+                }
+            }
+            avanzar();
+        }
+    }
+
+    private void enfriarExcedente() {
+        while (cantidadCalientes > capacidad - objetivoFrios) {
+            enfriar();
+        }
+    }
+
+    /**
+     * Manecilla caliente: avanza hasta enfriar un bloque caliente sin
+     * referencia. Los fríos que cruza terminan su período de prueba
+     */
+    private void enfriar() {
+        while (cantidadCalientes > 0) {
+            Buffer.BloqueBlog bloque = marcos[manoCaliente];
+            int marco = manoCaliente;
+            manoCaliente = manoCaliente + 1 == capacidad ? 0 : manoCaliente + 1;
+            if (bloque == null) {
+                continue;
+            }
+            if (caliente[marco]) {
+                if (referenciado[marco]) {
+                    referenciado[marco] = false;
+                } else {
+                    caliente[marco] = false;
+                    cantidadCalientes--;
+                    return;
+                }
+            } else if (enPrueba[marco]) {
+                // Terminó la prueba sin volver a usarse: menos marcos fríos
+                enPrueba[marco] = false;
+                objetivoFrios = Math.max(1, objetivoFrios - 1);
+            }
+        }
+    }
+}
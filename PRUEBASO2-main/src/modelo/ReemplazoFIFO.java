@@ -0,0 +1,35 @@
+package modelo;
+
+import java.util.function.Consumer;
+
+/**
+ * FIFO: desaloja el bloque que lleva más tiempo en el buffer
+ */
+class ReemplazoFIFO implements EstrategiaReemplazo {
+    private final ListaBloques llegada = new ListaBloques();
+
+    @Override
+    public void alInsertar(Buffer.BloqueBlog bloque) {
+        llegada.agregarAlFinal(bloque);
+    }
+
+    @Override
+    public void alAcceder(Buffer.BloqueBlog bloque) {
+        // Los accesos no alteran el orden de llegada
+    }
+
+    @Override
+    public void alRemover(Buffer.BloqueBlog bloque) {
+        llegada.remover(bloque);
+    }
+
+    @Override
+    public Buffer.BloqueBlog elegirVictima(int numeroEntrante) {
+        return llegada.getPrimero();
+    }
+
+    @Override
+    public void recorrer(Consumer<Buffer.BloqueBlog> accion) {
+        llegada.recorrer(accion);
+    }
+}
@@ -0,0 +1,128 @@
+package modelo;
+
+import java.util.function.Consumer;
+
+/**
+ * LFU en O(1): los bloques se agrupan en cubos por cantidad de accesos,
+ * enlazados en orden creciente. Un acceso mueve el bloque al cubo siguiente
+ * y la víctima es el más antiguo del primer cubo
+ */
+class ReemplazoLFU implements EstrategiaReemplazo {
+
+    /**
+     * Cubo con los bloques de una misma frecuencia
+     */
+    static class CuboFrecuencia {
+        final int frecuencia;
+        final ListaBloques bloques = new ListaBloques();
+        CuboFrecuencia anterior;
+        CuboFrecuencia siguiente;
+
+        CuboFrecuencia(int frecuencia) {
+            this.frecuencia = frecuencia;
+        }
+    }
+
+    private CuboFrecuencia primerCubo;
+    private CuboFrecuencia ultimoCubo;
+
+    @Override
+    public void alInsertar(Buffer.BloqueBlog bloque) {
+        int frecuencia = bloque.getContadorAccesos();
+        CuboFrecuencia cubo;
+        if (primerCubo == null || frecuencia <= primerCubo.frecuencia) {
+            // Caso habitual: los bloques nuevos entran con la menor frecuencia
+            cubo = primerCubo != null && primerCubo.frecuencia == frecuencia
+                ? primerCubo
+                : crearCuboDespues(null, frecuencia);
+        } else {
+            // Al cambiar de política se reinsertan en orden creciente de
+            // frecuencia, así que se busca desde el final
+            CuboFrecuencia previo = ultimoCubo;
+            while (previo.frecuencia > frecuencia) {
+                previo = previo.anterior;
+            }
+            cubo = previo.frecuencia == frecuencia ? previo : crearCuboDespues(previo, frecuencia);
+        }
+        cubo.bloques.agregarAlFinal(bloque);
+        bloque.cubo = cubo;
+    }
+
+    @Override
+    public void alAcceder(Buffer.BloqueBlog bloque) {
+        CuboFrecuencia actual = bloque.cubo;
+        int frecuencia = bloque.getContadorAccesos();
+        if (actual.frecuencia == frecuencia) {
+            return;
+        }
+
+        CuboFrecuencia previo = actual;
+        while (previo.siguiente != null && previo.siguiente.frecuencia < frecuencia) {
+            previo = previo.siguiente;
+        }
+        CuboFrecuencia destino = previo.siguiente;
+        if (destino == null || destino.frecuencia != frecuencia) {
+            destino = crearCuboDespues(previo, frecuencia);
+        }
+        actual.bloques.remover(bloque);
+        destino.bloques.agregarAlFinal(bloque);
+        bloque.cubo = destino;
+        quitarSiVacio(actual);
+    }
+
+    @Override
+    public void alRemover(Buffer.BloqueBlog bloque) {
+        CuboFrecuencia cubo = bloque.cubo;
+        cubo.bloques.remover(bloque);
+        bloque.cubo = null;
+        quitarSiVacio(cubo);
+    }
+
+    @Override
+    public Buffer.BloqueBlog elegirVictima(int numeroEntrante) {
+        return primerCubo != null ? primerCubo.bloques.getPrimero() : null;
+    }
+
+    @Override
+    public void recorrer(Consumer<Buffer.BloqueBlog> accion) {
+        CuboFrecuencia cubo = primerCubo;
+        while (cubo != null) {
+            CuboFrecuencia siguiente = cubo.siguiente;
+            cubo.bloques.recorrer(accion);
+            cubo = siguiente;
+        }
+    }
+
+    private CuboFrecuencia crearCuboDespues(CuboFrecuencia previo, int frecuencia) {
+        CuboFrecuencia cubo = new CuboFrecuencia(frecuencia);
+        cubo.anterior = previo;
+        cubo.siguiente = previo != null ? previo.siguiente : primerCubo;
+        if (cubo.siguiente != null) {
+            cubo.siguiente.anterior = cubo;
+        } else {
+            ultimoCubo = cubo;
+        }
+        if (previo != null) {
+            previo.siguiente = cubo;
+        } else {
+            primerCubo = cubo;
+        }
+        return cubo;
+    }
+
+    private void quitarSiVacio(CuboFrecuencia cubo) {
+        if (!cubo.bloques.estaVacia()) {
+            return;
+        }
+        if (cubo.anterior != null) {
+            cubo.anterior.siguiente = cubo.siguiente;
+        } else {
+            primerCubo = cubo.siguiente;
+        }
+        if (cubo.siguiente != null) {
+            cubo.siguiente.anterior = cubo.anterior;
+        } else {
+            ultimoCubo = cubo.anterior;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package modelo;
+
+import java.util.function.Consumer;
+
+/**
+ * LRU: cada acceso lleva el bloque al final de la lista de recencia y se
+ * desaloja el del frente
+ */
+class ReemplazoLRU implements EstrategiaReemplazo {
+    private final ListaBloques recencia = new ListaBloques();
+
+    @Override
+    public void alInsertar(Buffer.BloqueBlog bloque) {
+        recencia.agregarAlFinal(bloque);
+    }
+
+    @Override
+    public void alAcceder(Buffer.BloqueBlog bloque) {
+        recencia.moverAlFinal(bloque);
+    }
+
+    @Override
+    public void alRemover(Buffer.BloqueBlog bloque) {
+        recencia.remover(bloque);
+    }
+
+    @Override
+    public Buffer.BloqueBlog elegirVictima(int numeroEntrante) {
+        return recencia.getPrimero();
+    }
+
+    @Override
+    public void recorrer(Consumer<Buffer.BloqueBlog> accion) {
+        recencia.recorrer(accion);
+    }
+}
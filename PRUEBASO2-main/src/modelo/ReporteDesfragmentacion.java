@@ -0,0 +1,98 @@
+package modelo;
+
+import java.util.Locale;
+
+/**
+ * Clase que resume el efecto de una pasada de desfragmentación
+ */
+public class ReporteDesfragmentacion {
+    private double extensionesPorArchivoAntes;
+    private double extensionesPorArchivoDespues;
+    private int mayorHuecoAntes;
+    private int mayorHuecoDespues;
+    private long recorridoAntes;     // Distancia de búsqueda total para leer todos los archivos
+    private long recorridoDespues;
+    private int archivosReubicados;
+    private long bloquesMovidos;
+    private boolean finalizada;
+
+    /**
+     * Toma la fotografía inicial de la pasada
+     */
+    void registrarInicio(Disco disco, long recorrido) {
+        extensionesPorArchivoAntes = disco.getPromedioExtensionesPorArchivo();
+        mayorHuecoAntes = disco.getMayorHuecoLibre();
+        recorridoAntes = recorrido;
+        registrarFin(disco, recorrido, false);
+    }
+
+    /**
+     * Actualiza el estado posterior de la pasada
+     */
+    void registrarFin(Disco disco, long recorrido, boolean finalizada) {
+        extensionesPorArchivoDespues = disco.getPromedioExtensionesPorArchivo();
+        mayorHuecoDespues = disco.getMayorHuecoLibre();
+        recorridoDespues = recorrido;
+        this.finalizada = finalizada;
+    }
+
+    void registrarReubicacion(int bloques) {
+        archivosReubicados++;
+        bloquesMovidos += bloques;
+    }
+
+    void registrarCompactacion(int bloques) {
+        bloquesMovidos += bloques;
+    }
+
+    // Getters
+    public double getExtensionesPorArchivoAntes() {
+        return extensionesPorArchivoAntes;
+    }
+
+    public double getExtensionesPorArchivoDespues() {
+        return extensionesPorArchivoDespues;
+    }
+
+    public int getMayorHuecoAntes() {
+        return mayorHuecoAntes;
+    }
+
+    public int getMayorHuecoDespues() {
+        return mayorHuecoDespues;
+    }
+
+    public long getRecorridoAntes() {
+        return recorridoAntes;
+    }
+
+    public long getRecorridoDespues() {
+        return recorridoDespues;
+    }
+
+    public int getArchivosReubicados() {
+        return archivosReubicados;
+    }
+
+    public long getBloquesMovidos() {
+        return bloquesMovidos;
+    }
+
+    public boolean isFinalizada() {
+        return finalizada;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US,
+                "Extensiones/archivo: %.2f -> %.2f%n" +
+                "Mayor hueco libre: %d -> %d bloques%n" +
+                "Recorrido de búsqueda total: %d -> %d cilindros%n" +
+                "Archivos reubicados: %d (%d bloques movidos)%s",
+                extensionesPorArchivoAntes, extensionesPorArchivoDespues,
+                mayorHuecoAntes, mayorHuecoDespues,
+                recorridoAntes, recorridoDespues,
+                archivosReubicados, bloquesMovidos,
+                finalizada ? "" : " - en curso");
+    }
+}
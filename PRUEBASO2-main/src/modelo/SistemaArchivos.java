@@ -7,11 +7,18 @@ import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.function.BooleanSupplier;
 
 /**
  * Clase central del sistema de archivos que integra todos los componentes
@@ -19,43 +26,94 @@ import java.util.Map;
 public class SistemaArchivos {
     public enum Modo { ADMIN, USUARIO }
 
-    private Disco disco;
-    private Directorio raiz;
+    // El simulador no guarda el contenido de los bloques
+    private static final byte[] BLOQUE_SIN_DATOS = new byte[0];
+
+    // Máximo de bloques contiguos que se agrupan en una escritura del buffer
+    private static final int MAX_BLOQUES_POR_ESCRITURA = 64;
+
+    private volatile Disco disco;
+    private volatile Directorio raiz;
     private Directorio directorioActual;
+    private CacheRutas cacheRutas;
+    private final IndiceArchivos indiceArchivos;
     private ColaIO colaIO;
+    private ColasEnvio colasEnvio;
+    private volatile DespachadorIO despachador;  // Se crea al iniciarlo por primera vez
+    private SolicitudIO ultimaSolicitud;        // La última encolada por una operación de usuario
     private Planificador planificador;
     private Buffer buffer;
-    private LinkedList<Proceso> procesos;
-    private int contadorProcesos;
-    private int contadorSolicitudes;
-    private Modo modoActual;
-    private String usuarioActual;
-
-    // Estadísticas
-    private int totalOperacionesExitosas;
-    private int totalOperacionesFallidas;
+    private long capacidadBufferBytes;      // > 0: buffer con marcos fuera del heap
+    private int tamañoBloqueBuffer;
+    private Desfragmentador desfragmentador;    // Se crea en el primer paso
+    private LecturaAnticipada lecturaAnticipada;
+    private int bloquesDesfragmentacionPorSolicitud;  // 0 = desfragmentación automática apagada
+    private TablaProcesos procesos;
+    private final AtomicInteger contadorProcesos;      // Atómicos: las operaciones concurrentes
+    private final AtomicInteger contadorSolicitudes;   // piden ids sin el cerrojo del sistema
+    private volatile Modo modoActual;
+    private volatile String usuarioActual;   // Solo lo cambia la sesión; los procesos pasan su usuario
+
+    // Estadísticas (contadores atómicos: las operaciones concurrentes los
+    // actualizan sin el cerrojo del sistema)
+    private final LongAdder totalOperacionesExitosas;
+    private final LongAdder totalOperacionesFallidas;
     private long tiempoPromedioOperacion;
+    private final LongAdder totalEscriturasAbsorbidas;      // Bloques escritos solo en el buffer
+    private final LongAdder totalEscriturasDispositivo;     // Solicitudes ESCRIBIR enviadas al disco
 
     public SistemaArchivos(int totalBloques, boolean incluirBuffer) {
         this.disco = new Disco(totalBloques);
+        this.indiceArchivos = new IndiceArchivos();
         this.raiz = new Directorio("root", "admin", null, true);
+        this.raiz.setIndiceArchivos(indiceArchivos);
         this.directorioActual = raiz;
+        this.cacheRutas = new CacheRutas(raiz);
         this.colaIO = new ColaIO();
+        this.colasEnvio = new ColasEnvio();
+        this.despachador = null;
         this.planificador = new Planificador(Planificador.PoliticaplanificacionDisco.FIFO, totalBloques);
-        this.buffer = incluirBuffer ? new Buffer(totalBloques / 4) : null;
-        this.procesos = new LinkedList<>();
-        this.contadorProcesos = 0;
-        this.contadorSolicitudes = 0;
+        this.buffer = incluirBuffer ? crearBuffer(totalBloques) : null;
+        this.desfragmentador = null;
+        this.lecturaAnticipada = new LecturaAnticipada();
+        this.bloquesDesfragmentacionPorSolicitud = 0;
+        this.procesos = new TablaProcesos();
+        this.contadorProcesos = new AtomicInteger();
+        this.contadorSolicitudes = new AtomicInteger();
         this.modoActual = Modo.ADMIN;
         this.usuarioActual = "admin";
-        this.totalOperacionesExitosas = 0;
-        this.totalOperacionesFallidas = 0;
+        this.totalOperacionesExitosas = new LongAdder();
+        this.totalOperacionesFallidas = new LongAdder();
         this.tiempoPromedioOperacion = 0;
+        this.totalEscriturasAbsorbidas = new LongAdder();
+        this.totalEscriturasDispositivo = new LongAdder();
 
         // Crear directorios del sistema
         inicializarDirectoriosSistema();
     }
 
+    /**
+     * Crea el buffer: un cuarto de los bloques del disco en el heap, o los
+     * marcos que quepan en la región fuera del heap si se configuró una
+     */
+    private Buffer crearBuffer(int totalBloques) {
+        Buffer nuevo = capacidadBufferBytes > 0
+            ? new Buffer(capacidadBufferBytes, tamañoBloqueBuffer)
+            : new Buffer(totalBloques / 4);
+        return nuevo;
+    }
+
+    /**
+     * Traslada la configuración del buffer anterior al nuevo
+     */
+    private Buffer reemplazarBuffer(Buffer anterior, Buffer nuevo) {
+        nuevo.setPoliticaActual(anterior.getPoliticaActual());
+        nuevo.setEscrituraDiferida(anterior.isEscrituraDiferida());
+        nuevo.setMedirDistancias(anterior.isMedirDistancias());
+        conectarDesalojo(nuevo);
+        return nuevo;
+    }
+
     /**
      * Inicializa la estructura de directorios del sistema
      */
@@ -78,9 +136,13 @@ public class SistemaArchivos {
      * Indica si el archivo puede ser visualizado por el usuario/modo actual.
      */
     public boolean puedeVerArchivo(Archivo archivo) {
+        return puedeVerArchivo(archivo, usuarioActual);
+    }
+
+    private boolean puedeVerArchivo(Archivo archivo, String usuario) {
         return archivo != null && (esAdmin()
             || archivo.isEsPublico()
-            || usuarioActual.equals(archivo.getPropietario()));
+            || usuario.equals(archivo.getPropietario()));
     }
 
     /**
@@ -108,24 +170,46 @@ public class SistemaArchivos {
      * Verifica si el usuario puede operar dentro de un directorio.
      */
     public boolean puedeOperarEnDirectorio(Directorio directorio) {
+        return puedeOperarEnDirectorio(directorio, usuarioActual);
+    }
+
+    private boolean puedeOperarEnDirectorio(Directorio directorio, String usuario) {
         if (directorio == null) {
             return false;
         }
-        return esAdmin() || usuarioActual.equals(directorio.getPropietario())
+        return esAdmin() || usuario.equals(directorio.getPropietario())
             || directorio.isEsPublico();
     }
 
     /**
-     * Devuelve los archivos visibles según permisos del modo actual.
+     * Devuelve los archivos visibles según permisos del modo actual, en orden
+     * de ruta. Es una vista del índice global (no una copia): debe recorrerse
+     * con el cerrojo del sistema tomado
      */
-    public LinkedList<Archivo> obtenerArchivosVisibles() {
-        LinkedList<Archivo> visibles = new LinkedList<>();
-        for (Archivo archivo : raiz.obtenerTodosLosArchivos()) {
-            if (puedeVerArchivo(archivo)) {
-                visibles.add(archivo);
-            }
-        }
-        return visibles;
+    public synchronized Collection<Archivo> obtenerArchivosVisibles() {
+        return esAdmin()
+            ? indiceArchivos.getTodos()
+            : indiceArchivos.getVisiblesPara(usuarioActual);
+    }
+
+    /**
+     * Subdirectorios del directorio que puede ver el modo actual, sin evaluar
+     * permisos uno por uno. Es una copia tomada con el cerrojo del directorio
+     */
+    public synchronized Collection<Directorio> obtenerSubdirectoriosVisibles(Directorio directorio) {
+        return esAdmin()
+            ? directorio.getSubdirectorios()
+            : directorio.getSubdirectoriosVisiblesPara(usuarioActual);
+    }
+
+    /**
+     * Archivos del directorio que puede ver el modo actual, sin evaluar
+     * permisos uno por uno. Es una copia tomada con el cerrojo del directorio
+     */
+    public synchronized Collection<Archivo> obtenerArchivosVisibles(Directorio directorio) {
+        return esAdmin()
+            ? directorio.getArchivos()
+            : directorio.getArchivosVisiblesPara(usuarioActual);
     }
 
     // ====== OPERACIONES DE DIRECTORIOS ======
@@ -133,7 +217,7 @@ public class SistemaArchivos {
     /**
      * Navega a un directorio
      */
-    public boolean navegarDirectorio(String nombreDirectorio) {
+    public synchronized boolean navegarDirectorio(String nombreDirectorio) {
         if (nombreDirectorio.equals("..")) {
             if (directorioActual.getPadreDirectorio() != null) {
                 directorioActual = directorioActual.getPadreDirectorio();
@@ -153,54 +237,55 @@ public class SistemaArchivos {
     /**
      * Crea un nuevo directorio (NO requiere bloques en disco)
      */
-    public boolean crearDirectorio(String nombreDirectorio) {
+    public synchronized boolean crearDirectorio(String nombreDirectorio) {
         return crearDirectorio(nombreDirectorio, directorioActual);
     }
 
     /**
      * Crea un directorio en el directorio destino indicado.
      */
-    public boolean crearDirectorio(String nombreDirectorio, Directorio destino) {
+    public synchronized boolean crearDirectorio(String nombreDirectorio, Directorio destino) {
         Directorio objetivo = destino != null ? destino : raiz;
         if (!puedeOperarEnDirectorio(objetivo)) {
-            totalOperacionesFallidas++;
+            totalOperacionesFallidas.increment();
             return false;
         }
 
         if (objetivo.buscarSubdirectorio(nombreDirectorio) != null) {
-            totalOperacionesFallidas++;
+            totalOperacionesFallidas.increment();
             return false;
         }
 
+        // Falla si otro hilo lo creó entretanto
         Directorio nuevoDirectorio = new Directorio(nombreDirectorio, usuarioActual, objetivo);
-        objetivo.agregarSubdirectorio(nuevoDirectorio);
-        totalOperacionesExitosas++;
+        if (!objetivo.agregarSubdirectorio(nuevoDirectorio)) {
+            totalOperacionesFallidas.increment();
+            return false;
+        }
+        totalOperacionesExitosas.increment();
         return true;
     }
 
     /**
      * Elimina un directorio y su contenido
      */
-    public boolean eliminarDirectorio(String nombreDirectorio) {
+    public synchronized boolean eliminarDirectorio(String nombreDirectorio) {
         if (!esAdmin()) {
-            totalOperacionesFallidas++;
+            totalOperacionesFallidas.increment();
             return false;
         }
 
         Directorio directorio = directorioActual.buscarSubdirectorio(nombreDirectorio);
         if (directorio == null) {
-            totalOperacionesFallidas++;
+            totalOperacionesFallidas.increment();
             return false;
         }
 
-        // Liberar todos los bloques de los archivos en este directorio
-        LinkedList<Archivo> archivos = directorio.obtenerTodosLosArchivos();
-        for (Archivo archivo : archivos) {
+        // Quitar el subárbol y liberar los bloques de todos sus archivos
+        for (Archivo archivo : directorioActual.removerSubdirectorio(directorio)) {
             disco.liberarBloques(archivo);
         }
-
-        directorioActual.removerSubdirectorio(directorio);
-        totalOperacionesExitosas++;
+        totalOperacionesExitosas.increment();
         return true;
     }
 
@@ -209,106 +294,159 @@ public class SistemaArchivos {
     /**
      * Crea un archivo en el directorio actual
      */
-    public boolean crearArchivo(String nombreArchivo, int tamañoBloques, boolean esPublico) {
+    public synchronized boolean crearArchivo(String nombreArchivo, int tamañoBloques, boolean esPublico) {
         return crearArchivo(nombreArchivo, tamañoBloques, esPublico, directorioActual);
     }
 
     /**
      * Crea un archivo en el directorio indicado.
      */
-    public boolean crearArchivo(String nombreArchivo, int tamañoBloques, boolean esPublico,
+    public synchronized boolean crearArchivo(String nombreArchivo, int tamañoBloques, boolean esPublico,
                                 Directorio destino) {
         Directorio objetivo = destino != null ? destino : raiz;
 
-        // Verificar permisos
-        if (!puedeOperarEnDirectorio(objetivo)) {
-            totalOperacionesFallidas++;
+        Archivo nuevoArchivo;
+        objetivo.getCerrojo().writeLock().lock();
+        try {
+            nuevoArchivo = crearEnDirectorio(objetivo, nombreArchivo, tamañoBloques, esPublico, usuarioActual);
+        } finally {
+            objetivo.getCerrojo().writeLock().unlock();
+        }
+        if (nuevoArchivo == null) {
+            totalOperacionesFallidas.increment();
             return false;
         }
 
+        // Crear solicitud de E/S sobre la primera extensión del archivo
+        crearSolicitudIO(SolicitudIO.TipoOperacion.CREAR, nuevoArchivo,
+                       nuevoArchivo.getPrimerBloque(),
+                       nuevoArchivo.obtenerLongitudContigua(nuevoArchivo.getPrimerBloque()));
+
+        totalOperacionesExitosas.increment();
+        return true;
+    }
+
+    /**
+     * Verifica permisos, nombre y espacio, asigna los bloques y agrega el
+     * archivo al directorio. Se llama con el cerrojo de escritura del
+     * directorio tomado, así ningún otro hilo crea el mismo nombre entre la
+     * verificación y el alta. Devuelve el archivo, o null si no se pudo crear
+     */
+    private Archivo crearEnDirectorio(Directorio objetivo, String nombreArchivo, int tamañoBloques,
+                                      boolean esPublico, String usuario) {
+        // Verificar permisos
+        if (objetivo.isEliminado() || !puedeOperarEnDirectorio(objetivo, usuario)) {
+            return null;
+        }
+
         // Verificar si ya existe
         if (objetivo.buscarArchivo(nombreArchivo) != null) {
-            totalOperacionesFallidas++;
-            return false;
+            return null;
         }
 
         // Verificar espacio disponible
         if (disco.getBloquesLibres() < tamañoBloques) {
-            totalOperacionesFallidas++;
-            return false;
+            return null;
         }
 
-        // Crear archivo
-        Archivo nuevoArchivo = new Archivo(nombreArchivo, tamañoBloques, usuarioActual, esPublico);
-
-        // Asignar bloques
-        if (disco.asignarBloques(nuevoArchivo)) {
-            objetivo.agregarArchivo(nuevoArchivo);
-
-            // Crear solicitud de E/S
-            crearSolicitudIO(SolicitudIO.TipoOperacion.CREAR, nuevoArchivo,
-                           disco.obtenerPrimerBloqueLibre());
-
-            totalOperacionesExitosas++;
-            return true;
+        // Crear archivo y asignar bloques (con el cerrojo propio del disco)
+        Archivo nuevoArchivo = new Archivo(nombreArchivo, tamañoBloques, usuario, esPublico);
+        if (!disco.asignarBloques(nuevoArchivo)) {
+            return null;
         }
-
-        totalOperacionesFallidas++;
-        return false;
+        objetivo.agregarArchivo(nuevoArchivo);
+        return nuevoArchivo;
     }
 
     /**
      * Lee un archivo
      */
-    public boolean leerArchivo(String nombreArchivo) {
+    public synchronized boolean leerArchivo(String nombreArchivo) {
         Archivo archivo = directorioActual.buscarArchivo(nombreArchivo);
         if (archivo == null) {
-            totalOperacionesFallidas++;
+            totalOperacionesFallidas.increment();
             return false;
         }
 
         // Verificar permisos de lectura
         if (!puedeOperarArchivo(archivo)) {
-            totalOperacionesFallidas++;
+            totalOperacionesFallidas.increment();
             return false;
         }
 
-        // Crear solicitud de E/S
-        crearSolicitudIO(SolicitudIO.TipoOperacion.LEER, archivo, archivo.getPrimerBloque());
-
-        totalOperacionesExitosas++;
+        leer(archivo);
+        totalOperacionesExitosas.increment();
         return true;
     }
 
+    private void leer(Archivo archivo) {
+        Extension tramo = avanzarLectura(archivo);
+        crearSolicitudIO(SolicitudIO.TipoOperacion.LEER, archivo, tramo.getInicio(), tramo.getLongitud());
+    }
+
     /**
-     * Actualiza un archivo (renombra)
+     * Tramo que toca leer del archivo. Cada lectura continúa donde terminó la
+     * anterior y cubre el resto de esa extensión; al llegar al final vuelve a
+     * empezar desde el primer bloque. Se calcula con el monitor del archivo,
+     * que el disco toma al cambiar sus bloques
      */
-    public boolean actualizarArchivo(String nombreActual, String nombreNuevo) {
-        Archivo archivo = directorioActual.buscarArchivo(nombreActual);
-        if (archivo == null) {
-            totalOperacionesFallidas++;
-            return false;
+    private static Extension avanzarLectura(Archivo archivo) {
+        synchronized (archivo) {
+            int indice = archivo.getPosicionLectura();
+            if (indice >= archivo.getCantidadBloquesAsignados()) {
+                indice = 0;
+            }
+            int inicio = archivo.getCantidadBloquesAsignados() > 0
+                ? archivo.obtenerBloque(indice)
+                : archivo.getPrimerBloque();
+            int cantidad = archivo.obtenerLongitudContigua(inicio);
+            archivo.setPosicionLectura(indice + cantidad);
+            return new Extension(inicio, cantidad);
         }
+    }
 
-        if (!puedeOperarArchivo(archivo)) {
-            totalOperacionesFallidas++;
-            return false;
+    /**
+     * Primera extensión del archivo, leída con su monitor
+     */
+    private static Extension primeraExtension(Archivo archivo) {
+        synchronized (archivo) {
+            int inicio = archivo.getPrimerBloque();
+            return new Extension(inicio, archivo.obtenerLongitudContigua(inicio));
         }
+    }
 
-        archivo.setNombre(nombreNuevo);
+    /**
+     * Actualiza un archivo (renombra)
+     */
+    public synchronized boolean actualizarArchivo(String nombreActual, String nombreNuevo) {
+        Directorio directorio = directorioActual;
+        Archivo archivo;
+        directorio.getCerrojo().writeLock().lock();
+        try {
+            archivo = directorio.buscarArchivo(nombreActual);
+            // No se puede pisar otro archivo del mismo directorio
+            if (archivo == null || !puedeOperarArchivo(archivo)
+                    || (!nombreActual.equals(nombreNuevo) && directorio.buscarArchivo(nombreNuevo) != null)) {
+                totalOperacionesFallidas.increment();
+                return false;
+            }
+            archivo.setNombre(nombreNuevo);
+        } finally {
+            directorio.getCerrojo().writeLock().unlock();
+        }
 
         // Crear solicitud de E/S
         crearSolicitudIO(SolicitudIO.TipoOperacion.ACTUALIZAR, archivo, 
                        archivo.getPrimerBloque());
 
-        totalOperacionesExitosas++;
+        totalOperacionesExitosas.increment();
         return true;
     }
 
     /**
      * Elimina un archivo
      */
-    public boolean eliminarArchivo(String nombreArchivo) {
+    public synchronized boolean eliminarArchivo(String nombreArchivo) {
         String rutaActual = obtenerRuta(directorioActual);
         if (!"/".equals(rutaActual)) {
             rutaActual += "/";
@@ -319,9 +457,9 @@ public class SistemaArchivos {
     /**
      * Elimina un archivo a partir de su ruta absoluta.
      */
-    public boolean eliminarArchivoPorRuta(String rutaCompleta) {
+    public synchronized boolean eliminarArchivoPorRuta(String rutaCompleta) {
         if (rutaCompleta == null || rutaCompleta.isEmpty()) {
-            totalOperacionesFallidas++;
+            totalOperacionesFallidas.increment();
             return false;
         }
 
@@ -334,18 +472,18 @@ public class SistemaArchivos {
 
         Directorio directorioDestino = obtenerDirectorioPorRuta(rutaDirectorio);
         if (directorioDestino == null) {
-            totalOperacionesFallidas++;
+            totalOperacionesFallidas.increment();
             return false;
         }
 
         Archivo archivo = directorioDestino.buscarArchivo(nombreArchivo);
         if (archivo == null) {
-            totalOperacionesFallidas++;
+            totalOperacionesFallidas.increment();
             return false;
         }
 
         if (!puedeOperarArchivo(archivo)) {
-            totalOperacionesFallidas++;
+            totalOperacionesFallidas.increment();
             return false;
         }
 
@@ -355,37 +493,400 @@ public class SistemaArchivos {
     /**
      * Elimina el archivo indicado del directorio proporcionado, liberando sus bloques.
      */
-    public boolean eliminarArchivo(Directorio directorio, Archivo archivo) {
+    public synchronized boolean eliminarArchivo(Directorio directorio, Archivo archivo) {
         Directorio directorioDestino = directorio != null ? directorio : raiz;
         if (archivo == null) {
-            totalOperacionesFallidas++;
+            totalOperacionesFallidas.increment();
             return false;
         }
 
         Archivo archivoEnDirectorio = directorioDestino.buscarArchivo(archivo.getNombre());
         if (archivoEnDirectorio == null) {
-            totalOperacionesFallidas++;
+            totalOperacionesFallidas.increment();
             return false;
         }
 
         if (!puedeOperarArchivo(archivoEnDirectorio)) {
-            totalOperacionesFallidas++;
+            totalOperacionesFallidas.increment();
             return false;
         }
 
-        // Liberar bloques
-        disco.liberarBloques(archivoEnDirectorio);
-
-        // Remover de directorio
-        directorioDestino.removerArchivo(archivoEnDirectorio);
+        // Remover de directorio; si otro hilo lo quitó antes, es él quien libera los bloques
+        if (!directorioDestino.removerArchivo(archivoEnDirectorio)) {
+            totalOperacionesFallidas.increment();
+            return false;
+        }
+        liberarArchivo(archivoEnDirectorio);
 
         // Crear solicitud de E/S
         crearSolicitudIO(SolicitudIO.TipoOperacion.ELIMINAR, archivoEnDirectorio, -1);
 
-        totalOperacionesExitosas++;
+        totalOperacionesExitosas.increment();
         return true;
     }
 
+    /**
+     * Descarta del buffer los bloques de un archivo ya quitado de su
+     * directorio, incluidas escrituras pendientes, y los libera en el disco
+     */
+    private void liberarArchivo(Archivo archivo) {
+        lecturaAnticipada.olvidar(archivo);
+        descartarAnticipadasCanceladas();
+        if (buffer != null) {
+            for (Extension extension : archivo.getExtensiones()) {
+                for (int b = extension.getInicio(); b < extension.getFin(); b++) {
+                    buffer.removerBloque(b);
+                }
+            }
+        }
+        disco.liberarBloques(archivo);
+    }
+
+    // ====== OPERACIONES CONCURRENTES ======
+    //
+    // Se pueden llamar desde muchos hilos a la vez. Reciben el usuario y rutas
+    // absolutas en lugar de usar el usuario y el directorio actuales, recorren
+    // la ruta con los cerrojos de cada directorio y el disco asigna con su
+    // propio cerrojo. La E/S se envía por las colas de envío sin bloqueos, con
+    // ids atómicos y la tabla de procesos concurrente. Solo eliminar toma el
+    // cerrojo del sistema, el tiempo justo de descartar el archivo del buffer
+    // y de la lectura anticipada y liberar sus bloques. Así las operaciones en
+    // directorios distintos avanzan en paralelo. Los permisos se evalúan con
+    // el modo actual. Cargar un estado termina con error los futuros de las
+    // solicitudes que seguían pendientes
+
+    /**
+     * Crea un archivo en el directorio de la ruta indicada. El futuro se
+     * completa al terminar su E/S, o de inmediato con false si se rechazó
+     */
+    public CompletableFuture<Boolean> crearArchivoConcurrente(String usuario, String rutaDirectorio,
+                                                              String nombreArchivo, int tamañoBloques,
+                                                              boolean esPublico) {
+        return crearArchivoConcurrente(usuario, rutaDirectorio, nombreArchivo, tamañoBloques, esPublico, false);
+    }
+
+    /**
+     * Como crearArchivoConcurrente; con bloquearProceso el proceso que emite
+     * la E/S queda BLOQUEADO hasta que termine (ver EjecutorProcesos)
+     */
+    CompletableFuture<Boolean> crearArchivoConcurrente(String usuario, String rutaDirectorio,
+                                                       String nombreArchivo, int tamañoBloques,
+                                                       boolean esPublico, boolean bloquearProceso) {
+        Archivo nuevoArchivo = null;
+        Directorio objetivo = bloquearRuta(rutaDirectorio, true);
+        if (objetivo != null) {
+            try {
+                nuevoArchivo = crearEnDirectorio(objetivo, nombreArchivo, tamañoBloques, esPublico, usuario);
+            } finally {
+                objetivo.getCerrojo().writeLock().unlock();
+            }
+        }
+        if (nuevoArchivo == null) {
+            totalOperacionesFallidas.increment();
+            return CompletableFuture.completedFuture(false);
+        }
+        totalOperacionesExitosas.increment();
+
+        // Si otro hilo ya lo eliminó no queda nada que escribir
+        if (nuevoArchivo.getDirectorio() == null) {
+            return CompletableFuture.completedFuture(true);
+        }
+        Extension primera = primeraExtension(nuevoArchivo);
+        return enviarSolicitud(usuario, SolicitudIO.TipoOperacion.CREAR, nuevoArchivo,
+                               primera.getInicio(), primera.getLongitud(), bloquearProceso);
+    }
+
+    /**
+     * Lee el archivo de la ruta indicada, continuando donde terminó la lectura anterior
+     */
+    public CompletableFuture<Boolean> leerArchivoConcurrente(String usuario, String rutaArchivo) {
+        return leerArchivoConcurrente(usuario, rutaArchivo, false);
+    }
+
+    CompletableFuture<Boolean> leerArchivoConcurrente(String usuario, String rutaArchivo, boolean bloquearProceso) {
+        Archivo archivo = null;
+        Directorio directorio = bloquearRuta(rutaDirectorioDe(rutaArchivo), false);
+        if (directorio != null) {
+            try {
+                archivo = directorio.buscarArchivo(nombreDe(rutaArchivo));
+            } finally {
+                directorio.getCerrojo().readLock().unlock();
+            }
+        }
+        if (!puedeVerArchivo(archivo, usuario)) {
+            totalOperacionesFallidas.increment();
+            return CompletableFuture.completedFuture(false);
+        }
+
+        // Ya eliminado por otro hilo
+        if (archivo.getDirectorio() == null) {
+            totalOperacionesFallidas.increment();
+            return CompletableFuture.completedFuture(false);
+        }
+        Extension tramo = avanzarLectura(archivo);
+        totalOperacionesExitosas.increment();
+        return enviarSolicitud(usuario, SolicitudIO.TipoOperacion.LEER, archivo,
+                               tramo.getInicio(), tramo.getLongitud(), bloquearProceso);
+    }
+
+    /**
+     * Renombra el archivo de la ruta indicada y reescribe su primer bloque.
+     * No puede pisar otro archivo del mismo directorio
+     */
+    public CompletableFuture<Boolean> actualizarArchivoConcurrente(String usuario, String rutaArchivo,
+                                                                   String nombreNuevo) {
+        return actualizarArchivoConcurrente(usuario, rutaArchivo, nombreNuevo, false);
+    }
+
+    CompletableFuture<Boolean> actualizarArchivoConcurrente(String usuario, String rutaArchivo,
+                                                            String nombreNuevo, boolean bloquearProceso) {
+        String nombreActual = nombreDe(rutaArchivo);
+        Archivo archivo = null;
+        Directorio directorio = bloquearRuta(rutaDirectorioDe(rutaArchivo), true);
+        if (directorio != null) {
+            try {
+                Archivo encontrado = directorio.buscarArchivo(nombreActual);
+                if (puedeVerArchivo(encontrado, usuario)
+                        && (nombreActual.equals(nombreNuevo) || directorio.buscarArchivo(nombreNuevo) == null)) {
+                    encontrado.setNombre(nombreNuevo);
+                    archivo = encontrado;
+                }
+            } finally {
+                directorio.getCerrojo().writeLock().unlock();
+            }
+        }
+        if (archivo == null) {
+            totalOperacionesFallidas.increment();
+            return CompletableFuture.completedFuture(false);
+        }
+        totalOperacionesExitosas.increment();
+
+        return enviarSolicitud(usuario, SolicitudIO.TipoOperacion.ACTUALIZAR, archivo,
+                               archivo.getPrimerBloque(), 1, bloquearProceso);
+    }
+
+    /**
+     * Elimina el archivo de la ruta indicada. Se quita del directorio con su
+     * cerrojo de escritura y sus bloques quedan libres al volver, como en
+     * eliminarArchivo; la solicitud ELIMINAR solo simula la E/S
+     */
+    public CompletableFuture<Boolean> eliminarArchivoConcurrente(String usuario, String rutaArchivo) {
+        return eliminarArchivoConcurrente(usuario, rutaArchivo, false);
+    }
+
+    CompletableFuture<Boolean> eliminarArchivoConcurrente(String usuario, String rutaArchivo,
+                                                          boolean bloquearProceso) {
+        Archivo archivo = null;
+        Directorio directorio = bloquearRuta(rutaDirectorioDe(rutaArchivo), true);
+        if (directorio != null) {
+            try {
+                Archivo encontrado = directorio.buscarArchivo(nombreDe(rutaArchivo));
+                if (puedeVerArchivo(encontrado, usuario) && directorio.removerArchivo(encontrado)) {
+                    archivo = encontrado;
+                }
+            } finally {
+                directorio.getCerrojo().writeLock().unlock();
+            }
+        }
+        if (archivo == null) {
+            totalOperacionesFallidas.increment();
+            return CompletableFuture.completedFuture(false);
+        }
+        // El cerrojo del sistema protege al buffer y a la lectura anticipada;
+        // se descarta el archivo de ambos antes de que otro reciba sus bloques
+        synchronized (this) {
+            liberarArchivo(archivo);
+        }
+        totalOperacionesExitosas.increment();
+
+        return enviarSolicitud(usuario, SolicitudIO.TipoOperacion.ELIMINAR, archivo, -1, 1, bloquearProceso);
+    }
+
+    /**
+     * Crea un directorio dentro del de la ruta indicada. No hace E/S
+     */
+    public boolean crearDirectorioConcurrente(String usuario, String rutaPadre, String nombreDirectorio) {
+        boolean creado = false;
+        Directorio padre = bloquearRuta(rutaPadre, true);
+        if (padre != null) {
+            try {
+                creado = puedeOperarEnDirectorio(padre, usuario)
+                    && padre.agregarSubdirectorio(new Directorio(nombreDirectorio, usuario, padre));
+            } finally {
+                padre.getCerrojo().writeLock().unlock();
+            }
+        }
+        if (creado) {
+            totalOperacionesExitosas.increment();
+        } else {
+            totalOperacionesFallidas.increment();
+        }
+        return creado;
+    }
+
+    /**
+     * Recorre la ruta con cerrojos encadenados: toma el de lectura de cada
+     * directorio antes de soltar el de su padre, así nadie quita ni renombra
+     * el tramo por el que se avanza. Devuelve el último directorio con su
+     * cerrojo tomado (de escritura si se pide), o null si la ruta no existe
+     */
+    private Directorio bloquearRuta(String ruta, boolean escritura) {
+        String[] nombres = ruta != null ? ruta.split("/") : new String[0];
+        int ultimo = nombres.length - 1;
+        while (ultimo >= 0 && nombres[ultimo].isEmpty()) {
+            ultimo--;
+        }
+
+        Directorio actual = raiz;
+        cerrojoDe(actual, escritura && ultimo < 0).lock();
+        for (int i = 0; i <= ultimo; i++) {
+            if (nombres[i].isEmpty()) {
+                continue;
+            }
+            Directorio siguiente = actual.buscarSubdirectorio(nombres[i]);
+            if (siguiente == null) {
+                cerrojoDe(actual, false).unlock();
+                return null;
+            }
+            cerrojoDe(siguiente, escritura && i == ultimo).lock();
+            cerrojoDe(actual, false).unlock();
+            actual = siguiente;
+        }
+
+        if (actual.isEliminado()) {
+            cerrojoDe(actual, escritura).unlock();
+            return null;
+        }
+        return actual;
+    }
+
+    /**
+     * Envía la E/S de una operación concurrente sin el cerrojo del sistema y
+     * devuelve el futuro que se completa al atenderla. Los permisos ya los
+     * verificó la operación. Un proceso que espera su E/S entra BLOQUEADO y
+     * sigue así hasta terminar; si no, entra LISTO
+     */
+    private CompletableFuture<Boolean> enviarSolicitud(String usuario, SolicitudIO.TipoOperacion tipo,
+                                                       Archivo archivo, int cilindroAcceso,
+                                                       int cantidadBloques, boolean bloquearProceso) {
+        int idProceso = contadorProcesos.getAndIncrement();
+        Proceso proceso = new Proceso(idProceso, usuario, tipo.name());
+        SolicitudIO solicitud = new SolicitudIO(contadorSolicitudes.getAndIncrement(), idProceso, tipo,
+                                               archivo, cilindroAcceso, cantidadBloques);
+        solicitud.setUsuario(usuario);
+        solicitud.setProceso(proceso);
+        proceso.setSolicitudActual(solicitud);
+        // Su estado antes de publicarla: desde ahí el despachador puede atenderla
+        proceso.setEstado(bloquearProceso ? Proceso.EstadoProceso.BLOQUEADO : Proceso.EstadoProceso.LISTO);
+        procesos.agregar(proceso);
+        colasEnvio.enviar(solicitud);
+        despertarDespachador();
+        return solicitud.getFinalizacion().thenApply(s -> true);
+    }
+
+    private static Lock cerrojoDe(Directorio directorio, boolean escritura) {
+        return escritura ? directorio.getCerrojo().writeLock() : directorio.getCerrojo().readLock();
+    }
+
+    private static String rutaDirectorioDe(String rutaArchivo) {
+        int ultimaBarra = rutaArchivo.lastIndexOf('/');
+        return ultimaBarra > 0 ? rutaArchivo.substring(0, ultimaBarra) : "/";
+    }
+
+    private static String nombreDe(String rutaArchivo) {
+        return rutaArchivo.substring(rutaArchivo.lastIndexOf('/') + 1);
+    }
+
+    // ====== OPERACIONES ASÍNCRONAS ======
+
+    /**
+     * Crea un archivo en el directorio actual; el futuro se completa con true
+     * cuando termina su E/S, o de inmediato con false si la operación se rechazó
+     */
+    public CompletableFuture<Boolean> crearArchivoAsync(String nombreArchivo, int tamañoBloques,
+                                                        boolean esPublico) {
+        return operarAsync(() -> crearArchivo(nombreArchivo, tamañoBloques, esPublico));
+    }
+
+    /**
+     * Lee un archivo del directorio actual de forma asíncrona
+     */
+    public CompletableFuture<Boolean> leerArchivoAsync(String nombreArchivo) {
+        return operarAsync(() -> leerArchivo(nombreArchivo));
+    }
+
+    /**
+     * Renombra un archivo del directorio actual de forma asíncrona
+     */
+    public CompletableFuture<Boolean> actualizarArchivoAsync(String nombreActual, String nombreNuevo) {
+        return operarAsync(() -> actualizarArchivo(nombreActual, nombreNuevo));
+    }
+
+    /**
+     * Elimina un archivo del directorio actual de forma asíncrona
+     */
+    public CompletableFuture<Boolean> eliminarArchivoAsync(String nombreArchivo) {
+        return operarAsync(() -> eliminarArchivo(nombreArchivo));
+    }
+
+    /**
+     * Ejecuta la operación con el cerrojo tomado y devuelve un futuro ligado a
+     * la solicitud de E/S que encoló. Sin solicitud (la absorbió el buffer) el
+     * futuro ya está completo
+     */
+    private synchronized CompletableFuture<Boolean> operarAsync(BooleanSupplier operacion) {
+        ultimaSolicitud = null;
+        if (!operacion.getAsBoolean()) {
+            return CompletableFuture.completedFuture(false);
+        }
+        SolicitudIO solicitud = ultimaSolicitud;
+        ultimaSolicitud = null;
+        if (solicitud == null) {
+            return CompletableFuture.completedFuture(true);
+        }
+        return solicitud.getFinalizacion().thenApply(s -> true);
+    }
+
+    /**
+     * Arranca el despachador que atiende la cola de E/S continuamente en un
+     * hilo propio (virtual o de plataforma)
+     */
+    public void iniciarDespachador(boolean hiloVirtual) {
+        obtenerDespachador().iniciar(hiloVirtual);
+    }
+
+    public void detenerDespachador() {
+        DespachadorIO actual = getDespachador();
+        if (actual != null) {
+            actual.detener();
+        }
+    }
+
+    /**
+     * El despachador se crea después de construir el sistema, no en el
+     * constructor, para no publicar un sistema a medio inicializar
+     */
+    private synchronized DespachadorIO obtenerDespachador() {
+        if (despachador == null) {
+            despachador = new DespachadorIO(this);
+        }
+        return despachador;
+    }
+
+    private synchronized Desfragmentador obtenerDesfragmentador() {
+        if (desfragmentador == null) {
+            desfragmentador = new Desfragmentador(this);
+        }
+        return desfragmentador;
+    }
+
+    private void despertarDespachador() {
+        DespachadorIO actual = getDespachador();
+        if (actual != null) {
+            actual.despertar();
+        }
+    }
+
     // ====== OPERACIONES DE PROCESOS E I/O ======
 
     /**
@@ -393,73 +894,373 @@ public class SistemaArchivos {
      */
     private void crearSolicitudIO(SolicitudIO.TipoOperacion tipo, Archivo archivo,
                                  int cilindroAcceso) {
+        crearSolicitudIO(tipo, archivo, cilindroAcceso, 1);
+    }
+
+    /**
+     * Crea una solicitud de E/S que abarca varios bloques contiguos
+     */
+    private void crearSolicitudIO(SolicitudIO.TipoOperacion tipo, Archivo archivo,
+                                 int cilindroAcceso, int cantidadBloques) {
         if (!esAdmin() && archivo != null && !puedeOperarArchivo(archivo)) {
-            totalOperacionesFallidas++;
+            totalOperacionesFallidas.increment();
             return;
         }
-        int idProceso = contadorProcesos++;
+        int idProceso = contadorProcesos.getAndIncrement();
         Proceso proceso = new Proceso(idProceso, usuarioActual, tipo.name());
-        procesos.add(proceso);
+        procesos.agregar(proceso);
+
+        // Con escritura diferida, las escrituras terminan al llegar al buffer.
+        // Crear un archivo escribe todas sus extensiones, no solo la primera
+        if (buffer != null && buffer.isEscrituraDiferida() && cilindroAcceso >= 0
+                && (tipo == SolicitudIO.TipoOperacion.CREAR || tipo == SolicitudIO.TipoOperacion.ACTUALIZAR)) {
+            if (tipo == SolicitudIO.TipoOperacion.CREAR && archivo != null) {
+                for (Extension extension : archivo.getExtensiones()) {
+                    absorberEscritura(extension.getInicio(), extension.getLongitud());
+                }
+            } else {
+                absorberEscritura(cilindroAcceso, cantidadBloques);
+            }
+            proceso.setEstado(Proceso.EstadoProceso.TERMINADO);
+            proceso.setTiempoFinalizacion(System.currentTimeMillis());
+            procesos.retirar(proceso);
+            if (buffer.getCantidadSucios() >= Math.max(1, buffer.getCapacidadMaxima() / 2)) {
+                descargarBuffer();
+            }
+            return;
+        }
 
-        SolicitudIO solicitud = new SolicitudIO(contadorSolicitudes++, idProceso, tipo, 
-                                               archivo, cilindroAcceso);
-        solicitud.setTiempoInicio(System.currentTimeMillis());
-        colaIO.agregarSolicitud(solicitud);
+        SolicitudIO solicitud = new SolicitudIO(contadorSolicitudes.getAndIncrement(), idProceso, tipo, 
+                                               archivo, cilindroAcceso, cantidadBloques);
+        solicitud.setUsuario(usuarioActual);
+        solicitud.setProceso(proceso);
+        proceso.setSolicitudActual(solicitud);
+        colasEnvio.enviar(solicitud);
+        ultimaSolicitud = solicitud;
+        despertarDespachador();
 
         proceso.setEstado(Proceso.EstadoProceso.LISTO);
     }
 
     /**
-     * Procesa la siguiente solicitud en la cola
+     * Procesa la siguiente solicitud en la cola. Devuelve false si no había
+     * ninguna pendiente
      */
-    public void procesarSiguienteSolicitud() {
+    public synchronized boolean procesarSiguienteSolicitud() {
+        colasEnvio.drenarLote(colaIO);
         if (colaIO.estaVacia()) {
-            return;
+            return false;
         }
 
-        planificador.planificar(colaIO);
-        SolicitudIO solicitud = colaIO.extraerPrimera();
+        SolicitudIO solicitud = planificador.extraerSiguiente(colaIO);
 
         if (solicitud != null) {
-            solicitud.setTiempoInicio(System.currentTimeMillis());
+            despacharSolicitud(solicitud);
+        }
+
+        // Avanzar la desfragmentación en segundo plano entre solicitudes
+        if (bloquesDesfragmentacionPorSolicitud > 0) {
+            desfragmentarPaso(bloquesDesfragmentacionPorSolicitud);
+        }
+        return solicitud != null;
+    }
+
+    /**
+     * Atiende y completa una solicitud ya extraída de la cola
+     */
+    private void despacharSolicitud(SolicitudIO solicitud) {
+        colaIO.registrarInicio(solicitud);
+        marcarEjecutando(solicitud);
+        try {
+            atenderSolicitud(solicitud);
+            completarSolicitud(solicitud);
+        } catch (RuntimeException e) {
+            // Quien espera la solicitud recibe el error y queda contada
+            // como operación fallida; el que despacha decide si sigue
+            fallarSolicitud(solicitud, e);
+            totalOperacionesFallidas.increment();
+            throw e;
+        }
+    }
 
-            // Procesar según tipo de operación
-            switch (solicitud.getTipo()) {
-                case CREAR:
-                    // Ya está creado, solo simulamos E/S
+    /**
+     * Simula la E/S de una solicitud ya extraída de la cola
+     */
+    private void atenderSolicitud(SolicitudIO solicitud) {
+        // Procesar según tipo de operación
+        switch (solicitud.getTipo()) {
+            case CREAR:
+                // Ya está creado, solo simulamos E/S; la copia en caché queda vieja
+                invalidarEnBuffer(solicitud);
+                break;
+            case LEER:
+                if (solicitud.isAnticipada()) {
+                    cargarAnticipados(solicitud);
                     break;
-                case LEER:
-                    // Consultar buffer si existe
-                    if (buffer != null) {
-                        buffer.buscarBloque(solicitud.getCilindroAcceso());
+                }
+                // Consultar buffer si existe para todo el tramo solicitado;
+                // los bloques que no estaban se cargan tras leerlos del disco
+                if (buffer != null) {
+                    int inicio = solicitud.getCilindroAcceso();
+                    for (int i = 0; i < solicitud.getCantidadBloques(); i++) {
+                        if (buffer.buscarBloque(inicio + i) == null) {
+                            buffer.agregarBloque(inicio + i, BLOQUE_SIN_DATOS);
+                        }
                     }
-                    break;
-                case ACTUALIZAR:
-                    // Simular actualización
-                    break;
-                case ELIMINAR:
-                    // Ya está eliminado, solo simulamos E/S
-                    break;
+                    anticiparLectura(solicitud);
+                }
+                break;
+            case ACTUALIZAR:
+                // Simular actualización
+                invalidarEnBuffer(solicitud);
+                break;
+            case ELIMINAR:
+                // Ya está eliminado, solo simulamos E/S
+                break;
+            case ESCRIBIR:
+                // Escritura de bloques sucios descargados del buffer
+                break;
+        }
+    }
+
+    private void completarSolicitud(SolicitudIO solicitud) {
+        for (SolicitudIO fusionada : solicitud.getFusionadas()) {
+            completarSolicitud(fusionada);
+        }
+        solicitud.setTiempoFinalizacion(System.currentTimeMillis());
+        solicitud.setCompletada(true);
+
+        terminarProceso(solicitud);
+        solicitud.getFinalizacion().complete(solicitud);
+    }
+
+    /**
+     * Una solicitud que falló al atenderse termina su proceso y su futuro con el error
+     */
+    private void fallarSolicitud(SolicitudIO solicitud, RuntimeException error) {
+        for (SolicitudIO fusionada : solicitud.getFusionadas()) {
+            fallarSolicitud(fusionada, error);
+        }
+        terminarProceso(solicitud);
+        solicitud.getFinalizacion().completeExceptionally(error);
+    }
+
+    /**
+     * Termina con error las solicitudes que siguen en las colas al cargar otro
+     * estado, así nadie queda esperando un futuro que ya no se va a completar
+     */
+    private void abandonarPendientes() {
+        colasEnvio.drenarTodo(colaIO);
+        IllegalStateException error = new IllegalStateException("Solicitud descartada al cargar otro estado");
+        for (SolicitudIO solicitud : colaIO.obtenerTodas()) {
+            fallarSolicitud(solicitud, error);
+        }
+        colaIO.limpiar();
+    }
+
+    private void terminarProceso(SolicitudIO solicitud) {
+        Proceso proceso = solicitud.getProceso();
+        if (proceso != null) {
+            proceso.setEstado(Proceso.EstadoProceso.TERMINADO);
+            proceso.setTiempoFinalizacion(System.currentTimeMillis());
+            procesos.retirar(proceso);
+        }
+    }
+
+    /**
+     * Un proceso LISTO pasa a EJECUTANDO al atenderse su E/S; uno BLOQUEADO
+     * esperándola sigue así hasta que termine
+     */
+    private void marcarEjecutando(SolicitudIO solicitud) {
+        Proceso proceso = solicitud.getProceso();
+        if (proceso != null && proceso.getEstado() == Proceso.EstadoProceso.LISTO) {
+            proceso.setEstado(Proceso.EstadoProceso.EJECUTANDO);
+        }
+    }
+
+    /**
+     * Una escritura directa al disco deja desactualizada la copia del buffer
+     */
+    private void invalidarEnBuffer(SolicitudIO solicitud) {
+        if (buffer == null || solicitud.getCilindroAcceso() < 0) {
+            return;
+        }
+        for (int i = 0; i < solicitud.getCantidadBloques(); i++) {
+            buffer.removerBloque(solicitud.getCilindroAcceso() + i);
+        }
+    }
+
+    // ====== ESCRITURA DIFERIDA ======
+
+    /**
+     * Marca sucios en el buffer los bloques [inicio, inicio + cantidad)
+     */
+    private void absorberEscritura(int inicio, int cantidadBloques) {
+        for (int i = 0; i < cantidadBloques; i++) {
+            buffer.escribirBloque(inicio + i, BLOQUE_SIN_DATOS);
+        }
+        totalEscriturasAbsorbidas.add(cantidadBloques);
+    }
+
+    /**
+     * Envía al disco los bloques sucios del buffer. Se recorren en orden y los
+     * contiguos se agrupan en una sola solicitud ESCRIBIR, que el planificador
+     * ordena junto con el resto de la cola. Devuelve las solicitudes creadas
+     */
+    public synchronized int descargarBuffer() {
+        if (buffer == null || buffer.getCantidadSucios() == 0) {
+            return 0;
+        }
+
+        int[] sucios = buffer.extraerSucios();
+        int solicitudes = 0;
+        int i = 0;
+        while (i < sucios.length) {
+            int inicio = sucios[i];
+            int longitud = 1;
+            while (i + longitud < sucios.length && longitud < MAX_BLOQUES_POR_ESCRITURA
+                    && sucios[i + longitud] == inicio + longitud) {
+                longitud++;
+            }
+            encolarEscritura(inicio, longitud);
+            solicitudes++;
+            i += longitud;
+        }
+        return solicitudes;
+    }
+
+    /**
+     * Descarga el buffer y escribe enseguida en el disco, en orden de bloque,
+     * todas las escrituras pendientes para que quede consistente. Se sacan de
+     * la cola sin pasar por el planificador: no se atiende ninguna otra
+     * solicitud ni avanza la desfragmentación o la lectura anticipada
+     */
+    public synchronized void sincronizarBuffer() {
+        descargarBuffer();
+        colasEnvio.drenarTodo(colaIO);
+        List<SolicitudIO> escrituras = new ArrayList<>();
+        for (SolicitudIO solicitud : colaIO.obtenerTodas()) {
+            if (solicitud.getTipo() == SolicitudIO.TipoOperacion.ESCRIBIR) {
+                escrituras.add(solicitud);
             }
+        }
+        escrituras.sort(Comparator.comparingInt(SolicitudIO::getCilindroAcceso));
+        for (SolicitudIO escritura : escrituras) {
+            colaIO.descartarSolicitud(escritura);
+            planificador.registrarAtencion(escritura);
+            despacharSolicitud(escritura);
+        }
+    }
 
-            solicitud.setTiempoFinalizacion(System.currentTimeMillis());
-            solicitud.setCompletada(true);
+    private void encolarEscritura(int inicio, int cantidadBloques) {
+        encolarSolicitudSistema(SolicitudIO.TipoOperacion.ESCRIBIR, null, inicio, cantidadBloques, false);
+        totalEscriturasDispositivo.increment();
+    }
 
-            // Actualizar proceso
-            int idProceso = solicitud.getIdProceso();
-            for (Proceso p : procesos) {
-                if (p.getIdProceso() == idProceso) {
-                    p.setEstado(Proceso.EstadoProceso.TERMINADO);
-                    p.setTiempoFinalizacion(System.currentTimeMillis());
-                }
+    /**
+     * Encola una solicitud generada por el propio sistema (sin control de permisos)
+     */
+    private SolicitudIO encolarSolicitudSistema(SolicitudIO.TipoOperacion tipo, Archivo archivo,
+                                                int inicio, int cantidadBloques, boolean anticipada) {
+        int idProceso = contadorProcesos.getAndIncrement();
+        Proceso proceso = new Proceso(idProceso, "sistema", tipo.name());
+        procesos.agregar(proceso);
+
+        SolicitudIO solicitud = new SolicitudIO(contadorSolicitudes.getAndIncrement(), idProceso, tipo, archivo,
+                                               inicio, cantidadBloques);
+        solicitud.setAnticipada(anticipada);
+        solicitud.setProceso(proceso);
+        proceso.setSolicitudActual(solicitud);
+        colasEnvio.enviar(solicitud);
+        despertarDespachador();
+        proceso.setEstado(Proceso.EstadoProceso.LISTO);
+        return solicitud;
+    }
+
+    // ====== LECTURA ANTICIPADA ======
+
+    /**
+     * Informa la lectura al motor de lectura anticipada y encola, con baja
+     * prioridad, los bloques siguientes del archivo que este decida anticipar
+     */
+    private void anticiparLectura(SolicitudIO solicitud) {
+        Archivo archivo = solicitud.getArchivoAfectado();
+        if (archivo == null) {
+            return;
+        }
+        int indiceInicio = archivo.obtenerIndiceLogico(solicitud.getCilindroAcceso());
+        List<Extension> tramos = lecturaAnticipada.registrarLectura(archivo, indiceInicio,
+                solicitud.getCantidadBloques(), buffer);
+        // Retirar lo que canceló un corte de secuencia antes de que se fusione con lo nuevo
+        descartarAnticipadasCanceladas();
+        for (Extension tramo : tramos) {
+            SolicitudIO anticipada = encolarSolicitudSistema(SolicitudIO.TipoOperacion.LEER, archivo,
+                                                             tramo.getInicio(), tramo.getLongitud(), true);
+            lecturaAnticipada.registrarAnticipada(archivo, anticipada);
+        }
+    }
+
+    /**
+     * Retira de la cola las lecturas anticipadas canceladas por el motor y
+     * termina sus procesos sin leer nada
+     */
+    private void descartarAnticipadasCanceladas() {
+        List<SolicitudIO> canceladas = lecturaAnticipada.extraerCanceladas();
+        if (canceladas.isEmpty()) {
+            return;
+        }
+        colasEnvio.drenarTodo(colaIO);
+        for (SolicitudIO cancelada : canceladas) {
+            if (colaIO.descartarSolicitud(cancelada)) {
+                completarSolicitud(cancelada);
             }
         }
     }
 
+    private void cargarAnticipados(SolicitudIO solicitud) {
+        // Cancelada después de salir de la cola: ya no hace falta cargarla
+        if (buffer == null || solicitud.isCancelada()) {
+            return;
+        }
+        int inicio = solicitud.getCilindroAcceso();
+        for (int i = 0; i < solicitud.getCantidadBloques(); i++) {
+            buffer.agregarBloqueAnticipado(inicio + i, BLOQUE_SIN_DATOS);
+        }
+    }
+
+    /**
+     * Ejecuta un paso de desfragmentación moviendo como máximo maxBloques
+     * bloques. El paso toma el disco entero para que ninguna asignación
+     * concurrente ocupe un bloque a mitad de un movimiento
+     */
+    public synchronized boolean desfragmentarPaso(int maxBloques) {
+        disco.bloquearTodo();
+        try {
+            return obtenerDesfragmentador().paso(maxBloques);
+        } finally {
+            disco.desbloquearTodo();
+        }
+    }
+
+    /**
+     * Desfragmenta el disco completo y devuelve el reporte de antes/después
+     */
+    public synchronized ReporteDesfragmentacion desfragmentar() {
+        disco.bloquearTodo();
+        try {
+            return obtenerDesfragmentador().desfragmentarCompleto(64);
+        } finally {
+            disco.desbloquearTodo();
+        }
+    }
+
     /**
      * Guarda una representación simple del estado actual del sistema en un archivo de texto.
      */
-    public void guardarEstado(File archivo) throws IOException {
+    public synchronized void guardarEstado(File archivo) throws IOException {
+        // Las escrituras retenidas en el buffer deben llegar al disco antes de guardar
+        sincronizarBuffer();
+
         try (BufferedWriter writer = new BufferedWriter(new FileWriter(archivo))) {
             writer.write("# Estado del sistema de archivos");
             writer.newLine();
@@ -479,7 +1280,7 @@ public class SistemaArchivos {
     /**
      * Carga el estado del sistema desde un archivo previamente guardado.
      */
-    public void cargarEstado(File archivo) throws IOException {
+    public synchronized void cargarEstado(File archivo) throws IOException {
         List<String> directoriosLeidos = new ArrayList<>();
         List<String> archivosLeidos = new ArrayList<>();
         List<String> bloquesLeidos = new ArrayList<>();
@@ -543,22 +1344,33 @@ public class SistemaArchivos {
         }
 
         // Reconstruir disco y estructura base
+        Disco.ModoAsignacion modoAsignacion = disco.getModoAsignacion();
+        Disco.PoliticaAsignacion politicaAsignacion = disco.getPoliticaAsignacion();
         this.disco = new Disco(totalBloquesArchivo);
+        this.disco.setModoAsignacion(modoAsignacion);
+        this.disco.setPoliticaAsignacion(politicaAsignacion);
         Planificador.PoliticaplanificacionDisco politicaActual = politicaLeida != null
             ? politicaLeida
             : planificador != null
                 ? planificador.getPoliticaActual()
                 : Planificador.PoliticaplanificacionDisco.FIFO;
         this.planificador = new Planificador(politicaActual, totalBloquesArchivo);
-        this.buffer = buffer != null ? new Buffer(totalBloquesArchivo / 4) : null;
+        if (buffer != null) {
+            this.buffer = reemplazarBuffer(buffer, crearBuffer(totalBloquesArchivo));
+        }
+        this.lecturaAnticipada.limpiar();
+        this.indiceArchivos.limpiar();
         this.raiz = new Directorio("root", "admin", null, true);
+        this.raiz.setIndiceArchivos(indiceArchivos);
         this.directorioActual = raiz;
+        this.cacheRutas = new CacheRutas(raiz);
+        abandonarPendientes();
         this.colaIO = new ColaIO();
-        this.procesos = new LinkedList<>();
-        this.contadorProcesos = 0;
-        this.contadorSolicitudes = 0;
-        this.totalOperacionesExitosas = 0;
-        this.totalOperacionesFallidas = 0;
+        this.procesos.limpiar();
+        this.contadorProcesos.set(0);
+        this.contadorSolicitudes.set(0);
+        this.totalOperacionesExitosas.reset();
+        this.totalOperacionesFallidas.reset();
 
         // Construir mapa de proximos para los bloques
         for (String bloqueLinea : bloquesLeidos) {
@@ -616,24 +1428,20 @@ public class SistemaArchivos {
 
             Directorio directorioDestino = obtenerOCrearDirectorio(rutaDirectorio, propietarioArchivo, true);
             Archivo archivoCargado = new Archivo(nombreArchivo, tamaño, propietarioArchivo, publicoArchivo);
-            directorioDestino.agregarArchivo(archivoCargado);
-
-            for (int i = 0; i < bloquesArchivo.size(); i++) {
-                int bloqueNum = bloquesArchivo.get(i);
-                archivoCargado.agregarBloque(bloqueNum);
-                Bloque bloque = disco.getBloque(bloqueNum);
-                if (bloque != null) {
-                    bloque.setOcupado(true);
-                    bloque.setPropietario(archivoCargado.getNombre());
-                    bloque.setColorAsignado(archivoCargado.getColorAsignado());
-                    int siguiente = mapaProximos.getOrDefault(bloqueNum, -1);
-                    bloque.setBloqueProximo(siguiente);
-                }
+            if (!directorioDestino.agregarArchivo(archivoCargado)) {
+                throw new IOException("Formato de archivo inválido: archivo repetido " + rutaArchivo);
             }
-        }
 
-        // Recalcular estado del disco
-        disco.getBloquesLibres();
+            // Ocupar los bloques a través del disco para mantener su mapa de bits
+            if (!disco.ocuparBloques(archivoCargado, bloquesArchivo)) {
+                throw new IOException("Formato de archivo inválido: bloques repetidos o fuera de rango en "
+                    + rutaArchivo);
+            }
+            for (Integer bloqueNum : bloquesArchivo) {
+                int siguiente = mapaProximos.getOrDefault(bloqueNum, -1);
+                disco.getBloque(bloqueNum).setBloqueProximo(siguiente);
+            }
+        }
     }
 
     /**
@@ -686,11 +1494,12 @@ public class SistemaArchivos {
                 : rutaDirectorio + "/" + archivo.getNombre();
 
             StringBuilder bloquesAsignados = new StringBuilder();
-            LinkedList<Integer> bloques = archivo.getBloques();
-            for (int i = 0; i < bloques.size(); i++) {
-                bloquesAsignados.append(bloques.get(i));
-                if (i < bloques.size() - 1) {
-                    bloquesAsignados.append(",");
+            for (Extension extension : archivo.getExtensiones()) {
+                for (int b = extension.getInicio(); b < extension.getFin(); b++) {
+                    if (bloquesAsignados.length() > 0) {
+                        bloquesAsignados.append(",");
+                    }
+                    bloquesAsignados.append(b);
                 }
             }
 
@@ -708,45 +1517,11 @@ public class SistemaArchivos {
      * Construye la ruta absoluta de un directorio dentro de la jerarquía.
      */
     private String obtenerRuta(Directorio directorio) {
-        if (directorio.getPadreDirectorio() == null) {
-            return "/";
-        }
-
-        LinkedList<String> partes = new LinkedList<>();
-        Directorio actual = directorio;
-        while (actual != null && actual.getPadreDirectorio() != null) {
-            partes.addFirst(actual.getNombre());
-            actual = actual.getPadreDirectorio();
-        }
-
-        StringBuilder ruta = new StringBuilder("/");
-        for (int i = 0; i < partes.size(); i++) {
-            ruta.append(partes.get(i));
-            if (i < partes.size() - 1) {
-                ruta.append("/");
-            }
-        }
-        return ruta.toString();
+        return directorio.getRuta();
     }
 
     private Directorio obtenerDirectorioPorRuta(String ruta) {
-        if (ruta == null || ruta.isEmpty() || "/".equals(ruta)) {
-            return raiz;
-        }
-
-        String[] partes = ruta.split("/");
-        Directorio actual = raiz;
-        for (String nombre : partes) {
-            if (nombre.isEmpty()) {
-                continue;
-            }
-            Directorio siguiente = actual.buscarSubdirectorio(nombre);
-            if (siguiente == null) {
-                return null;
-            }
-            actual = siguiente;
-        }
-        return actual;
+        return cacheRutas.resolver(ruta);
     }
 
     /**
@@ -762,8 +1537,14 @@ public class SistemaArchivos {
             return raiz;
         }
 
+        Directorio actual = cacheRutas.resolver(ruta);
+        if (actual != null) {
+            actual.setEsPublico(publico);
+            return actual;
+        }
+
         String[] partes = ruta.split("/");
-        Directorio actual = raiz;
+        actual = raiz;
         for (String nombre : partes) {
             if (nombre.isEmpty()) {
                 continue;
@@ -793,10 +1574,30 @@ public class SistemaArchivos {
         return directorioActual;
     }
 
-    public ColaIO getColaIO() {
+    public CacheRutas getCacheRutas() {
+        return cacheRutas;
+    }
+
+    public IndiceArchivos getIndiceArchivos() {
+        return indiceArchivos;
+    }
+
+    /**
+     * Cola del planificador, con las solicitudes enviadas ya drenadas en ella
+     */
+    public synchronized ColaIO getColaIO() {
+        colasEnvio.drenarTodo(colaIO);
         return colaIO;
     }
 
+    /**
+     * Capa de envío: cualquier hilo puede depositar solicitudes en ella; se
+     * pasan a la cola del planificador al atender la siguiente
+     */
+    public ColasEnvio getColasEnvio() {
+        return colasEnvio;
+    }
+
     public Planificador getPlanificador() {
         return planificador;
     }
@@ -805,7 +1606,43 @@ public class SistemaArchivos {
         return buffer;
     }
 
-    public LinkedList<Proceso> getProcesos() {
+    /**
+     * Despachador de E/S, o null si nunca se inició
+     */
+    public DespachadorIO getDespachador() {
+        return despachador;
+    }
+
+    public synchronized Desfragmentador getDesfragmentador() {
+        return obtenerDesfragmentador();
+    }
+
+    /**
+     * Métricas del buffer, o null si el sistema no tiene buffer
+     */
+    public EstadisticasBuffer getEstadisticasBuffer() {
+        return buffer != null ? buffer.getEstadisticas() : null;
+    }
+
+    public LecturaAnticipada getLecturaAnticipada() {
+        return lecturaAnticipada;
+    }
+
+    /**
+     * Copia de los terminados recientes seguidos de los procesos vivos
+     */
+    public synchronized LinkedList<Proceso> getProcesos() {
+        return procesos.obtenerTodos();
+    }
+
+    /**
+     * Proceso vivo con ese id, o null si no existe o ya terminó
+     */
+    public synchronized Proceso getProceso(int idProceso) {
+        return procesos.obtener(idProceso);
+    }
+
+    public TablaProcesos getTablaProcesos() {
         return procesos;
     }
 
@@ -822,38 +1659,118 @@ public class SistemaArchivos {
     }
 
     public int getTotalOperacionesExitosas() {
-        return totalOperacionesExitosas;
+        return totalOperacionesExitosas.intValue();
     }
 
     public int getTotalOperacionesFallidas() {
-        return totalOperacionesFallidas;
+        return totalOperacionesFallidas.intValue();
+    }
+
+    public int getTotalEscriturasAbsorbidas() {
+        return totalEscriturasAbsorbidas.intValue();
+    }
+
+    public int getTotalEscriturasDispositivo() {
+        return totalEscriturasDispositivo.intValue();
     }
 
     // ====== SETTERS ======
 
-    public void setModoAdministrador(boolean admin) {
+    public synchronized void setModoAdministrador(boolean admin) {
         this.modoActual = admin ? Modo.ADMIN : Modo.USUARIO;
     }
 
-    public void setModoActual(Modo modo) {
+    public synchronized void setModoActual(Modo modo) {
         this.modoActual = modo;
     }
 
-    public void setUsuarioActual(String usuario) {
+    public synchronized void setUsuarioActual(String usuario) {
         this.usuarioActual = usuario;
     }
 
     /**
      * Ajusta el directorio actual usado para operaciones de creación/eliminación.
      */
-    public void setDirectorioActual(Directorio directorioActual) {
+    public synchronized void setDirectorioActual(Directorio directorioActual) {
         this.directorioActual = directorioActual != null ? directorioActual : raiz;
     }
 
-    public void setPoliticaPlanificacion(Planificador.PoliticaplanificacionDisco politica) {
+    /**
+     * Activa la desfragmentación incremental tras cada solicitud procesada
+     * (0 la desactiva)
+     */
+    public synchronized void setDesfragmentacionAutomatica(int bloquesPorSolicitud) {
+        this.bloquesDesfragmentacionPorSolicitud = Math.max(0, bloquesPorSolicitud);
+    }
+
+    public synchronized void setModoAsignacion(Disco.ModoAsignacion modo) {
+        disco.setModoAsignacion(modo);
+    }
+
+    public synchronized void setPoliticaAsignacion(Disco.PoliticaAsignacion politica) {
+        disco.setPoliticaAsignacion(politica);
+    }
+
+    public synchronized void setPoliticaPlanificacion(Planificador.PoliticaplanificacionDisco politica) {
         planificador.setPoliticaActual(politica);
     }
 
+    /**
+     * Reemplaza el buffer por uno de capacidadBytes respaldado por memoria
+     * fuera del heap, dividida en marcos de tamañoBloque bytes. Antes se
+     * escriben los bloques sucios del buffer actual
+     */
+    public synchronized void usarBufferFueraDelHeap(long capacidadBytes, int tamañoBloque) {
+        if (buffer == null) {
+            return;
+        }
+        sincronizarBuffer();
+        this.capacidadBufferBytes = capacidadBytes;
+        this.tamañoBloqueBuffer = tamañoBloque;
+        this.buffer = reemplazarBuffer(buffer, crearBuffer(disco.getTotalBloques()));
+        lecturaAnticipada.limpiar();
+    }
+
+    /**
+     * Activa o desactiva la escritura diferida; al desactivarla se descargan
+     * los bloques sucios
+     */
+    public synchronized void setEscrituraDiferida(boolean escrituraDiferida) {
+        if (buffer == null) {
+            return;
+        }
+        if (!escrituraDiferida) {
+            descargarBuffer();
+        } else {
+            conectarDesalojo(buffer);
+        }
+        buffer.setEscrituraDiferida(escrituraDiferida);
+    }
+
+    /**
+     * Activa o desactiva la medición de distancias de reutilización del buffer
+     */
+    public synchronized void setMedirDistanciasBuffer(boolean medir) {
+        if (buffer != null) {
+            buffer.setMedirDistancias(medir);
+        }
+    }
+
+    /**
+     * Un bloque sucio desalojado se escribe al disco. Solo hay bloques sucios
+     * con escritura diferida, así que se conecta al activarla y no en el
+     * constructor
+     */
+    private void conectarDesalojo(Buffer destino) {
+        destino.setAlDesalojarSucio(numero -> encolarEscritura(numero, 1));
+    }
+
+    public synchronized void setPoliticaReemplazo(Buffer.PoliticaReemplazo politica) {
+        if (buffer != null) {
+            buffer.setPoliticaActual(politica);
+        }
+    }
+
     @Override
     public String toString() {
         return "SistemaArchivos{" +
@@ -1,11 +1,17 @@
 package modelo;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Clase que representa una solicitud de E/S en la cola del disco
  */
 public class SolicitudIO {
     public enum TipoOperacion {
-        CREAR, LEER, ACTUALIZAR, ELIMINAR
+        CREAR, LEER, ACTUALIZAR, ELIMINAR,
+        ESCRIBIR    // Escritura al disco de bloques sucios del buffer
     }
 
     private int idSolicitud;
@@ -17,18 +23,35 @@ public class SolicitudIO {
     private long tiempoFinalizacion;
     private boolean completada;
     private int cilindroAcceso;  // Para SSTF y SCAN
+    private int cantidadBloques; // Bloques contiguos desde cilindroAcceso
+    private boolean anticipada;  // Lectura anticipada: baja prioridad
+    private boolean cancelada;   // Lectura anticipada que ya no hace falta
+    private long ordenLlegada;   // Posición de llegada a la cola (desempate FIFO)
+    private String usuario;      // Dueño del proceso, para el reparto equitativo
+    private List<SolicitudIO> fusionadas;  // Solicitudes contiguas absorbidas por esta
+    private Proceso proceso;     // Proceso que la emitió, para actualizarlo sin buscarlo
+    private final CompletableFuture<SolicitudIO> finalizacion;
 
     public SolicitudIO(int idSolicitud, int idProceso, TipoOperacion tipo, 
                        Archivo archivo, int cilindroAcceso) {
+        this(idSolicitud, idProceso, tipo, archivo, cilindroAcceso, 1);
+    }
+
+    public SolicitudIO(int idSolicitud, int idProceso, TipoOperacion tipo,
+                       Archivo archivo, int cilindroAcceso, int cantidadBloques) {
         this.idSolicitud = idSolicitud;
         this.idProceso = idProceso;
         this.tipo = tipo;
         this.archivoAfectado = archivo;
         this.cilindroAcceso = cilindroAcceso;
+        this.cantidadBloques = Math.max(1, cantidadBloques);
         this.tiempoLlegada = System.currentTimeMillis();
         this.tiempoInicio = -1;
         this.tiempoFinalizacion = -1;
         this.completada = false;
+        this.anticipada = false;
+        this.usuario = "sistema";
+        this.finalizacion = new CompletableFuture<>();
     }
 
     // Getters
@@ -68,6 +91,60 @@ public class SolicitudIO {
         return cilindroAcceso;
     }
 
+    public int getCantidadBloques() {
+        return cantidadBloques;
+    }
+
+    public boolean isAnticipada() {
+        return anticipada;
+    }
+
+    public boolean isCancelada() {
+        return cancelada;
+    }
+
+    public String getUsuario() {
+        return usuario;
+    }
+
+    /**
+     * Futuro que se completa con la propia solicitud cuando el despacho la
+     * termina (o con el error si falló). Las dependencias sin "Async" corren
+     * en el hilo que despacha y con el cerrojo del sistema tomado
+     */
+    public CompletableFuture<SolicitudIO> getFinalizacion() {
+        return finalizacion;
+    }
+
+    /**
+     * Solicitudes que la cola fusionó con esta; se completan junto con ella
+     */
+    public List<SolicitudIO> getFusionadas() {
+        return fusionadas != null ? Collections.unmodifiableList(fusionadas) : Collections.emptyList();
+    }
+
+    /**
+     * Primer bloque posterior al tramo que cubre la solicitud
+     */
+    public int getCilindroFin() {
+        return cilindroAcceso + cantidadBloques;
+    }
+
+    /**
+     * Solo LEER cuenta como lectura; el resto modifica el disco
+     */
+    public boolean esLectura() {
+        return tipo == TipoOperacion.LEER;
+    }
+
+    long getOrdenLlegada() {
+        return ordenLlegada;
+    }
+
+    Proceso getProceso() {
+        return proceso;
+    }
+
     // Setters
     public void setTiempoInicio(long tiempoInicio) {
         this.tiempoInicio = tiempoInicio;
@@ -81,6 +158,51 @@ public class SolicitudIO {
         this.completada = completada;
     }
 
+    void setAnticipada(boolean anticipada) {
+        this.anticipada = anticipada;
+    }
+
+    void cancelar() {
+        this.cancelada = true;
+    }
+
+    /**
+     * Absorbe una solicitud contigua que ya no estará en la cola; el tramo
+     * resultante va de inicio a inicio + cantidadBloques
+     */
+    void absorber(SolicitudIO otra, int inicio, int cantidadBloques) {
+        if (fusionadas == null) {
+            fusionadas = new ArrayList<>();
+        }
+        fusionadas.add(otra);
+        if (otra.fusionadas != null) {
+            fusionadas.addAll(otra.fusionadas);
+            otra.fusionadas = null;
+        }
+        this.cilindroAcceso = inicio;
+        this.cantidadBloques = cantidadBloques;
+    }
+
+    void setUsuario(String usuario) {
+        this.usuario = usuario != null ? usuario : "sistema";
+    }
+
+    void setOrdenLlegada(long ordenLlegada) {
+        this.ordenLlegada = ordenLlegada;
+    }
+
+    void setProceso(Proceso proceso) {
+        this.proceso = proceso;
+    }
+
+    /**
+     * Redirige la solicitud cuando los bloques del archivo cambian de lugar.
+     * Si está en cola debe hacerse mediante ColaIO.reubicarSolicitud
+     */
+    void setCilindroAcceso(int cilindroAcceso) {
+        this.cilindroAcceso = cilindroAcceso;
+    }
+
     public long getTiempoEspera() {
         if (tiempoInicio > 0) {
             return tiempoInicio - tiempoLlegada;
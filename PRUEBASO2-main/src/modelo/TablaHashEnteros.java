@@ -0,0 +1,155 @@
+package modelo;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Tabla hash de claves int primitivas con direccionamiento abierto (sondeo
+ * lineal), sin objetos por entrada ni claves encapsuladas
+ */
+public class TablaHashEnteros<V> {
+    private static final int CAPACIDAD_MINIMA = 16;
+
+    private int[] claves;
+    private Object[] valores;   // null = casilla vacía
+    private int tamaño;
+    private int mascara;
+
+    public TablaHashEnteros() {
+        this(CAPACIDAD_MINIMA);
+    }
+
+    public TablaHashEnteros(int capacidadEsperada) {
+        int capacidad = Integer.highestOneBit(Math.max(CAPACIDAD_MINIMA, capacidadEsperada * 2 - 1) << 1);
+        this.claves = new int[capacidad];
+        this.valores = new Object[capacidad];
+        this.mascara = capacidad - 1;
+        this.tamaño = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V obtener(int clave) {
+        int i = posicion(clave);
+        while (valores[i] != null) {
+            if (claves[i] == clave) {
+                return (V) valores[i];
+            }
+            i = (i + 1) & mascara;
+        }
+        return null;
+    }
+
+    public boolean contiene(int clave) {
+        return obtener(clave) != null;
+    }
+
+    /**
+     * Asocia el valor a la clave y devuelve el valor anterior, o null
+     */
+    @SuppressWarnings("unchecked")
+    public V poner(int clave, V valor) {
+        if (valor == null) {
+            throw new IllegalArgumentException("La tabla no admite valores nulos");
+        }
+        int i = posicion(clave);
+        while (valores[i] != null) {
+            if (claves[i] == clave) {
+                V anterior = (V) valores[i];
+                valores[i] = valor;
+                return anterior;
+            }
+            i = (i + 1) & mascara;
+        }
+        claves[i] = clave;
+        valores[i] = valor;
+        tamaño++;
+        if (tamaño * 2 > valores.length) {
+            redimensionar(valores.length * 2);
+        }
+        return null;
+    }
+
+    /**
+     * Quita la clave y devuelve su valor, o null si no estaba
+     */
+    @SuppressWarnings("unchecked")
+    public V remover(int clave) {
+        int i = posicion(clave);
+        while (valores[i] != null) {
+            if (claves[i] == clave) {
+                V anterior = (V) valores[i];
+                desplazarHaciaAtras(i);
+                tamaño--;
+                return anterior;
+            }
+            i = (i + 1) & mascara;
+        }
+        return null;
+    }
+
+    public int getTamaño() {
+        return tamaño;
+    }
+
+    public boolean estaVacia() {
+        return tamaño == 0;
+    }
+
+    public void limpiar() {
+        Arrays.fill(valores, null);
+        tamaño = 0;
+    }
+
+    /**
+     * Aplica la acción a cada valor (en orden de casilla)
+     */
+    @SuppressWarnings("unchecked")
+    public void recorrer(Consumer<V> accion) {
+        for (Object valor : valores) {
+            if (valor != null) {
+                accion.accept((V) valor);
+            }
+        }
+    }
+
+    /**
+     * Borrado sin marcas: recorre el grupo y adelanta las entradas que
+     * quedarían inalcanzables tras vaciar la casilla
+     */
+    private void desplazarHaciaAtras(int vacia) {
+        int i = (vacia + 1) & mascara;
+        while (valores[i] != null) {
+            int ideal = posicion(claves[i]);
+            if (((i - ideal) & mascara) >= ((i - vacia) & mascara)) {
+                claves[vacia] = claves[i];
+                valores[vacia] = valores[i];
+                vacia = i;
+            }
+            i = (i + 1) & mascara;
+        }
+        valores[vacia] = null;
+    }
+
+    private void redimensionar(int nuevaCapacidad) {
+        int[] clavesAnteriores = claves;
+        Object[] valoresAnteriores = valores;
+        claves = new int[nuevaCapacidad];
+        valores = new Object[nuevaCapacidad];
+        mascara = nuevaCapacidad - 1;
+        for (int i = 0; i < valoresAnteriores.length; i++) {
+            if (valoresAnteriores[i] != null) {
+                int j = posicion(clavesAnteriores[i]);
+                while (valores[j] != null) {
+                    j = (j + 1) & mascara;
+                }
+                claves[j] = clavesAnteriores[i];
+                valores[j] = valoresAnteriores[i];
+            }
+        }
+    }
+
+    private int posicion(int clave) {
+        int h = clave * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mascara;
+    }
+}
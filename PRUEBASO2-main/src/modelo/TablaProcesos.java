@@ -0,0 +1,125 @@
+package modelo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tabla de procesos del sistema. Los procesos vivos se indexan por id en una
+ * tabla hash concurrente (búsqueda O(1)), así las operaciones concurrentes
+ * agregan procesos sin el cerrojo del sistema; al terminar se retiran a un
+ * historial circular acotado, así la memoria no crece con la duración de la
+ * simulación. El historial se protege con su propio monitor
+ */
+public class TablaProcesos {
+    public static final int CAPACIDAD_HISTORIAL = 256;
+
+    private final ConcurrentHashMap<Integer, Proceso> activos;
+    private final Proceso[] historial;
+    private int inicioHistorial;    // Casilla del terminado más antiguo
+    private int tamañoHistorial;
+    private long totalRetirados;
+
+    public TablaProcesos() {
+        this(CAPACIDAD_HISTORIAL);
+    }
+
+    public TablaProcesos(int capacidadHistorial) {
+        this.activos = new ConcurrentHashMap<>();
+        this.historial = new Proceso[Math.max(1, capacidadHistorial)];
+        this.inicioHistorial = 0;
+        this.tamañoHistorial = 0;
+        this.totalRetirados = 0;
+    }
+
+    public void agregar(Proceso proceso) {
+        activos.put(proceso.getIdProceso(), proceso);
+    }
+
+    /**
+     * Proceso vivo con ese id, o null si no existe o ya se retiró
+     */
+    public Proceso obtener(int idProceso) {
+        return activos.get(idProceso);
+    }
+
+    /**
+     * Saca de la tabla un proceso terminado y lo guarda en el historial,
+     * desplazando al terminado más antiguo si está lleno
+     */
+    public void retirar(Proceso proceso) {
+        if (activos.remove(proceso.getIdProceso()) == null) {
+            return;
+        }
+        synchronized (historial) {
+            int casilla = (inicioHistorial + tamañoHistorial) % historial.length;
+            historial[casilla] = proceso;
+            if (tamañoHistorial < historial.length) {
+                tamañoHistorial++;
+            } else {
+                inicioHistorial = (inicioHistorial + 1) % historial.length;
+            }
+            totalRetirados++;
+        }
+    }
+
+    /**
+     * Terminados recientes, del más antiguo al más nuevo
+     */
+    public List<Proceso> getHistorial() {
+        synchronized (historial) {
+            List<Proceso> terminados = new ArrayList<>(tamañoHistorial);
+            for (int i = 0; i < tamañoHistorial; i++) {
+                terminados.add(historial[(inicioHistorial + i) % historial.length]);
+            }
+            return terminados;
+        }
+    }
+
+    /**
+     * Copia con el historial seguido de los procesos vivos ordenados por id
+     */
+    public LinkedList<Proceso> obtenerTodos() {
+        List<Proceso> vivos = new ArrayList<>(activos.values());
+        vivos.sort((a, b) -> Integer.compare(a.getIdProceso(), b.getIdProceso()));
+        LinkedList<Proceso> todos = new LinkedList<>(getHistorial());
+        todos.addAll(vivos);
+        return todos;
+    }
+
+    public void limpiar() {
+        activos.clear();
+        synchronized (historial) {
+            Arrays.fill(historial, null);
+            inicioHistorial = 0;
+            tamañoHistorial = 0;
+            totalRetirados = 0;
+        }
+    }
+
+    // Getters
+    public int getCantidadActivos() {
+        return activos.size();
+    }
+
+    public int getCapacidadHistorial() {
+        return historial.length;
+    }
+
+    public long getTotalRetirados() {
+        synchronized (historial) {
+            return totalRetirados;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "TablaProcesos{" +
+                "activos=" + getCantidadActivos() +
+                ", historial=" + getHistorial().size() +
+                ", retirados=" + getTotalRetirados() +
+                '}';
+    }
+}